@@ -0,0 +1,240 @@
+package kioskapp;
+
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+
+import kioskapp.manager.CatalogWatcher;
+import kioskapp.manager.DefaultMenu;
+import kioskapp.manager.IntakePipeline;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.OrderIdGenerator;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.ProductManager;
+import kioskapp.manager.ProductSearchIndex;
+import kioskapp.manager.SchedulingPolicy;
+import kioskapp.storage.OrderArchive;
+import kioskapp.storage.OrderJournal;
+import kioskapp.view.AdminController;
+import kioskapp.view.CashierController;
+import kioskapp.view.CustomerController;
+import kioskapp.view.MetricsController;
+import kioskapp.view.PendingOrdersModel;
+import kioskapp.view.PreparingOrdersModel;
+import kioskapp.view.ProductListModel;
+import kioskapp.view.QueueDisplayController;
+import kioskapp.view.SalesController;
+import kioskapp.view.StationController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+
+public class KioskApp extends Application {
+
+    private Stage primaryStage;
+    private ProductManager productManager;
+    private CatalogWatcher catalogWatcher;
+    private OrderManager orderManager;
+    private OrderArchive archive;
+    private Kitchen kitchen;
+    private IntakePipeline intake; // places the customer screens' orders off the FX thread
+    private ProductListModel productList;
+    private ProductSearchIndex searchIndex;
+    private PreparingOrdersModel preparingOrders;
+    private PendingOrdersModel pendingOrders;
+
+    @Override
+    public void start(Stage primaryStage) {
+        this.primaryStage = primaryStage;
+        this.primaryStage.setTitle("Jollibee Kiosk System - Main Menu");
+
+        try {
+            Image iconImage = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/jobilee_logo.png")));
+            this.primaryStage.getIcons().add(iconImage);
+        } catch (Exception e) {
+            System.err.println("Error loading stage icon: " + e.getMessage());
+            // It's okay to continue without an icon, but log the error.
+        }
+
+        // Initialize managers
+        productManager = new ProductManager();
+        // Load the menu file and follow its changes, before any order is
+        // recovered from the journal (as the backend launcher does)
+        catalogWatcher = openCatalog(productManager);
+        // The archive goes in first, so recovery can add back completed orders it lost
+        archive = openArchive();
+        orderManager = new OrderManager(openJournal(), schedulingPolicy(), new OrderIdGenerator(0), archive);
+        // Split orders sent to preparation into station tickets
+        kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+        // Customer screens place orders through the pipeline: it re-prices carts
+        // against the catalog and waits for the disk on its own threads
+        intake = new IntakePipeline(productManager, orderManager, 256);
+
+        // Observable copies for the screens; the managers themselves have no JavaFX
+        productList = new ProductListModel(productManager);
+        searchIndex = new ProductSearchIndex(productManager);
+        preparingOrders = new PreparingOrdersModel(orderManager);
+        pendingOrders = new PendingOrdersModel(orderManager);
+
+        // Set up the main navigation scene
+        showMainScene();
+    }
+
+    private void showMainScene() {
+        VBox root = new VBox(20);
+        root.setAlignment(Pos.CENTER);
+        root.setPadding(new Insets(50));
+
+        // Create buttons for navigation
+        Button customerButton = new Button("Customer View");
+        Button cashierButton = new Button("Cashier View");
+        Button adminButton = new Button("Admin View");
+        Button queueDisplayButton = new Button("Queue Display");
+        Button metricsButton = new Button("Pipeline Metrics");
+        Button salesButton = new Button("Sales Report");
+        Button stationButton = new Button("Kitchen Station");
+
+        // Set preferred width for buttons for consistent look
+        customerButton.setPrefWidth(200);
+        cashierButton.setPrefWidth(200);
+        adminButton.setPrefWidth(200);
+        queueDisplayButton.setPrefWidth(200);
+        metricsButton.setPrefWidth(200);
+        salesButton.setPrefWidth(200);
+        stationButton.setPrefWidth(200);
+
+        // Apply basic styling to buttons for a better look (Jollibee colors)
+        String buttonStyle = "-fx-font-size: 18px; -fx-padding: 10 20; -fx-background-color: #e62429; -fx-text-fill: white; -fx-border-radius: 8px; -fx-background-radius: 8px; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.3), 5, 0, 2, 2);";
+        String buttonHoverStyle = "-fx-background-color: #cc1e22; -fx-scale-x: 1.02; -fx-scale-y: 1.02;"; // Darker on hover, slight scale
+        customerButton.setStyle(buttonStyle);
+        cashierButton.setStyle(buttonStyle);
+        adminButton.setStyle(buttonStyle);
+        queueDisplayButton.setStyle(buttonStyle);
+        metricsButton.setStyle(buttonStyle);
+        salesButton.setStyle(buttonStyle);
+        stationButton.setStyle(buttonStyle);
+
+        // Add hover effects
+        customerButton.setOnMouseEntered(e -> customerButton.setStyle(buttonStyle + buttonHoverStyle));
+        customerButton.setOnMouseExited(e -> customerButton.setStyle(buttonStyle));
+        cashierButton.setOnMouseEntered(e -> cashierButton.setStyle(buttonStyle + buttonHoverStyle));
+        cashierButton.setOnMouseExited(e -> cashierButton.setStyle(buttonStyle));
+        adminButton.setOnMouseEntered(e -> adminButton.setStyle(buttonStyle + buttonHoverStyle));
+        adminButton.setOnMouseExited(e -> adminButton.setStyle(buttonStyle));
+        queueDisplayButton.setOnMouseEntered(e -> queueDisplayButton.setStyle(buttonStyle + buttonHoverStyle));
+        queueDisplayButton.setOnMouseExited(e -> queueDisplayButton.setStyle(buttonStyle));
+        metricsButton.setOnMouseEntered(e -> metricsButton.setStyle(buttonStyle + buttonHoverStyle));
+        metricsButton.setOnMouseExited(e -> metricsButton.setStyle(buttonStyle));
+        salesButton.setOnMouseEntered(e -> salesButton.setStyle(buttonStyle + buttonHoverStyle));
+        salesButton.setOnMouseExited(e -> salesButton.setStyle(buttonStyle));
+        stationButton.setOnMouseEntered(e -> stationButton.setStyle(buttonStyle + buttonHoverStyle));
+        stationButton.setOnMouseExited(e -> stationButton.setStyle(buttonStyle));
+
+        // Set actions for buttons to open new windows
+        customerButton.setOnAction(e -> openNewWindow("Customer View", () -> new CustomerController(productManager, intake, productList, searchIndex).getCustomerScene()));
+        cashierButton.setOnAction(e -> openNewWindow("Cashier View", () -> new CashierController(orderManager, pendingOrders).getCashierScene()));
+        adminButton.setOnAction(e -> openNewWindow("Admin View", () -> new AdminController(productManager, productList).getAdminScene()));
+        queueDisplayButton.setOnAction(e -> openNewWindow("Order Queue Display", () -> new QueueDisplayController(orderManager, preparingOrders).getQueueDisplayScene()));
+        metricsButton.setOnAction(e -> openNewWindow("Pipeline Metrics", () -> new MetricsController(orderManager).getMetricsScene()));
+        salesButton.setOnAction(e -> openNewWindow("Sales Report", () -> new SalesController(orderManager.getSales()).getSalesScene()));
+        stationButton.setOnAction(e -> openNewWindow("Kitchen Station", () -> new StationController(kitchen).getStationScene()));
+
+        // Add buttons to the root VBox
+        root.getChildren().addAll(customerButton, cashierButton, adminButton, metricsButton, salesButton, stationButton, queueDisplayButton);
+
+        // Create the scene and set it to the primary stage
+        Scene scene = new Scene(root, 600, 660);
+        root.setStyle("-fx-background-color: #fff9ed;");
+        primaryStage.setScene(scene);
+        primaryStage.show();
+    }
+
+    private void openNewWindow(String title, java.util.function.Supplier<javafx.scene.Scene> sceneSupplier) {
+        Stage newStage = new Stage();
+        newStage.setTitle(title);
+        newStage.setScene(sceneSupplier.get());
+        try {
+            Image iconImage = new Image(Objects.requireNonNull(getClass().getResourceAsStream("/jobilee_logo.png")));
+            newStage.getIcons().add(iconImage);
+        } catch (Exception e) {
+            System.err.println("Error loading icon for new stage: " + e.getMessage());
+        }
+        newStage.show();
+    }
+
+    //Picks the cashiers' queue order from --policy=strict|aging|aging:<seconds>|prep|prep:<seconds>.
+    //Aging (the default) lets priority orders go first without starving the rest.
+    private SchedulingPolicy schedulingPolicy() {
+        try {
+            return SchedulingPolicy.parse(getParameters().getNamed().get("policy"));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "; using aging");
+            return SchedulingPolicy.parse(null);
+        }
+    }
+
+    //Opens the order journal so orders survive a restart.
+    //Falls back to memory only if the folder cannot be used.
+    private OrderJournal openJournal() {
+        try {
+            return OrderJournal.open(Paths.get("kiosk-data", "journal"));
+        } catch (IOException e) {
+            System.err.println("Order journal unavailable, orders will not survive a restart: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //Opens the history of completed orders in kiosk-data/archive.
+    //Returns null (no history) if the folder cannot be used.
+    private OrderArchive openArchive() {
+        try {
+            return OrderArchive.open(Paths.get("kiosk-data", "archive"));
+        } catch (IOException e) {
+            System.err.println("Order archive unavailable, completed orders will not be kept: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //Loads the menu from kiosk-data/menu.csv and watches it for edits.
+    //Falls back to the built-in demo menu if the file cannot be used.
+    private CatalogWatcher openCatalog(ProductManager productManager) {
+        Path menuFile = Paths.get("kiosk-data", "menu.csv");
+        try {
+            return CatalogWatcher.open(menuFile, productManager, DefaultMenu.products());
+        } catch (IOException e) {
+            System.err.println("Menu file unavailable, using the built-in menu: " + e.getMessage());
+            DefaultMenu.loadInto(productManager);
+            return null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (catalogWatcher != null) {
+            catalogWatcher.close();
+        }
+        if (intake != null) {
+            intake.close(); // finishes the orders already submitted
+        }
+        if (orderManager != null) {
+            orderManager.close();
+        }
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
\ No newline at end of file
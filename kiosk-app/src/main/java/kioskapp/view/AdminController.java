@@ -8,13 +8,14 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import kioskapp.manager.ProductManager;
+import kioskapp.model.Money;
 import kioskapp.model.Product;
-import java.util.Locale;
 
 
  //Admin interface for managing products.
 public class AdminController {
     private ProductManager productManager;
+    private ProductListModel productList;
 
     // Input fields and table
     private TextField idField;
@@ -23,9 +24,10 @@ public class AdminController {
     private TableView<Product> productsTable;
 
 
-     //Constructor that takes the product manager.
-    public AdminController(ProductManager productManager) {
+     //Constructor that takes the product manager and the table's copy of the catalog.
+    public AdminController(ProductManager productManager, ProductListModel productList) {
         this.productManager = productManager;
+        this.productList = productList;
     }
 
 
@@ -107,7 +109,7 @@ public class AdminController {
         // --- Table ---
         productsTable = new TableView<>();
         productsTable.setPrefHeight(250);
-        productsTable.setItems(productManager.getAllProducts());
+        productsTable.setItems(productList.getProducts());
 
         // Columns
         TableColumn<Product, String> productIdCol = new TableColumn<>("ID");
@@ -116,13 +118,13 @@ public class AdminController {
         TableColumn<Product, String> productNameCol = new TableColumn<>("Name");
         productNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
 
-        TableColumn<Product, Double> productPriceCol = new TableColumn<>("Price (₱)");
+        TableColumn<Product, Money> productPriceCol = new TableColumn<>("Price (₱)");
         productPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
         productPriceCol.setCellFactory(tc -> new TableCell<>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                setText(empty ? null : String.format(Locale.US, "%.2f", price));
+                setText(empty || price == null ? null : price.toString());
             }
         });
 
@@ -134,7 +136,7 @@ public class AdminController {
             if (newSel != null) {
                 idField.setText(newSel.getId());
                 nameField.setText(newSel.getName());
-                priceField.setText(String.format(Locale.US, "%.2f", newSel.getPrice()));
+                priceField.setText(newSel.getPrice().toPlainString());
             } else {
                 clearFields();
             }
@@ -160,16 +162,23 @@ public class AdminController {
         }
 
         try {
-            double price = Double.parseDouble(priceText);
-            if (price < 0) {
+            Money price = Money.parse(priceText);
+            if (price.isNegative()) {
                 showAlert(Alert.AlertType.ERROR, "Invalid Price", "Price cannot be negative.");
                 return;
             }
-            Product newProduct = new Product(id, name, price);
-            productManager.addProduct(newProduct);
+            if (productManager.getProductById(id) != null) {
+                showAlert(Alert.AlertType.WARNING, "Duplicate Product ID", "Product with ID " + id + " already exists.");
+                return;
+            }
+            productManager.addProduct(new Product(id, name, price));
             clearFields();
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.ERROR, "Invalid Price", "Please enter a valid number for price.");
+        } catch (IllegalArgumentException e) {
+            // The ID or name would break the menu file (see CatalogFile.checkId and
+            // checkName), or the ID was taken by a menu reload since the check above
+            showAlert(Alert.AlertType.ERROR, "Invalid Product", e.getMessage() + ".");
         }
     }
 
@@ -191,8 +200,8 @@ public class AdminController {
         }
 
         try {
-            double price = Double.parseDouble(priceText);
-            if (price < 0) {
+            Money price = Money.parse(priceText);
+            if (price.isNegative()) {
                 showAlert(Alert.AlertType.ERROR, "Invalid Price", "Price cannot be negative.");
                 return;
             }
@@ -205,6 +214,9 @@ public class AdminController {
             }
         } catch (NumberFormatException e) {
             showAlert(Alert.AlertType.ERROR, "Invalid Price", "Please enter a valid price.");
+        } catch (IllegalArgumentException e) {
+            // The name would break the menu file (see CatalogFile.checkName)
+            showAlert(Alert.AlertType.ERROR, "Invalid Product Name", e.getMessage() + ".");
         }
     }
 
@@ -1,5 +1,6 @@
 package kioskapp.view;
 
+import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -9,18 +10,19 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import kioskapp.manager.OrderManager;
+import kioskapp.model.Money;
 import kioskapp.model.Order;
 import kioskapp.model.OrderItem;
 
-import java.util.Locale;
-
 
  //Handles the Cashier View.
  //Allows the cashier to get the next order, view details, confirm payment,
- //and send it to the kitchen.
+ //and send it to the kitchen. A monitor table shows everyone still waiting,
+ //in the order they will be served.
 
 public class CashierController {
     private OrderManager orderManager;
+    private PendingOrdersModel pendingOrders;
     private Order currentProcessingOrder; // The order currently being handled
 
     // UI Components
@@ -32,10 +34,11 @@ public class CashierController {
     private Label statusLabel;
 
 
-    //Constructor that receives an order manager.
+    //Constructor that receives an order manager and the live waiting queue.
 
-    public CashierController(OrderManager orderManager) {
+    public CashierController(OrderManager orderManager, PendingOrdersModel pendingOrders) {
         this.orderManager = orderManager;
+        this.pendingOrders = pendingOrders;
     }
 
 
@@ -94,13 +97,13 @@ public class CashierController {
         TableColumn<OrderItem, Integer> itemQtyCol = new TableColumn<>("Qty");
         itemQtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
 
-        TableColumn<OrderItem, Double> itemPriceCol = new TableColumn<>("Subtotal (₱)");
+        TableColumn<OrderItem, Money> itemPriceCol = new TableColumn<>("Subtotal (₱)");
         itemPriceCol.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
         itemPriceCol.setCellFactory(tc -> new TableCell<>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                setText(empty ? null : String.format(Locale.US, "%.2f", price));
+                setText(empty || price == null ? null : price.toString());
             }
         });
 
@@ -142,10 +145,38 @@ public class CashierController {
         statusLabel = new Label("No order retrieved.");
         statusLabel.setStyle("-fx-font-size: 14px; -fx-font-style: italic; -fx-text-fill: #666;");
 
+        // Waiting queue monitor, next order at the top
+        Label waitingLabel = new Label();
+        waitingLabel.textProperty().bind(Bindings.size(pendingOrders.getOrders()).asString("Waiting Orders: %d"));
+        waitingLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #e62429;");
+
+        TableView<Order> waitingTable = new TableView<>(pendingOrders.getOrders());
+        waitingTable.setPrefHeight(180);
+
+        TableColumn<Order, String> waitingIdCol = new TableColumn<>("Order #");
+        waitingIdCol.setCellValueFactory(data -> pendingOrders.rowFor(data.getValue()).orderIdProperty());
+
+        TableColumn<Order, String> waitingPriorityCol = new TableColumn<>("Priority");
+        waitingPriorityCol.setCellValueFactory(data -> pendingOrders.rowFor(data.getValue()).priorityProperty());
+
+        TableColumn<Order, String> waitingTimeCol = new TableColumn<>("Time Placed");
+        waitingTimeCol.setCellValueFactory(data -> pendingOrders.rowFor(data.getValue()).timePlacedProperty());
+
+        TableColumn<Order, String> waitingTotalCol = new TableColumn<>("Total (₱)");
+        waitingTotalCol.setCellValueFactory(data -> pendingOrders.rowFor(data.getValue()).totalProperty());
+
+        waitingTable.getColumns().addAll(waitingIdCol, waitingPriorityCol, waitingTimeCol, waitingTotalCol);
+        // The rows are in service order; a column sort would only hide which order is next
+        for (TableColumn<Order, ?> column : waitingTable.getColumns()) {
+            column.setSortable(false);
+        }
+        waitingTable.setSortPolicy(table -> false);
+        waitingTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
         // Add all UI elements to root
-        root.getChildren().addAll(title, orderDetailsGrid, itemsLabel, orderItemsTable, buttons, statusLabel, backButton);
+        root.getChildren().addAll(title, orderDetailsGrid, itemsLabel, orderItemsTable, buttons, statusLabel, waitingLabel, waitingTable, backButton);
 
-        return new Scene(root, 650, 700);
+        return new Scene(root, 650, 920);
     }
 
     //Gets the next order from the queue and shows its details.
@@ -156,7 +187,7 @@ public class CashierController {
             orderIdLabel.setText("Order ID: " + currentProcessingOrder.getOrderId());
             orderTimeLabel.setText("Time Placed: " + currentProcessingOrder.getOrderTime().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
             orderPriorityLabel.setText("Priority: " + (currentProcessingOrder.isPriority() ? "YES" : "NO"));
-            orderTotalLabel.setText("Total: ₱" + String.format(Locale.US, "%.2f", currentProcessingOrder.getTotalCost()));
+            orderTotalLabel.setText("Total: ₱" + currentProcessingOrder.getTotalCost());
             orderItemsTable.setItems(FXCollections.observableArrayList(currentProcessingOrder.getItems()));
             statusLabel.setText("Order #" + currentProcessingOrder.getOrderId() + " retrieved. Verify and confirm.");
         } else {
@@ -1,10 +1,14 @@
 package kioskapp.view;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -17,13 +21,16 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
-import kioskapp.manager.OrderManager;
+import kioskapp.manager.IntakePipeline;
 import kioskapp.manager.ProductManager;
+import kioskapp.manager.ProductSearchIndex;
+import kioskapp.model.Money;
 import kioskapp.model.Order;
 import kioskapp.model.OrderItem;
 import kioskapp.model.Product;
 
-import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for the Customer View.
@@ -32,12 +39,16 @@ import java.util.Locale;
  */
 public class CustomerController {
     private ProductManager productManager;
-    private OrderManager orderManager;
+    private IntakePipeline intake;
+    private ProductListModel productList;
+    private ProductSearchIndex searchIndex;
     private Order currentCustomerOrder; // The order being built by the current customer
     private ObservableList<OrderItem> currentOrderItems; // Observable list for current order display
 
     // UI Elements
     private TableView<Product> productsTable;
+    private FilteredList<Product> visibleProducts; // Products matching the search box
+    private TextField searchField;
     private TableView<OrderItem> orderItemsTable;
     private Label totalCostLabel;
     private TextField quantityField;
@@ -47,13 +58,18 @@ public class CustomerController {
      * Constructs a CustomerController.
      *
      * @param productManager The manager for products.
-     * @param orderManager   The manager for orders.
+     * @param intake         The pipeline that places orders off the FX thread.
+     * @param productList    The observable copy of the catalog shown in the product table.
+     * @param searchIndex    The index the search box looks products up in.
      */
-    public CustomerController(ProductManager productManager, OrderManager orderManager) {
+    public CustomerController(ProductManager productManager, IntakePipeline intake, ProductListModel productList,
+                              ProductSearchIndex searchIndex) {
         this.productManager = productManager;
-        this.orderManager = orderManager;
+        this.intake = intake;
+        this.productList = productList;
+        this.searchIndex = searchIndex;
         // Initialize a new order for the customer session
-        this.currentCustomerOrder = new Order("", false); // Order ID and priority set when placed
+        this.currentCustomerOrder = new Order(0, false); // Order ID and priority set when placed
         this.currentOrderItems = FXCollections.observableArrayList(currentCustomerOrder.getItems());
     }
 
@@ -71,10 +87,24 @@ public class CustomerController {
         Label title = new Label("Place Your Order");
         title.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #e62429;"); // Jollibee red
 
+        // --- Search Box ---
+        searchField = new TextField();
+        searchField.setPromptText("Search the menu (e.g. \"chick meal\" or \"C1\")");
+        searchField.setStyle("-fx-font-size: 14px;");
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> applySearch());
+
         // --- Product Selection Table---
         productsTable = new TableView<>();
         productsTable.setPrefHeight(200);
-        productsTable.setItems(productManager.getAllProducts()); // Bind to all available products
+        visibleProducts = new FilteredList<>(productList.getProducts());
+        productsTable.setItems(visibleProducts); // Bind to the products matching the search
+        // Products added or renamed while a search is showing are checked against it too
+        ListChangeListener<Product> searchUpdater = c -> {
+            if (!searchField.getText().isBlank()) {
+                applySearch();
+            }
+        };
+        productList.getProducts().addListener(searchUpdater);
 
         TableColumn<Product, String> productIdCol = new TableColumn<>("ID");
         productIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
@@ -84,17 +114,17 @@ public class CustomerController {
         productNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         productNameCol.setPrefWidth(200);
 
-        TableColumn<Product, Double> productPriceCol = new TableColumn<>("Price (₱)");
+        TableColumn<Product, Money> productPriceCol = new TableColumn<>("Price (₱)");
         productPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
         productPriceCol.setPrefWidth(100);
-        productPriceCol.setCellFactory(tc -> new javafx.scene.control.TableCell<Product, Double>() {
+        productPriceCol.setCellFactory(tc -> new javafx.scene.control.TableCell<Product, Money>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                if (empty) {
+                if (empty || price == null) {
                     setText(null);
                 } else {
-                    setText(String.format(Locale.US, "%.2f", price));
+                    setText(price.toString());
                 }
             }
         });
@@ -139,17 +169,17 @@ public class CustomerController {
         orderItemQtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
         orderItemQtyCol.setPrefWidth(60);
 
-        TableColumn<OrderItem, Double> orderItemPriceCol = new TableColumn<>("Subtotal (₱)");
+        TableColumn<OrderItem, Money> orderItemPriceCol = new TableColumn<>("Subtotal (₱)");
         orderItemPriceCol.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
         orderItemPriceCol.setPrefWidth(100);
-        orderItemPriceCol.setCellFactory(tc -> new javafx.scene.control.TableCell<OrderItem, Double>() {
+        orderItemPriceCol.setCellFactory(tc -> new javafx.scene.control.TableCell<OrderItem, Money>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                if (empty) {
+                if (empty || price == null) {
                     setText(null);
                 } else {
-                    setText(String.format(Locale.US, "%.2f", price));
+                    setText(price.toString());
                 }
             }
         });
@@ -195,6 +225,7 @@ public class CustomerController {
         root.getChildren().addAll(
                 title,
                 new Label("Available Products:"),
+                searchField,
                 productsTable,
                 addSection,
                 yourOrderLabel,
@@ -206,7 +237,27 @@ public class CustomerController {
                 }
         );
 
-        return new Scene(root, 700, 750); // Adjusted scene size
+        Scene scene = new Scene(root, 700, 790); // Adjusted scene size
+        // The product list is shared by every window; stop listening once this one closes
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                newWindow.setOnHidden(e -> productList.getProducts().removeListener(searchUpdater));
+            }
+        });
+        return scene;
+    }
+
+    /**
+     * Shows only the products matching the search box; a blank box shows everything.
+     */
+    private void applySearch() {
+        String query = searchField.getText();
+        if (query.isBlank()) {
+            visibleProducts.setPredicate(null);
+            return;
+        }
+        Set<Product> matches = searchIndex.search(query);
+        visibleProducts.setPredicate(matches::contains);
     }
 
     /**
@@ -273,13 +324,18 @@ public class CustomerController {
      * Updates the displayed total cost based on the items in the current order.
      */
     private void updateTotalCostDisplay() {
-        double total = currentOrderItems.stream().mapToDouble(OrderItem::getTotalPrice).sum();
-        totalCostLabel.setText("Total: ₱" + String.format(Locale.US, "%.2f", total));
+        long totalCentavos = 0;
+        for (OrderItem item : currentOrderItems) {
+            totalCentavos += item.getProduct().getPrice().centavos() * item.getQuantity();
+        }
+        totalCostLabel.setText(Money.appendCentavos(new StringBuilder("Total: ₱"), totalCentavos).toString());
     }
 
     /**
-     * Places the current customer order into the order management system.
-     * After placing, clears the current order and prepares for a new one.
+     * Submits the current customer order to the intake pipeline.
+     * The screen is disabled until the pipeline answers (the order is on disk
+     * and queued, or refused), then the cart is cleared for the next customer.
+     * Nothing here waits on the FX thread.
      */
     private void placeOrder() {
         if (currentOrderItems.isEmpty()) {
@@ -288,20 +344,58 @@ public class CustomerController {
         }
 
         // Create a new Order object with current items and priority status
-        Order finalOrder = new Order("", priorityCheckBox.isSelected()); // ID will be set by OrderManager
-        finalOrder.getItems().addAll(currentOrderItems); // Add all items to the new order object
+        Order finalOrder = new Order(0, priorityCheckBox.isSelected()); // ID will be set by OrderManager
+        for (OrderItem item : currentOrderItems) {
+            finalOrder.addOrderItem(item); // Add all items to the new order object
+        }
 
-        orderManager.placeOrder(finalOrder); // Place the order through the manager
+        // No changes to the cart while it is being placed
+        Node root = orderItemsTable.getScene().getRoot();
+        root.setDisable(true);
+        try {
+            intake.submit(finalOrder).whenComplete((placed, error) -> Platform.runLater(() -> {
+                root.setDisable(false);
+                if (error == null) {
+                    orderPlaced();
+                } else {
+                    orderFailed(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            }));
+        } catch (IllegalStateException e) {
+            // The app is shutting down
+            root.setDisable(false);
+            orderFailed(e);
+        }
+    }
+
+    /**
+     * Tells the customer the order went through and clears the cart.
+     */
+    private void orderPlaced() {
         showAlert(Alert.AlertType.INFORMATION, "Order Placed!", "Your order has been placed. Please proceed to the cashier. Your order ID will be provided by the cashier.");
 
         // Clear current order for the next customer
         currentOrderItems.clear();
-        currentCustomerOrder = new Order("", false); // Reset for a new order
+        currentCustomerOrder = new Order(0, false); // Reset for a new order
         priorityCheckBox.setSelected(false);
         quantityField.setText("1"); // Reset quantity field
         updateTotalCostDisplay();
     }
 
+    /**
+     * Tells the customer the order was not placed. The cart is kept so it can
+     * be fixed (e.g. an item taken off the menu) and placed again.
+     *
+     * @param error Why the pipeline refused or failed the order.
+     */
+    private void orderFailed(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            showAlert(Alert.AlertType.WARNING, "Order Not Placed", error.getMessage() + ". Please check your order and try again.");
+        } else {
+            showAlert(Alert.AlertType.ERROR, "Order Not Placed", "Your order could not be saved. Please try again or ask a staff member for help.");
+        }
+    }
+
     /**
      * Displays an alert dialog.
      *
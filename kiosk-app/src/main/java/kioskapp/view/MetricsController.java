@@ -0,0 +1,178 @@
+package kioskapp.view;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import kioskapp.manager.OrderManager;
+import kioskapp.metrics.LatencyHistogram;
+import kioskapp.metrics.PipelineMetrics;
+import kioskapp.metrics.RollingGauge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+
+ //Admin screen that shows how long orders spend in each stage of the
+ //pipeline and how deep the queues are, refreshed once a second.
+public class MetricsController {
+    private OrderManager orderManager;
+    private TableView<PipelineMetrics.Stage> stagesTable;
+    private TableView<RollingGauge> gaugesTable;
+
+
+     //Constructor that takes the order manager whose metrics we show.
+    public MetricsController(OrderManager orderManager) {
+        this.orderManager = orderManager;
+    }
+
+
+     //Builds and returns the metrics screen.
+    public Scene getMetricsScene() {
+        PipelineMetrics metrics = orderManager.getMetrics();
+
+        VBox root = new VBox(15);
+        root.setPadding(new Insets(20));
+        root.setAlignment(Pos.TOP_CENTER);
+        root.setStyle("-fx-background-color: #e0f2f7;"); // Same light blue as the admin screen
+
+        Label title = new Label("Admin: Order Pipeline Metrics");
+        title.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #007bb2;");
+
+        // --- Stage latency table ---
+        Label stagesLabel = new Label("Time spent per stage (milliseconds)");
+        stagesLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        stagesTable = new TableView<>(FXCollections.observableArrayList(metrics.stages()));
+        stagesTable.setPrefHeight(130);
+
+        TableColumn<PipelineMetrics.Stage, String> stageCol = new TableColumn<>("Stage");
+        stageCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getName()));
+        stageCol.setPrefWidth(240);
+
+        TableColumn<PipelineMetrics.Stage, String> countCol = new TableColumn<>("Orders");
+        countCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getHistogram().count())));
+
+        stagesTable.getColumns().addAll(stageCol, countCol,
+                latencyColumn("p50", h -> h.percentile(50)),
+                latencyColumn("p95", h -> h.percentile(95)),
+                latencyColumn("p99", h -> h.percentile(99)),
+                latencyColumn("Max", LatencyHistogram::max));
+        stagesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
+        // --- Queue depth table ---
+        Label gaugesLabel = new Label("Queue depth (last 5 minutes)");
+        gaugesLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        gaugesTable = new TableView<>(FXCollections.observableArrayList(metrics.gauges()));
+        gaugesTable.setPrefHeight(100);
+
+        TableColumn<RollingGauge, String> gaugeNameCol = new TableColumn<>("Queue");
+        gaugeNameCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getName()));
+        gaugeNameCol.setPrefWidth(240);
+
+        TableColumn<RollingGauge, String> currentCol = new TableColumn<>("Now");
+        currentCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().current())));
+
+        TableColumn<RollingGauge, String> averageCol = new TableColumn<>("Average");
+        averageCol.setCellValueFactory(data -> new SimpleStringProperty(String.format(Locale.US, "%.1f", data.getValue().average())));
+
+        TableColumn<RollingGauge, String> peakCol = new TableColumn<>("Peak");
+        peakCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().peak())));
+
+        gaugesTable.getColumns().addAll(gaugeNameCol, currentCol, averageCol, peakCol);
+        gaugesTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+
+        // --- Buttons ---
+        HBox buttons = new HBox(10);
+        buttons.setAlignment(Pos.CENTER);
+
+        Button exportButton = new Button("Export to CSV");
+        Button resetButton = new Button("Reset Histograms");
+        Button backButton = new Button("Back to Main Menu");
+
+        exportButton.setStyle("-fx-background-color: #26a69a; -fx-text-fill: white;");
+        resetButton.setStyle("-fx-background-color: #ffb300; -fx-text-fill: white;");
+        backButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white;");
+
+        exportButton.setOnAction(e -> exportMetrics(root));
+        resetButton.setOnAction(e -> {
+            metrics.reset();
+            refresh();
+        });
+        backButton.setOnAction(e -> ((Stage) root.getScene().getWindow()).close());
+
+        buttons.getChildren().addAll(exportButton, resetButton);
+
+        root.getChildren().addAll(title, stagesLabel, stagesTable, gaugesLabel, gaugesTable, buttons, backButton);
+
+        Scene scene = new Scene(root, 800, 520);
+
+        // Refresh once a second while the window is open
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refresher.setCycleCount(Animation.INDEFINITE);
+        refresher.play();
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                newWindow.setOnHidden(e -> refresher.stop());
+            }
+        });
+
+        return scene;
+    }
+
+
+     //Makes a column that shows one latency figure in milliseconds.
+    private TableColumn<PipelineMetrics.Stage, String> latencyColumn(String name, ToLongFunction<LatencyHistogram> figure) {
+        TableColumn<PipelineMetrics.Stage, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(data -> new SimpleStringProperty(String.format(Locale.US, "%.2f",
+                PipelineMetrics.millis(figure.applyAsLong(data.getValue().getHistogram())))));
+        return column;
+    }
+
+    private void refresh() {
+        stagesTable.refresh();
+        gaugesTable.refresh();
+    }
+
+
+     //Asks where to save and writes the metrics as CSV.
+    private void exportMetrics(VBox root) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Pipeline Metrics");
+        chooser.setInitialFileName("pipeline-metrics.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(root.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            orderManager.getMetrics().exportCsv(file.toPath());
+            showAlert(Alert.AlertType.INFORMATION, "Exported", "Metrics saved to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            showAlert(Alert.AlertType.ERROR, "Export Failed", "Could not write the file: " + e.getMessage());
+        }
+    }
+
+
+    //Shows an alert box.
+    private void showAlert(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
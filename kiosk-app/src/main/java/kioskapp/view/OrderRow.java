@@ -0,0 +1,83 @@
+package kioskapp.view;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import kioskapp.model.Order;
+
+import java.time.format.DateTimeFormatter;
+
+
+ //Display strings for one order, worked out once and shared by every cell
+ //that shows it. Cell value factories hand out these properties instead of
+ //making a new property, formatter and summary string on each repaint.
+public class OrderRow {
+    // Formatters are immutable and thread-safe, so one is enough
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final Order order;
+    private final ReadOnlyStringWrapper orderId = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper priority = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper timePlaced = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper total = new ReadOnlyStringWrapper();
+    private final ReadOnlyStringWrapper itemsSummary = new ReadOnlyStringWrapper();
+    private int renderedVersion = -1;
+
+    OrderRow(Order order) {
+        this.order = order;
+        // These never change for an order
+        orderId.set(order.getOrderId());
+        priority.set(order.isPriority() ? "YES" : "NO");
+        timePlaced.set(order.getOrderTime().format(TIME_FORMAT));
+        refresh();
+    }
+
+
+     //Recomputes the strings that depend on the items, if they changed.
+     //@return This row, for chaining in cell value factories.
+    OrderRow refresh() {
+        int version = order.getVersion();
+        if (version != renderedVersion) {
+            total.set(order.getTotalCost().toString());
+            itemsSummary.set(summarize(order));
+            renderedVersion = version;
+        }
+        return this;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public ReadOnlyStringProperty orderIdProperty() {
+        return orderId.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty priorityProperty() {
+        return priority.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty timePlacedProperty() {
+        return timePlaced.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty totalProperty() {
+        return total.getReadOnlyProperty();
+    }
+
+    public ReadOnlyStringProperty itemsSummaryProperty() {
+        return itemsSummary.getReadOnlyProperty();
+    }
+
+
+     //"Name (xQty), Name (xQty)" straight from the order lines.
+    private static String summarize(Order order) {
+        StringBuilder sb = new StringBuilder();
+        for (int line = 0; line < order.getLineCount(); line++) {
+            if (line > 0) {
+                sb.append(", ");
+            }
+            sb.append(order.getLineProduct(line).getName()).append(" (x").append(order.getLineQuantity(line)).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package kioskapp.view;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import kioskapp.model.Order;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+ //Keeps one OrderRow per order shown in a list, made the first time a cell
+ //asks for it and dropped when the order leaves the list. FX thread only.
+public class OrderRowCache {
+    private final Map<Order, OrderRow> rows = new HashMap<>();
+
+
+     //Starts caching rows for the orders in a list.
+     //@param orders The list the table shows.
+    public OrderRowCache(ObservableList<Order> orders) {
+        orders.addListener((ListChangeListener<Order>) change -> {
+            while (change.next()) {
+                if (change.wasRemoved()) {
+                    for (Order removed : change.getRemoved()) {
+                        rows.remove(removed);
+                    }
+                }
+            }
+        });
+    }
+
+
+     //Gets the display strings for an order, redone only if the order changed.
+     //@param order An order in the list.
+     //@return Its row.
+    public OrderRow rowFor(Order order) {
+        OrderRow row = rows.get(order);
+        if (row == null) {
+            row = new OrderRow(order);
+            rows.put(order, row);
+            return row;
+        }
+        return row.refresh();
+    }
+}
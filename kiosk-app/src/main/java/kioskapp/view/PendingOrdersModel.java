@@ -0,0 +1,63 @@
+package kioskapp.view;
+
+import kioskapp.manager.OrderListener;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.PendingOrderQueue;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+
+import java.util.List;
+
+
+ //Live, ordered view of the orders waiting for a cashier.
+ //Orders are inserted and removed at their place in service order as the
+ //order manager reports them, so the list never has to be rebuilt from a
+ //copy of the queue.
+public class PendingOrdersModel implements OrderListener {
+    private final SortedObservableList<Order> orders = new SortedObservableList<>(PendingOrderQueue.SERVICE_ORDER);
+    private final UpdatePump<Order> pump = new UpdatePump<>(orders);
+    private final OrderRowCache rows = new OrderRowCache(orders);
+
+
+     //Starts following an order manager.
+     //@param orderManager The manager to mirror.
+    public PendingOrdersModel(OrderManager orderManager) {
+        orderManager.addOrderListener(this);
+        // Includes orders restored from the journal; anything placed in
+        // between shows up in both and is only inserted once
+        orders.merge(List.of(), orderManager.getPendingOrders());
+    }
+
+
+     //The waiting orders, next to be served first. Only read it on the FX thread.
+    public SortedObservableList<Order> getOrders() {
+        return orders;
+    }
+
+     //Display strings for an order in the list. FX thread only.
+    public OrderRow rowFor(Order order) {
+        return rows.rowFor(order);
+    }
+
+    @Override
+    public void orderPlaced(Order order) {
+        pump.add(order);
+    }
+
+    @Override
+    public void orderRetrieved(Order order) {
+        pump.remove(order);
+    }
+
+    @Override
+    public void orderReturned(Order order) {
+        pump.add(order);
+    }
+
+    @Override
+    public void orderCancelled(Order order, OrderStatus previousStatus) {
+        if (previousStatus == OrderStatus.PENDING) {
+            pump.remove(order);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package kioskapp.view;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import kioskapp.manager.OrderListener;
+import kioskapp.manager.OrderManager;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+
+
+ //Keeps an observable list of the orders the kitchen is working on,
+ //fed by the order manager's lifecycle events. Events can come from any
+ //thread at any rate; the UpdatePump applies them in one batch per frame.
+public class PreparingOrdersModel implements OrderListener {
+    private final ObservableList<Order> orders = FXCollections.observableArrayList();
+    private final UpdatePump<Order> pump = new UpdatePump<>(orders);
+    private final OrderRowCache rows = new OrderRowCache(orders);
+
+
+     //Starts following an order manager.
+     //@param orderManager The manager to mirror.
+    public PreparingOrdersModel(OrderManager orderManager) {
+        orderManager.addOrderListener(this);
+        // Includes any preparing orders restored from the journal
+        orders.setAll(orderManager.getPreparingOrders());
+    }
+
+
+     //The preparing orders, oldest first. Only touch it on the FX thread.
+    public ObservableList<Order> getOrders() {
+        return orders;
+    }
+
+     //Display strings for an order in the list. FX thread only.
+    public OrderRow rowFor(Order order) {
+        return rows.rowFor(order);
+    }
+
+    @Override
+    public void orderSentToPreparation(Order order) {
+        pump.add(order);
+    }
+
+    @Override
+    public void orderCompleted(Order order) {
+        pump.remove(order);
+    }
+
+    @Override
+    public void orderCancelled(Order order, OrderStatus previousStatus) {
+        if (previousStatus == OrderStatus.PREPARING) {
+            pump.remove(order);
+        }
+    }
+}
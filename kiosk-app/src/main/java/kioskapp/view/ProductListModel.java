@@ -0,0 +1,47 @@
+package kioskapp.view;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import kioskapp.manager.ProductListener;
+import kioskapp.manager.ProductManager;
+import kioskapp.model.Product;
+
+
+ //Keeps an observable copy of the catalog for tables to bind to.
+ //The product manager has no JavaFX in it, so changes are handed over
+ //to the FX thread through an UpdatePump.
+public class ProductListModel implements ProductListener {
+    private final ObservableList<Product> products = FXCollections.observableArrayList();
+    private final UpdatePump<Product> pump = new UpdatePump<>(products);
+
+
+     //Starts following a product manager.
+     //@param productManager The manager to mirror.
+    public ProductListModel(ProductManager productManager) {
+        productManager.addProductListener(this);
+        // Listen first, then copy, so nothing added in between is missed;
+        // the pump ignores adds for anything the copy already has.
+        products.setAll(productManager.getAllProducts());
+    }
+
+
+     //The products, for binding to a table. Only touch it on the FX thread.
+    public ObservableList<Product> getProducts() {
+        return products;
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        pump.add(product);
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        pump.replace(oldProduct, newProduct);
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        pump.remove(product);
+    }
+}
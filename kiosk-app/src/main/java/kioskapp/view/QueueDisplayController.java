@@ -1,20 +1,15 @@
 package kioskapp.view;
 
-import javafx.beans.property.SimpleStringProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import kioskapp.manager.OrderManager;
 import kioskapp.model.Order;
-import kioskapp.model.OrderItem;
-
-import java.util.Locale;
 
 
  //This controller manages the display for the queue of orders
@@ -22,12 +17,15 @@ import java.util.Locale;
 
 public class QueueDisplayController {
     private OrderManager orderManager;
+    private PreparingOrdersModel preparingOrders;
     private TableView<Order> queueTable;
 
 
-     //Constructor receives the OrderManager, which manages all orders.
-    public QueueDisplayController(OrderManager orderManager) {
+     //Constructor receives the OrderManager, which manages all orders,
+     //and the observable list of orders in the kitchen.
+    public QueueDisplayController(OrderManager orderManager, PreparingOrdersModel preparingOrders) {
         this.orderManager = orderManager;
+        this.preparingOrders = preparingOrders;
     }
 
 
@@ -45,46 +43,32 @@ public class QueueDisplayController {
         // Table setup
         queueTable = new TableView<>();
         queueTable.setPrefHeight(400);
-        queueTable.setItems(orderManager.getPreparingOrders()); // Binds the list of preparing orders
+        queueTable.setItems(preparingOrders.getOrders()); // Binds the list of preparing orders
 
         // Column for order ID
+        // Cells read the cached strings from the order's row instead of formatting on every repaint
         TableColumn<Order, String> orderIdCol = new TableColumn<>("Order #");
-        orderIdCol.setCellValueFactory(new PropertyValueFactory<>("orderId"));
+        orderIdCol.setCellValueFactory(data -> preparingOrders.rowFor(data.getValue()).orderIdProperty());
         orderIdCol.setPrefWidth(100);
 
         // Column for priority status
         TableColumn<Order, String> priorityCol = new TableColumn<>("Priority");
-        priorityCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().isPriority() ? "YES" : "NO"));
+        priorityCol.setCellValueFactory(data -> preparingOrders.rowFor(data.getValue()).priorityProperty());
         priorityCol.setPrefWidth(80);
 
         // Column for order time
         TableColumn<Order, String> orderTimeCol = new TableColumn<>("Time Placed");
-        orderTimeCol.setCellValueFactory(data -> new SimpleStringProperty(
-                data.getValue().getOrderTime().format(java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss"))
-        ));
+        orderTimeCol.setCellValueFactory(data -> preparingOrders.rowFor(data.getValue()).timePlacedProperty());
         orderTimeCol.setPrefWidth(120);
 
         // Column for total cost
-        TableColumn<Order, Double> totalCostCol = new TableColumn<>("Total (₱)");
-        totalCostCol.setCellValueFactory(new PropertyValueFactory<>("totalCost"));
+        TableColumn<Order, String> totalCostCol = new TableColumn<>("Total (₱)");
+        totalCostCol.setCellValueFactory(data -> preparingOrders.rowFor(data.getValue()).totalProperty());
         totalCostCol.setPrefWidth(100);
-        totalCostCol.setCellFactory(tc -> new TableCell<>() {
-            @Override
-            protected void updateItem(Double price, boolean empty) {
-                super.updateItem(price, empty);
-                setText(empty ? null : String.format(Locale.US, "%.2f", price));
-            }
-        });
 
         // Column for listing item summary
         TableColumn<Order, String> itemsSummaryCol = new TableColumn<>("Items");
-        itemsSummaryCol.setCellValueFactory(data -> {
-            StringBuilder sb = new StringBuilder();
-            for (OrderItem item : data.getValue().getItems()) {
-                sb.append(item.getProduct().getName()).append(" (x").append(item.getQuantity()).append("), ");
-            }
-            return new SimpleStringProperty(sb.toString().replaceAll(", $", ""));
-        });
+        itemsSummaryCol.setCellValueFactory(data -> preparingOrders.rowFor(data.getValue()).itemsSummaryProperty());
         itemsSummaryCol.setPrefWidth(300);
 
         // Add all columns to the table
@@ -126,7 +110,7 @@ public class QueueDisplayController {
             return;
         }
 
-        boolean success = orderManager.completePreparation(selectedOrder.getOrderId());
+        boolean success = orderManager.completePreparation(selectedOrder.getId());
         if (success) {
             showAlert(Alert.AlertType.INFORMATION, "Order Ready!", "Order #" + selectedOrder.getOrderId() + " is now ready for pickup!");
         } else {
@@ -0,0 +1,217 @@
+package kioskapp.view;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import kioskapp.metrics.SalesStore;
+import kioskapp.metrics.SalesTotals;
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import kioskapp.model.ProductTable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+
+ //Admin screen with live sales totals: by product, by hour of the day, and
+ //priority against normal orders. Totals are worked out off the FX thread
+ //every few seconds, so neither the screen nor the order flow waits for them.
+public class SalesController {
+    private final SalesStore sales;
+    private final ObservableList<SalesRow> productRows = FXCollections.observableArrayList();
+    private final ObservableList<SalesRow> hourRows = FXCollections.observableArrayList();
+    private final ObservableList<SalesRow> priorityRows = FXCollections.observableArrayList();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private Label summaryLabel;
+
+
+     //Constructor that takes the sales store whose totals we show.
+    public SalesController(SalesStore sales) {
+        this.sales = sales;
+    }
+
+
+     //Builds and returns the sales screen.
+    public Scene getSalesScene() {
+        VBox root = new VBox(12);
+        root.setPadding(new Insets(20));
+        root.setAlignment(Pos.TOP_CENTER);
+        root.setStyle("-fx-background-color: #e0f2f7;"); // Same light blue as the admin screen
+
+        Label title = new Label("Admin: Sales Since Opening");
+        title.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #007bb2;");
+
+        summaryLabel = new Label("No completed orders yet.");
+        summaryLabel.setStyle("-fx-font-size: 14px;");
+
+        TableView<SalesRow> productTable = salesTable("Product", productRows, 220);
+        TableView<SalesRow> hourTable = salesTable("Hour", hourRows, 220);
+        TableView<SalesRow> priorityTable = salesTable("Customer", priorityRows, 90);
+
+        VBox byHour = new VBox(5, sectionLabel("By hour completed"), hourTable);
+        VBox byProduct = new VBox(5, sectionLabel("By product"), productTable);
+        HBox tables = new HBox(15, byProduct, byHour);
+
+        Button refreshButton = new Button("Refresh Now");
+        Button backButton = new Button("Back to Main Menu");
+        refreshButton.setStyle("-fx-background-color: #26a69a; -fx-text-fill: white;");
+        backButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white;");
+        refreshButton.setOnAction(e -> refresh());
+        backButton.setOnAction(e -> ((Stage) root.getScene().getWindow()).close());
+
+        root.getChildren().addAll(title, summaryLabel, tables, sectionLabel("Priority vs normal"), priorityTable,
+                new HBox(10, refreshButton, backButton));
+
+        Scene scene = new Scene(root, 900, 640);
+
+        // Refresh every few seconds while the window is open
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(3), e -> refresh()));
+        refresher.setCycleCount(Animation.INDEFINITE);
+        refresher.play();
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                newWindow.setOnHidden(e -> refresher.stop());
+            }
+        });
+        refresh();
+
+        return scene;
+    }
+
+
+     //Works out fresh totals in the background and shows them when ready.
+     //A refresh that is still running makes the next one a no-op.
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> new Snapshot(sales.size(), sales.byProduct(), sales.byHourOfDay(), sales.byPriority()))
+                .whenComplete((snapshot, error) -> Platform.runLater(() -> {
+                    refreshing.set(false);
+                    if (error != null) {
+                        summaryLabel.setText("Could not total sales: " + error.getMessage());
+                        return;
+                    }
+                    show(snapshot);
+                }));
+    }
+
+    private void show(Snapshot snapshot) {
+        productRows.setAll(productRows(snapshot.byProduct));
+
+        List<SalesRow> hours = new ArrayList<>();
+        for (int hour = 0; hour < snapshot.byHour.keys(); hour++) {
+            if (snapshot.byHour.orders(hour) > 0) {
+                hours.add(new SalesRow(String.format("%02d:00-%02d:59", hour, hour), snapshot.byHour, hour));
+            }
+        }
+        hourRows.setAll(hours);
+
+        priorityRows.setAll(new SalesRow("Normal", snapshot.byPriority, 0),
+                new SalesRow("Priority", snapshot.byPriority, 1));
+
+        long orders = snapshot.byPriority.orders(0) + snapshot.byPriority.orders(1);
+        summaryLabel.setText(orders + " orders, " + snapshot.lines + " lines, revenue ₱"
+                + Money.ofCentavos(snapshot.byPriority.totalCentavos()));
+    }
+
+
+     //Merges product numbers that belong to the same product ID into one row.
+    private static List<SalesRow> productRows(SalesTotals byProduct) {
+        Map<String, SalesRow> rows = new LinkedHashMap<>();
+        for (int index = 0; index < byProduct.keys(); index++) {
+            if (byProduct.quantity(index) == 0) {
+                continue;
+            }
+            Product product = ProductTable.get(index);
+            SalesRow row = new SalesRow(product.getId() + " - " + product.getName(), byProduct, index);
+            rows.merge(product.getId(), row, SalesRow::plus);
+        }
+        List<SalesRow> sorted = new ArrayList<>(rows.values());
+        sorted.sort((a, b) -> Long.compare(b.centavos, a.centavos));
+        return sorted;
+    }
+
+    private static TableView<SalesRow> salesTable(String keyName, ObservableList<SalesRow> rows, double height) {
+        TableView<SalesRow> table = new TableView<>(rows);
+        table.setPrefHeight(height);
+        table.getColumns().add(column(keyName, row -> row.label));
+        table.getColumns().add(column("Orders", row -> String.valueOf(row.orders)));
+        table.getColumns().add(column("Items", row -> String.valueOf(row.quantity)));
+        table.getColumns().add(column("Revenue", row -> "₱" + Money.ofCentavos(row.centavos)));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        return table;
+    }
+
+    private static TableColumn<SalesRow, String> column(String name, Function<SalesRow, String> value) {
+        TableColumn<SalesRow, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(data -> new SimpleStringProperty(value.apply(data.getValue())));
+        return column;
+    }
+
+    private static Label sectionLabel(String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+        return label;
+    }
+
+
+     //All totals from one refresh, worked out together.
+    private static final class Snapshot {
+        final int lines;
+        final SalesTotals byProduct;
+        final SalesTotals byHour;
+        final SalesTotals byPriority;
+
+        Snapshot(int lines, SalesTotals byProduct, SalesTotals byHour, SalesTotals byPriority) {
+            this.lines = lines;
+            this.byProduct = byProduct;
+            this.byHour = byHour;
+            this.byPriority = byPriority;
+        }
+    }
+
+
+     //One table row.
+    private static final class SalesRow {
+        final String label;
+        final long orders;
+        final long quantity;
+        final long centavos;
+
+        SalesRow(String label, SalesTotals totals, int key) {
+            this(label, totals.orders(key), totals.quantity(key), totals.centavos(key));
+        }
+
+        SalesRow(String label, long orders, long quantity, long centavos) {
+            this.label = label;
+            this.orders = orders;
+            this.quantity = quantity;
+            this.centavos = centavos;
+        }
+
+        SalesRow plus(SalesRow other) {
+            return new SalesRow(label, orders + other.orders, quantity + other.quantity, centavos + other.centavos);
+        }
+    }
+}
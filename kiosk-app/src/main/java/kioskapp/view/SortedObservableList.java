@@ -0,0 +1,119 @@
+package kioskapp.view;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+ //An ObservableList that stays sorted and is changed in place.
+ //
+ //merge() finds each removal and insertion point by binary search and
+ //reports them as one change with the exact indexes, so a bound table only
+ //touches the rows that moved instead of rebuilding from a fresh copy.
+ //Elements that compare as equal are treated as the same element.
+ //
+ //The list always keeps its own order. setAll() (which is how a TableView
+ //column sort writes its result back) is taken as "these are the elements",
+ //so it leaves the order alone instead of failing halfway.
+public class SortedObservableList<T> extends ModifiableObservableListBase<T> {
+    private final List<T> elements = new ArrayList<>();
+    private final Comparator<? super T> comparator;
+
+
+     //Creates an empty list kept in the comparator's order.
+    public SortedObservableList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+
+     //Removes and inserts elements in one change.
+     //Removals that are missing and insertions already present are skipped.
+     //@param removals Elements to take out.
+     //@param insertions Elements to put in at their sorted position.
+    public void merge(Collection<? extends T> removals, Collection<? extends T> insertions) {
+        if (removals.isEmpty() && insertions.isEmpty()) {
+            return;
+        }
+        beginChange();
+        try {
+            for (T element : removals) {
+                int index = Collections.binarySearch(elements, element, comparator);
+                if (index >= 0) {
+                    T removed = elements.remove(index);
+                    nextRemove(index, removed);
+                }
+            }
+            for (T element : insertions) {
+                int index = Collections.binarySearch(elements, element, comparator);
+                if (index < 0) {
+                    index = -index - 1;
+                    elements.add(index, element);
+                    nextAdd(index, index + 1);
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+
+     //Makes the list hold exactly these elements, in the comparator's order.
+     //@param col The elements to keep; their order is ignored.
+     //@return true.
+    @Override
+    public boolean setAll(Collection<? extends T> col) {
+        List<T> incoming = new ArrayList<>(col);
+        incoming.sort(comparator);
+        List<T> removals = new ArrayList<>();
+        for (T element : elements) {
+            if (Collections.binarySearch(incoming, element, comparator) < 0) {
+                removals.add(element);
+            }
+        }
+        merge(removals, incoming);
+        return true;
+    }
+
+    @Override
+    public T get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        @SuppressWarnings("unchecked")
+        int index = Collections.binarySearch(elements, (T) o, comparator);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // Adding at a caller-chosen index would break the order; use merge() instead
+
+    @Override
+    protected void doAdd(int index, T element) {
+        throw new UnsupportedOperationException("Use merge() to add to a sorted list");
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        throw new UnsupportedOperationException("Use merge() to change a sorted list");
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        return elements.remove(index);
+    }
+}
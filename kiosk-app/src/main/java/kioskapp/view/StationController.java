@@ -0,0 +1,128 @@
+package kioskapp.view;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.KitchenTicket;
+import kioskapp.model.Station;
+
+
+ //Screen for one kitchen station: shows how many tickets are waiting, takes
+ //the next one (helping another station when this one has none) and marks it
+ //made. The order is completed when its last station is done.
+public class StationController {
+    private Kitchen kitchen;
+    private ComboBox<Station> stationBox;
+    private Label waitingLabel;
+    private Label ticketLabel;
+    private Button nextButton;
+    private Button doneButton;
+    private KitchenTicket current; // Taken but not made yet
+
+
+     //Constructor that takes the kitchen the station works for.
+    public StationController(Kitchen kitchen) {
+        this.kitchen = kitchen;
+    }
+
+
+     //Builds and returns the station screen.
+    public Scene getStationScene() {
+        VBox root = new VBox(15);
+        root.setPadding(new Insets(20));
+        root.setAlignment(Pos.TOP_CENTER);
+        root.setStyle("-fx-background-color: #fff9ed;");
+
+        Label title = new Label("Kitchen Station");
+        title.setStyle("-fx-font-size: 28px; -fx-font-weight: bold; -fx-text-fill: #e62429;");
+
+        stationBox = new ComboBox<>(FXCollections.observableArrayList(Station.values()));
+        stationBox.getSelectionModel().selectFirst();
+        stationBox.setOnAction(e -> refresh());
+
+        waitingLabel = new Label();
+        waitingLabel.setStyle("-fx-font-size: 16px;");
+
+        ticketLabel = new Label("No ticket");
+        ticketLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
+        ticketLabel.setWrapText(true);
+
+        nextButton = new Button("Next Ticket");
+        doneButton = new Button("Done");
+        Button backButton = new Button("Back to Main Menu");
+        nextButton.setStyle("-fx-background-color: #e62429; -fx-text-fill: white;");
+        doneButton.setStyle("-fx-background-color: #26a69a; -fx-text-fill: white;");
+        backButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white;");
+
+        nextButton.setOnAction(e -> takeNext());
+        doneButton.setOnAction(e -> finishCurrent());
+        backButton.setOnAction(e -> ((Stage) root.getScene().getWindow()).close());
+
+        HBox buttons = new HBox(10, nextButton, doneButton);
+        buttons.setAlignment(Pos.CENTER);
+
+        root.getChildren().addAll(title, stationBox, waitingLabel, ticketLabel, buttons, backButton);
+        Scene scene = new Scene(root, 500, 400);
+        refresh();
+
+        // Keep the waiting count current while the window is open
+        Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refresher.setCycleCount(Animation.INDEFINITE);
+        refresher.play();
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                newWindow.setOnHidden(e -> {
+                    refresher.stop();
+                    // Nobody will make it here; let another station have it
+                    if (current != null) {
+                        kitchen.returnTicket(current);
+                        current = null;
+                    }
+                });
+            }
+        });
+        return scene;
+    }
+
+    private void takeNext() {
+        current = kitchen.takeTicket(stationBox.getValue());
+        refresh();
+    }
+
+    private void finishCurrent() {
+        if (current != null) {
+            try {
+                kitchen.finishTicket(current);
+                current = null;
+            } catch (IllegalStateException e) {
+                // Not saved; the ticket stays in hand so Done can be pressed again
+                refresh();
+                ticketLabel.setText(current + " (not saved, try Done again: " + e.getMessage() + ")");
+                return;
+            }
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        Station station = stationBox.getValue();
+        waitingLabel.setText(kitchen.pendingTickets(station) + " tickets waiting at " + station);
+        ticketLabel.setText(current == null ? "No ticket" : current.toString());
+        // One ticket at a time, and no switching stations with one in hand
+        nextButton.setDisable(current != null);
+        doneButton.setDisable(current == null);
+        stationBox.setDisable(current != null);
+    }
+}
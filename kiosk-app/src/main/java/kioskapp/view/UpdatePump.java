@@ -0,0 +1,172 @@
+package kioskapp.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+ //Feeds changes from any thread into an ObservableList, at most once per frame.
+ //
+ //Changes wait in a queue until the next JavaFX pulse. Each pulse takes up to
+ //MAX_CHANGES_PER_PULSE of them, folds repeats of the same element into one
+ //(an order added and removed in the same frame never shows up), and applies
+ //the rest as one removeAll and one addAll, so a table re-lays out once per
+ //frame however fast orders arrive. Anything over the limit waits for the
+ //next frame. The timer only runs while there is something to apply.
+ //With a SortedObservableList target the batch is merged in at the sorted
+ //positions instead.
+public class UpdatePump<T> {
+    // Most queued changes applied in one frame; keeps each frame's work bounded
+    static final int MAX_CHANGES_PER_PULSE = 256;
+
+    private final ObservableList<T> target;
+    // Same list as target when it keeps itself sorted, else null
+    private final SortedObservableList<T> sortedTarget;
+    private final ConcurrentLinkedQueue<Change<T>> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse();
+        }
+    };
+
+
+     //Creates a pump that writes into the given list.
+     //@param target The list to update; only the pump should change it from now on.
+    public UpdatePump(ObservableList<T> target) {
+        this.target = target;
+        this.sortedTarget = null;
+    }
+
+
+     //Creates a pump that merges changes into a sorted list.
+     //@param target The list to update; replace() is not supported here.
+    public UpdatePump(SortedObservableList<T> target) {
+        this.target = target;
+        this.sortedTarget = target;
+    }
+
+
+     //Asks for an element to be in the list (added at the end if missing).
+    public void add(T element) {
+        submit(new Change<>(element, element, true));
+    }
+
+
+     //Asks for an element to be gone from the list.
+    public void remove(T element) {
+        submit(new Change<>(element, null, false));
+    }
+
+
+     //Asks for an element to be swapped for a new version in the same spot.
+     //The two must be equal (same ID) for folding to treat them as one.
+    public void replace(T oldElement, T newElement) {
+        submit(new Change<>(oldElement, newElement, true));
+    }
+
+    private void submit(Change<T> change) {
+        changes.add(change);
+        if (running.compareAndSet(false, true)) {
+            if (Platform.isFxApplicationThread()) {
+                timer.start();
+            } else {
+                Platform.runLater(timer::start);
+            }
+        }
+    }
+
+
+     //Runs on the FX thread once per frame while changes are waiting.
+    private void pulse() {
+        // Last change per element wins; re-putting moves it to the end so adds keep their order
+        Map<T, Change<T>> latest = new LinkedHashMap<>();
+        Change<T> change;
+        int taken = 0;
+        while (taken < MAX_CHANGES_PER_PULSE && (change = changes.poll()) != null) {
+            latest.remove(change.key);
+            latest.put(change.key, change);
+            taken++;
+        }
+        apply(latest);
+
+        if (changes.isEmpty()) {
+            timer.stop();
+            running.set(false);
+            // Something may have slipped in after the check; make sure it is not stranded
+            if (!changes.isEmpty() && running.compareAndSet(false, true)) {
+                timer.start();
+            }
+        }
+    }
+
+    private void apply(Map<T, Change<T>> latest) {
+        if (latest.isEmpty()) {
+            return;
+        }
+        Set<T> removals = new HashSet<>();
+        List<Change<T>> present = new ArrayList<>();
+        for (Change<T> change : latest.values()) {
+            if (change.present) {
+                present.add(change);
+            } else {
+                removals.add(change.key);
+            }
+        }
+        if (sortedTarget != null) {
+            List<T> insertions = new ArrayList<>(present.size());
+            for (Change<T> change : present) {
+                insertions.add(change.value);
+            }
+            sortedTarget.merge(removals, insertions);
+            return;
+        }
+        if (!removals.isEmpty()) {
+            target.removeAll(removals);
+        }
+        if (present.isEmpty()) {
+            return;
+        }
+
+        Set<T> current = new HashSet<>(target);
+        List<T> additions = new ArrayList<>();
+        for (Change<T> change : present) {
+            if (!current.contains(change.key)) {
+                additions.add(change.value);
+            } else if (change.value != change.key) {
+                // A newer version of something already shown: swap it in place
+                int index = target.indexOf(change.key);
+                if (target.get(index) != change.value) {
+                    target.set(index, change.value);
+                }
+            }
+        }
+        if (!additions.isEmpty()) {
+            target.addAll(additions);
+        }
+    }
+
+
+     //One queued change: the element should end up present (as value) or absent.
+    private static final class Change<T> {
+        final T key;
+        final T value;
+        final boolean present;
+
+        Change(T key, T value, boolean present) {
+            this.key = key;
+            this.value = value;
+            this.present = present;
+        }
+    }
+}
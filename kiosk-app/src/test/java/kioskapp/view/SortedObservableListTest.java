@@ -0,0 +1,43 @@
+package kioskapp.view;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SortedObservableListTest {
+
+    @Test
+    void aColumnSortKeepsTheElementsAndTheirOrder() {
+        SortedObservableList<Integer> list = new SortedObservableList<>(Comparator.naturalOrder());
+        list.merge(List.of(), List.of(3, 1, 2));
+
+        // What TableView's default sort policy does when a header is clicked
+        FXCollections.sort(list, Comparator.reverseOrder());
+
+        assertEquals(List.of(1, 2, 3), list);
+    }
+
+    @Test
+    void setAllReportsOnlyWhatChanged() {
+        SortedObservableList<Integer> list = new SortedObservableList<>(Comparator.naturalOrder());
+        list.merge(List.of(), List.of(1, 2, 3));
+        int[] changes = new int[2]; // removed, added
+        list.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                changes[0] += change.getRemovedSize();
+                changes[1] += change.getAddedSize();
+            }
+        });
+
+        list.setAll(List.of(4, 2, 1));
+
+        assertEquals(List.of(1, 2, 4), list);
+        assertEquals(1, changes[0]);
+        assertEquals(1, changes[1]);
+    }
+}
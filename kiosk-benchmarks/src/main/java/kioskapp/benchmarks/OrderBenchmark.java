@@ -0,0 +1,77 @@
+package kioskapp.benchmarks;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderItem;
+import kioskapp.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+ //Order model hot paths: building an order, reading its total, and the
+ //toString() calls that tables and logs make.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+    // Distinct products per order
+    @Param({"1", "5", "20"})
+    public int orderSize;
+
+    private OrderItem[] items;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        items = new OrderItem[orderSize];
+        order = new Order(1, false);
+        for (int i = 0; i < orderSize; i++) {
+            Product product = new Product("P" + i, "Product " + i, Money.ofCentavos(9_950 + i));
+            items[i] = new OrderItem(product, 1 + i % 3);
+            order.addOrderItem(items[i]);
+        }
+    }
+
+
+     //Builds a whole order, adding every product twice so half the adds merge.
+    @Benchmark
+    public Order addOrderItem() {
+        Order fresh = new Order(1, false);
+        for (OrderItem item : items) {
+            fresh.addOrderItem(item);
+        }
+        for (OrderItem item : items) {
+            fresh.addOrderItem(item);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public Money getTotalCost() {
+        return order.getTotalCost();
+    }
+
+    @Benchmark
+    public String orderToString() {
+        return order.toString();
+    }
+
+    @Benchmark
+    public String orderItemToString() {
+        return items[items.length - 1].toString();
+    }
+}
@@ -0,0 +1,153 @@
+package kioskapp.benchmarks;
+
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.PlacementResult;
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+ //Pending queue throughput at a steady queue depth. Every order placed is
+ //taken off again by retrieveNextOrder and cancelled, so the queue stays near
+ //queueDepth and display codes are freed as fast as they are used. Left to
+ //pile up, the open orders would fill the 20-bit code space within an
+ //iteration and placement would start failing. Cancelled rather than
+ //completed, so the sales store does not grow with the run.
+ //The manager is rebuilt every iteration, so each starts from queueDepth.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderManagerBenchmark {
+    // Carts per placeOrders() call
+    private static final int BATCH = 100;
+
+    @Param({"0", "100", "10000"})
+    public int queueDepth;
+
+    // Distinct products per order
+    @Param({"1", "5"})
+    public int orderSize;
+
+    private OrderManager orderManager;
+    private Order normalCart;
+    private Order priorityCart;
+    private List<Order> batch;
+    private PrintStream originalOut;
+    private int placed;
+    private int backlog; // orders placed beyond queueDepth and not yet drained
+
+    @Setup(Level.Trial)
+    public void silenceConsole() {
+        // placeOrder logs every order; don't benchmark the console
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreConsole() {
+        System.setOut(originalOut);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        orderManager = new OrderManager();
+        normalCart = new Order(0, false);
+        priorityCart = new Order(0, true);
+        for (int i = 0; i < orderSize; i++) {
+            Product product = new Product("P" + i, "Product " + i, Money.ofCentavos(10_000));
+            normalCart.addItem(product, 1);
+            priorityCart.addItem(product, 1);
+        }
+        for (int i = 0; i < queueDepth; i++) {
+            orderManager.placeOrder(nextCart());
+        }
+        backlog = 0;
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(nextCart());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        // Stops its metrics sampler so the next iteration starts from a clean heap
+        orderManager.close();
+    }
+
+
+     //placeOrder + retrieveNextOrder (+ the cancel that ends the order);
+     //one in five orders is priority.
+    @Benchmark
+    public Order placeAndRetrieve() {
+        orderManager.placeOrder(nextCart());
+        Order order = orderManager.retrieveNextOrder();
+        orderManager.cancelOrder(order.getId());
+        return order;
+    }
+
+
+     //placeOrder, with the queue drained back to queueDepth every BATCH
+     //orders; the score includes that share of the draining.
+    @Benchmark
+    public Order placeOrder() {
+        Order order = orderManager.placeOrder(nextCart());
+        if (++backlog == BATCH) {
+            drain();
+        }
+        return order;
+    }
+
+
+     //placeOrders with BATCH carts, then the queue drained back to queueDepth;
+     //the score is per order, so it compares with placeOrder.
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<PlacementResult> placeOrders() {
+        List<PlacementResult> results = orderManager.placeOrders(batch);
+        for (PlacementResult result : results) {
+            if (!result.isPlaced()) {
+                // A rejected cart is not a placement; do not count it as one
+                throw new IllegalStateException("Cart not placed: " + result.getError());
+            }
+        }
+        backlog = BATCH;
+        drain();
+        return results;
+    }
+
+
+     //Takes as many orders as were placed beyond queueDepth off the queue, in
+     //the order a cashier would get them, and cancels them to free their codes.
+    private void drain() {
+        for (; backlog > 0; backlog--) {
+            orderManager.cancelOrder(orderManager.retrieveNextOrder().getId());
+        }
+    }
+
+    private Order nextCart() {
+        return placed++ % 5 == 0 ? priorityCart : normalCart;
+    }
+}
@@ -0,0 +1,95 @@
+package kioskapp.benchmarks;
+
+import kioskapp.manager.ProductManager;
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import kioskapp.model.ProductTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+ //Product lookups by ID, the call every cart add and admin edit makes, and
+ //the single-product admin edits, which copy the product array (not the index).
+ //Edits must leave nothing behind (see ProductTable), or the scores would
+ //include the growth; every iteration checks that they did not.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductManagerBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int catalogSize;
+
+    private ProductManager productManager;
+    private String[] lookupIds; // mixed case on purpose: lookups ignore case
+    private int next;
+    private Product[] priceChanges; // alternates between two prices so every update is a real change
+    private int tableSize;          // ProductTable entries after setUp
+
+    @Setup
+    public void setUp() {
+        productManager = new ProductManager();
+        lookupIds = new String[catalogSize];
+        List<Product> catalog = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            catalog.add(new Product("SKU" + i, "Product " + i, Money.ofCentavos(10_000 + i)));
+            lookupIds[i] = (i % 2 == 0 ? "sku" : "SKU") + i;
+        }
+        priceChanges = new Product[]{
+                new Product("SKU0", "Product 0", Money.ofCentavos(9_000)),
+                new Product("SKU0", "Product 0", Money.ofCentavos(9_500))};
+        // One snapshot for the whole catalog; adding one by one would copy it every time
+        productManager.replaceAll(catalog);
+        tableSize = ProductTable.size();
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNothingRetained() {
+        int added = ProductTable.size() - tableSize;
+        if (added != 0) {
+            throw new IllegalStateException("Menu edits added " + added + " product table entries");
+        }
+    }
+
+    @Benchmark
+    public Product getProductById() {
+        String id = lookupIds[next];
+        next = next + 1 == lookupIds.length ? 0 : next + 1;
+        return productManager.getProductById(id);
+    }
+
+    @Benchmark
+    public Product getProductByIdMissing() {
+        return productManager.getProductById("NOPE");
+    }
+
+    @Benchmark
+    public boolean updateProduct() {
+        next = next + 1 == lookupIds.length ? 0 : next + 1;
+        return productManager.updateProduct(priceChanges[next & 1]);
+    }
+
+    // Adds a product at the end and takes it off again: the common admin case
+    @Benchmark
+    public boolean addAndDeleteProduct() {
+        productManager.addProduct(new Product("NEW", "New Product", Money.ofCentavos(5_000)));
+        return productManager.deleteProduct("NEW");
+    }
+}
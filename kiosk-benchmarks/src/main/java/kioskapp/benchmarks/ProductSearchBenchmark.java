@@ -0,0 +1,70 @@
+package kioskapp.benchmarks;
+
+import kioskapp.manager.ProductManager;
+import kioskapp.manager.ProductSearchIndex;
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+ //Typeahead search as the customer screen runs it: one search per keystroke
+ //while "chicken spi" is typed, on a catalog of menu-like names.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+    private static final String[] FOODS = {"Chickenjoy", "Chicken", "Spaghetti", "Burger", "Steak", "Palabok",
+            "Fries", "Pie", "Sundae", "Coke", "Tuna", "Mango", "Yumburger", "Rice", "Gravy", "Hotdog"};
+    private static final String[] STYLES = {"Spicy", "Classic", "Super", "Deluxe", "Family", "Solo",
+            "Cheesy", "Crispy", "Regular", "Large"};
+    private static final String TYPED = "chicken spi";
+
+    @Param({"800", "10000"})
+    public int catalogSize;
+
+    private ProductSearchIndex index;
+    private String[] keystrokes; // what the search box holds after each key
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ProductManager productManager = new ProductManager();
+        List<Product> catalog = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            String name = STYLES[i % STYLES.length] + " " + FOODS[(i / STYLES.length) % FOODS.length]
+                    + " " + (1 + i % 6) + "pc Meal";
+            catalog.add(new Product("SKU" + i, name, Money.ofCentavos(5_000 + i)));
+        }
+        productManager.replaceAll(catalog);
+        index = new ProductSearchIndex(productManager);
+        keystrokes = new String[TYPED.length()];
+        for (int i = 0; i < keystrokes.length; i++) {
+            keystrokes[i] = TYPED.substring(0, i + 1);
+        }
+    }
+
+    @Benchmark
+    public Set<Product> searchPerKeystroke() {
+        String query = keystrokes[next];
+        next = next + 1 == keystrokes.length ? 0 : next + 1;
+        return index.search(query);
+    }
+}
@@ -0,0 +1,424 @@
+package kioskapp.loadtest;
+
+import kioskapp.manager.IntakePipeline;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.KitchenTicket;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.PlacementResult;
+import kioskapp.manager.ProductManager;
+import kioskapp.manager.StationRouter;
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+import kioskapp.storage.OrderJournal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+ //Headless stress harness for OrderManager and ProductManager.
+ //Simulates N customer kiosks, M cashiers and K kitchen stations on their own
+ //threads, then reports throughput, latency percentiles and any lost or
+ //duplicated orders. No JavaFX toolkit is started.
+ //
+ //Usage (all options optional):
+ //  java kioskapp.loadtest.LoadGenerator --kiosks=8 --cashiers=4 --kitchens=4
+ //      --rate=50 --duration=30 --priority=0.2 --cashierMs=0 --kitchenMs=0
+ //      --products=200 --journal=load-journal --pipeline=true --batch=1 --stations=true
+ //--rate is orders per second per kiosk (Poisson arrivals).
+ //--pipeline places orders through an IntakePipeline instead of placeOrder().
+ //--batch makes each arrival a group of carts placed with one placeOrders() call.
+ //--stations splits orders into station tickets through a Kitchen; kitchen threads
+ //are spread over the stations and --kitchenMs is then the time per ticket.
+public class LoadGenerator {
+    private static final Station[] STATIONS = Station.values();
+
+    private final Settings settings;
+    private final ProductManager productManager = new ProductManager();
+    private final OrderManager orderManager;
+    private final IntakePipeline pipeline; // null unless --pipeline=true
+    private final Kitchen kitchen; // null unless --stations=true
+    private final List<Product> catalog = new ArrayList<>();
+
+    // Hand-off from cashiers to the kitchen (what a ticket printer would do)
+    private final LinkedBlockingQueue<Order> kitchenTickets = new LinkedBlockingQueue<>();
+
+    // Bookkeeping for the invariant checks
+    private final Map<Long, Long> placedAtNanos = new ConcurrentHashMap<>();
+    private final Set<Long> retrieved = ConcurrentHashMap.newKeySet();
+    private final Set<Long> completed = ConcurrentHashMap.newKeySet();
+    private final List<String> violations = new ArrayList<>();
+
+    // Per-operation latencies, in nanoseconds
+    private final SampleRecorder placeLatency = new SampleRecorder();
+    private final SampleRecorder retrieveLatency = new SampleRecorder();
+    private final SampleRecorder completeLatency = new SampleRecorder();
+    private final SampleRecorder endToEndLatency = new SampleRecorder();
+
+    private final AtomicLong emptyPolls = new AtomicLong();
+    private volatile boolean kiosksRunning = true;
+    private volatile boolean staffRunning = true;
+
+
+    public LoadGenerator(Settings settings) throws IOException {
+        this.settings = settings;
+        OrderJournal journal = settings.journalDir == null ? null : OrderJournal.open(Paths.get(settings.journalDir));
+        this.orderManager = new OrderManager(journal);
+        StationRouter router = new StationRouter(Station.GRILL);
+        for (int i = 0; i < settings.products; i++) {
+            Product product = new Product("P" + i, "Product " + i, Money.ofCentavos(5_000 + 100L * (i % 200)));
+            productManager.addProduct(product);
+            catalog.add(product);
+            router.route(product.getId(), STATIONS[i % STATIONS.length]);
+        }
+        this.kitchen = settings.stations ? Kitchen.attach(orderManager, router) : null;
+        this.pipeline = settings.pipeline ? new IntakePipeline(productManager, orderManager, 1024) : null;
+    }
+
+
+     //Runs the whole scenario and prints the report.
+     //@return true if no invariant was broken.
+    public boolean run() throws InterruptedException {
+        List<Thread> kiosks = new ArrayList<>();
+        List<Thread> staff = new ArrayList<>();
+        for (int i = 0; i < settings.kiosks; i++) {
+            kiosks.add(start("kiosk-" + i, this::kioskLoop));
+        }
+        for (int i = 0; i < settings.cashiers; i++) {
+            staff.add(start("cashier-" + i, this::cashierLoop));
+        }
+        for (int i = 0; i < settings.kitchens; i++) {
+            if (kitchen != null) {
+                Station station = STATIONS[i % STATIONS.length];
+                staff.add(start("kitchen-" + station + "-" + i, () -> stationLoop(station)));
+            } else {
+                staff.add(start("kitchen-" + i, this::kitchenLoop));
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        TimeUnit.SECONDS.sleep(settings.durationSeconds);
+        kiosksRunning = false;
+        for (Thread kiosk : kiosks) {
+            kiosk.join();
+        }
+        long intakeNanos = System.nanoTime() - startNanos;
+
+        // Let cashiers and kitchens drain what is left, but don't wait forever
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (completed.size() < placedAtNanos.size() && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        staffRunning = false;
+        for (Thread worker : staff) {
+            worker.join();
+        }
+        long totalNanos = System.nanoTime() - startNanos;
+
+        checkInvariants();
+        report(intakeNanos, totalNanos);
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        orderManager.close();
+        return violations.isEmpty();
+    }
+
+    private void kioskLoop() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanGapNanos = 1_000_000_000.0 / settings.ratePerKiosk;
+        long nextArrival = System.nanoTime();
+        while (kiosksRunning) {
+            // Exponential gaps give Poisson arrivals; the schedule does not drift when we fall behind
+            nextArrival += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            if (settings.batch > 1) {
+                placeBatch(random);
+                continue;
+            }
+            Order cart = randomCart(random);
+            long before = System.nanoTime();
+            Order placed = pipeline != null ? pipeline.submit(cart).join() : orderManager.placeOrder(cart);
+            long after = System.nanoTime();
+            placeLatency.record(after - before);
+            recordPlaced(placed, after);
+        }
+    }
+
+    private void placeBatch(ThreadLocalRandom random) {
+        List<Order> carts = new ArrayList<>(settings.batch);
+        for (int i = 0; i < settings.batch; i++) {
+            carts.add(randomCart(random));
+        }
+        long before = System.nanoTime();
+        List<PlacementResult> results = orderManager.placeOrders(carts);
+        long after = System.nanoTime();
+        // Per order, so the figure compares with single placeOrder calls
+        placeLatency.record((after - before) / settings.batch);
+        for (PlacementResult result : results) {
+            if (!result.isPlaced()) {
+                violation("Valid cart was rejected: " + result.getError());
+            } else {
+                recordPlaced(result.getOrder(), after);
+            }
+        }
+    }
+
+    private Order randomCart(ThreadLocalRandom random) {
+        Order cart = new Order(0, random.nextDouble() < settings.priorityRatio);
+        int lines = 1 + random.nextInt(5);
+        for (int i = 0; i < lines; i++) {
+            String id = catalog.get(random.nextInt(catalog.size())).getId();
+            cart.addItem(productManager.getProductById(id), 1 + random.nextInt(3));
+        }
+        return cart;
+    }
+
+    private void recordPlaced(Order placed, long placedAt) {
+        if (placedAtNanos.putIfAbsent(placed.getId(), placedAt) != null) {
+            violation("Order ID " + placed.getId() + " was handed out twice");
+        }
+    }
+
+    private void cashierLoop() {
+        while (staffRunning) {
+            long before = System.nanoTime();
+            Order order = orderManager.retrieveNextOrder();
+            if (order == null) {
+                emptyPolls.incrementAndGet();
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            retrieveLatency.record(System.nanoTime() - before);
+            if (!retrieved.add(order.getId())) {
+                violation("Order #" + order.getId() + " was retrieved by two cashiers");
+            }
+            busyWait(settings.cashierMillis);
+            if (!orderManager.sendOrderToPreparation(order)) {
+                violation("Order #" + order.getId() + " could not be sent to preparation");
+                continue;
+            }
+            if (kitchen == null) {
+                kitchenTickets.add(order);
+            }
+        }
+    }
+
+    private void kitchenLoop() {
+        while (staffRunning || !kitchenTickets.isEmpty()) {
+            Order order;
+            try {
+                order = kitchenTickets.poll(1, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (order == null) {
+                continue;
+            }
+            busyWait(settings.kitchenMillis);
+            long before = System.nanoTime();
+            boolean done = orderManager.completePreparation(order.getId());
+            long after = System.nanoTime();
+            completeLatency.record(after - before);
+            if (!done) {
+                violation("Order #" + order.getId() + " could not be completed");
+            } else if (!completed.add(order.getId())) {
+                violation("Order #" + order.getId() + " was completed twice");
+            }
+            Long placedAt = placedAtNanos.get(order.getId());
+            if (placedAt != null) {
+                endToEndLatency.record(after - placedAt);
+            }
+        }
+    }
+
+    private void stationLoop(Station station) {
+        while (staffRunning) {
+            KitchenTicket ticket = kitchen.takeTicket(station);
+            if (ticket == null) {
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            busyWait(settings.kitchenMillis);
+            long before = System.nanoTime();
+            boolean orderDone = kitchen.finishTicket(ticket);
+            long after = System.nanoTime();
+            if (!orderDone) {
+                continue;
+            }
+            Order order = ticket.getOrder();
+            completeLatency.record(after - before);
+            if (!completed.add(order.getId())) {
+                violation("Order #" + order.getId() + " was completed twice");
+            }
+            Long placedAt = placedAtNanos.get(order.getId());
+            if (placedAt != null) {
+                endToEndLatency.record(after - placedAt);
+            }
+        }
+    }
+
+    private void checkInvariants() {
+        for (Long id : placedAtNanos.keySet()) {
+            if (!completed.contains(id)) {
+                OrderStatus status = orderManager.getOrderStatus(id);
+                violation("Order #" + id + " was placed but never completed (status " + status + ")");
+            } else {
+                // Null once the registry has forgotten it; anything else must be COMPLETED
+                OrderStatus status = orderManager.getOrderStatus(id);
+                if (status != null && status != OrderStatus.COMPLETED) {
+                    violation("Order #" + id + " completed but registry says " + status);
+                }
+            }
+        }
+        if (orderManager.getTrackedOrderCount() != 0) {
+            violation("Registry still tracks " + orderManager.getTrackedOrderCount() + " orders after the run");
+        }
+        for (Long id : retrieved) {
+            if (!placedAtNanos.containsKey(id)) {
+                violation("Order #" + id + " was retrieved but never placed");
+            }
+        }
+        if (!orderManager.isPendingCashierQueueEmpty()) {
+            violation("Pending queue still holds " + orderManager.getPendingOrders().size() + " orders");
+        }
+        if (!orderManager.getPreparingOrders().isEmpty()) {
+            violation("Preparing list still holds " + orderManager.getPreparingOrders().size() + " orders");
+        }
+    }
+
+    private void report(long intakeNanos, long totalNanos) {
+        PrintStream out = settings.reportOut;
+        out.printf(Locale.US, "%nLoad test: %d kiosks x %.1f orders/s, %d cashiers, %d kitchens, %d s%n",
+                settings.kiosks, settings.ratePerKiosk, settings.cashiers, settings.kitchens, settings.durationSeconds);
+        out.printf(Locale.US, "Placed    %,10d orders  (%,.0f orders/s offered intake)%n",
+                placedAtNanos.size(), placedAtNanos.size() / (intakeNanos / 1e9));
+        out.printf(Locale.US, "Completed %,10d orders  (%,.0f orders/s end to end)%n",
+                completed.size(), completed.size() / (totalNanos / 1e9));
+        out.printf(Locale.US, "Empty cashier polls: %,d%n", emptyPolls.get());
+        if (kitchen != null) {
+            out.printf(Locale.US, "Station tickets made by a helper station: %,d%n", kitchen.stolenTickets());
+        }
+        out.println("Latency (microseconds)     p50       p95       p99       max");
+        printLatency(out, "placeOrder", placeLatency);
+        printLatency(out, "retrieveNextOrder", retrieveLatency);
+        printLatency(out, "completePreparation", completeLatency);
+        printLatency(out, "placed -> completed", endToEndLatency);
+        if (violations.isEmpty()) {
+            out.println("Invariants: OK (no lost or duplicated orders)");
+        } else {
+            out.println("Invariant violations: " + violations.size());
+            violations.stream().limit(20).forEach(v -> out.println("  " + v));
+        }
+    }
+
+    private static void printLatency(PrintStream out, String name, SampleRecorder recorder) {
+        long[] samples = recorder.sorted();
+        if (samples.length == 0) {
+            out.printf(Locale.US, "  %-22s (no samples)%n", name);
+            return;
+        }
+        out.printf(Locale.US, "  %-22s %8.1f  %8.1f  %8.1f  %8.1f%n", name,
+                percentile(samples, 0.50) / 1e3, percentile(samples, 0.95) / 1e3,
+                percentile(samples, 0.99) / 1e3, samples[samples.length - 1] / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private synchronized void violation(String message) {
+        violations.add(message);
+    }
+
+    private static void busyWait(long millis) {
+        if (millis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    private static Thread start(String name, Runnable body) {
+        Thread thread = new Thread(body, name);
+        thread.start();
+        return thread;
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        // OrderManager logs every order; keep the console for the report
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        boolean ok = new LoadGenerator(settings).run();
+        System.exit(ok ? 0 : 1);
+    }
+
+
+     //Scenario knobs, read from --name=value arguments.
+    public static final class Settings {
+        int kiosks = 8;
+        int cashiers = 4;
+        int kitchens = 4;
+        double ratePerKiosk = 50;
+        int durationSeconds = 30;
+        double priorityRatio = 0.2;
+        long cashierMillis = 0;
+        long kitchenMillis = 0;
+        int products = 200;
+        String journalDir = null;
+        boolean pipeline = false;
+        boolean stations = false;
+        int batch = 1;
+        PrintStream reportOut = System.out;
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String value = parts[1];
+                switch (parts[0]) {
+                    case "kiosks": settings.kiosks = Integer.parseInt(value); break;
+                    case "cashiers": settings.cashiers = Integer.parseInt(value); break;
+                    case "kitchens": settings.kitchens = Integer.parseInt(value); break;
+                    case "rate": settings.ratePerKiosk = Double.parseDouble(value); break;
+                    case "duration": settings.durationSeconds = Integer.parseInt(value); break;
+                    case "priority": settings.priorityRatio = Double.parseDouble(value); break;
+                    case "cashierMs": settings.cashierMillis = Long.parseLong(value); break;
+                    case "kitchenMs": settings.kitchenMillis = Long.parseLong(value); break;
+                    case "products": settings.products = Integer.parseInt(value); break;
+                    case "journal": settings.journalDir = value; break;
+                    case "pipeline": settings.pipeline = Boolean.parseBoolean(value); break;
+                    case "batch": settings.batch = Integer.parseInt(value); break;
+                    case "stations": settings.stations = Boolean.parseBoolean(value); break;
+                    default: throw new IllegalArgumentException("Unknown option --" + parts[0]
+                            + " (known: " + Arrays.asList("kiosks", "cashiers", "kitchens", "rate", "duration",
+                            "priority", "cashierMs", "kitchenMs", "products", "journal", "pipeline", "batch", "stations") + ")");
+                }
+            }
+            return settings;
+        }
+    }
+}
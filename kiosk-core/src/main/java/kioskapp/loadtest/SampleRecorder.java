@@ -0,0 +1,53 @@
+package kioskapp.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+ //Collects raw latency samples from many threads without making them wait
+ //on each other: every thread appends to its own buffer.
+class SampleRecorder {
+    private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Buffer> local = ThreadLocal.withInitial(() -> {
+        Buffer buffer = new Buffer();
+        buffers.add(buffer);
+        return buffer;
+    });
+
+
+     //Adds one sample from the calling thread.
+    void record(long value) {
+        local.get().add(value);
+    }
+
+
+     //Merges every thread's samples, smallest first.
+     //Call after the recording threads have stopped.
+    long[] sorted() {
+        int total = 0;
+        for (Buffer buffer : buffers) {
+            total += buffer.size;
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (Buffer buffer : buffers) {
+            System.arraycopy(buffer.values, 0, all, position, buffer.size);
+            position += buffer.size;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static final class Buffer {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package kioskapp.loadtest;
+
+import kioskapp.manager.PendingOrderQueue;
+import kioskapp.manager.PrepTimeTable;
+import kioskapp.manager.SchedulingPolicy;
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+ //Replays the same order traffic through each scheduling policy and reports
+ //how long orders waited in the pending queue, overall and for normal and
+ //priority customers.
+ //
+ //The replay runs on simulated time, so hours of traffic take a moment: each
+ //order occupies one of --servers counters for its estimated prep time, and
+ //the policy under test decides which waiting order a free counter takes.
+ //Orders go through the real PendingOrderQueue.
+ //
+ //Usage (all options optional):
+ //  java kioskapp.loadtest.SchedulingReplay --trace=traffic.csv
+ //  java kioskapp.loadtest.SchedulingReplay --orders=20000 --servers=4 --load=0.9
+ //      --priority=0.4 --products=40 --seed=1 --credit=300 --prepWeight=1
+ //      --writeTrace=traffic.csv
+ //Without --trace, traffic is generated (Poisson arrivals at --load of what the
+ //servers can handle). Trace files have "prep,productId,seconds" lines
+ //followed by "order,arrivalMillis,priority(0|1),productId:qty;productId:qty" lines.
+public class SchedulingReplay {
+    private final Map<String, Product> products = new LinkedHashMap<>();
+    private final PrepTimeTable prepTimes = new PrepTimeTable(Duration.ofSeconds(60));
+    private final Map<String, Long> prepSeconds = new LinkedHashMap<>();
+    private final List<Order> traffic = new ArrayList<>();
+
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = Settings.parse(args);
+        SchedulingReplay replay = new SchedulingReplay();
+        if (settings.trace != null) {
+            replay.readTrace(Paths.get(settings.trace));
+        } else {
+            replay.generate(settings);
+        }
+        if (settings.writeTrace != null) {
+            replay.writeTrace(Paths.get(settings.writeTrace));
+        }
+
+        Duration credit = Duration.ofSeconds(settings.creditSeconds);
+        Map<String, SchedulingPolicy> policies = new LinkedHashMap<>();
+        policies.put("strict priority", SchedulingPolicy.strictPriority());
+        policies.put("aging " + settings.creditSeconds + "s", SchedulingPolicy.aging(credit));
+        policies.put("aging + prep x" + settings.prepWeight,
+                SchedulingPolicy.prepTimeFirst(replay.prepTimes, credit, settings.prepWeight));
+        replay.report(policies, settings.servers, System.out);
+    }
+
+
+     //Runs the traffic through each policy and prints the waits in seconds.
+    void report(Map<String, SchedulingPolicy> policies, int servers, PrintStream out) {
+        long priorityCount = traffic.stream().filter(Order::isPriority).count();
+        out.printf(Locale.US, "%,d orders (%,d priority), %d servers%n", traffic.size(), priorityCount, servers);
+        out.println("Wait in queue (seconds)            mean       p50       p95       p99       max");
+        for (Map.Entry<String, SchedulingPolicy> policy : policies.entrySet()) {
+            Waits waits = simulate(policy.getValue(), servers);
+            out.println(policy.getKey());
+            printWaits(out, "  all", waits.all);
+            printWaits(out, "  normal", waits.normal);
+            printWaits(out, "  priority", waits.priority);
+        }
+    }
+
+
+     //Replays the traffic on simulated time.
+    Waits simulate(SchedulingPolicy policy, int servers) {
+        // Fresh copies, since a queued order keeps the rank its first policy gave it
+        List<Order> orders = new ArrayList<>(traffic.size());
+        for (Order original : traffic) {
+            Order copy = new Order(original.getId(), original.isPriority(), original.getOrderTimeNanos());
+            for (int line = 0; line < original.getLineCount(); line++) {
+                copy.addItem(original.getLineProduct(line), original.getLineQuantity(line));
+            }
+            orders.add(copy);
+        }
+
+        PendingOrderQueue queue = new PendingOrderQueue(policy);
+        PriorityQueue<Long> freeAt = new PriorityQueue<>();
+        long start = orders.isEmpty() ? 0 : orders.get(0).getOrderTimeNanos();
+        for (int i = 0; i < servers; i++) {
+            freeAt.add(start);
+        }
+
+        Waits waits = new Waits();
+        int next = 0;
+        while (next < orders.size() || !queue.isEmpty()) {
+            // The next counter to free up takes an order, or waits for one to arrive
+            long now = freeAt.peek();
+            if (queue.isEmpty()) {
+                now = Math.max(now, orders.get(next).getOrderTimeNanos());
+            }
+            while (next < orders.size() && orders.get(next).getOrderTimeNanos() <= now) {
+                queue.offer(orders.get(next++));
+            }
+            Order served = queue.poll();
+            freeAt.poll();
+            freeAt.add(now + prepTimes.estimateNanos(served));
+            waits.record(served, now - served.getOrderTimeNanos());
+        }
+        return waits;
+    }
+
+
+     //Makes Poisson traffic that keeps the servers `load` busy on average.
+    void generate(Settings settings) {
+        Random random = new Random(settings.seed);
+        for (int i = 0; i < settings.products; i++) {
+            // Drinks take seconds, meals take minutes
+            addProduct("P" + i, 20 + random.nextInt(220));
+        }
+        List<Product> catalog = new ArrayList<>(products.values());
+
+        List<Order> carts = new ArrayList<>(settings.orders);
+        long totalPrepNanos = 0;
+        for (int i = 0; i < settings.orders; i++) {
+            Order cart = new Order(100 + i, random.nextDouble() < settings.priorityRatio, 0);
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                cart.addItem(catalog.get(random.nextInt(catalog.size())), 1 + random.nextInt(2));
+            }
+            totalPrepNanos += prepTimes.estimateNanos(cart);
+            carts.add(cart);
+        }
+
+        double meanGapNanos = (double) totalPrepNanos / settings.orders / settings.servers / settings.load;
+        long time = TimeUnit.HOURS.toNanos(1);
+        for (Order cart : carts) {
+            time += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+            traffic.add(copyAt(cart, time));
+        }
+    }
+
+    void readTrace(Path file) throws IOException {
+        for (String raw : Files.readAllLines(file)) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields[0].equals("prep") && fields.length == 3) {
+                addProduct(fields[1], Long.parseLong(fields[2]));
+            } else if (fields[0].equals("order") && fields.length == 4) {
+                long arrival = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[1]));
+                Order order = new Order(100 + traffic.size(), fields[2].equals("1"), arrival);
+                for (String item : fields[3].split(";")) {
+                    String[] parts = item.split(":");
+                    Product product = products.get(parts[0]);
+                    if (product == null) {
+                        // Unknown products take the default prep time
+                        product = addProduct(parts[0], -1);
+                    }
+                    order.addItem(product, Integer.parseInt(parts[1]));
+                }
+                traffic.add(order);
+            } else {
+                throw new IllegalArgumentException("Bad trace line: " + raw);
+            }
+        }
+        traffic.sort((a, b) -> Long.compare(a.getOrderTimeNanos(), b.getOrderTimeNanos()));
+    }
+
+    void writeTrace(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (Map.Entry<String, Long> prep : prepSeconds.entrySet()) {
+                out.write("prep," + prep.getKey() + "," + prep.getValue());
+                out.newLine();
+            }
+            for (Order order : traffic) {
+                StringBuilder line = new StringBuilder("order,");
+                line.append(TimeUnit.NANOSECONDS.toMillis(order.getOrderTimeNanos()))
+                        .append(',').append(order.isPriority() ? '1' : '0').append(',');
+                for (int i = 0; i < order.getLineCount(); i++) {
+                    if (i > 0) {
+                        line.append(';');
+                    }
+                    line.append(order.getLineProduct(i).getId()).append(':').append(order.getLineQuantity(i));
+                }
+                out.write(line.toString());
+                out.newLine();
+            }
+        }
+    }
+
+    private Product addProduct(String id, long seconds) {
+        Product product = new Product(id, id, Money.ZERO);
+        products.put(id, product);
+        if (seconds >= 0) {
+            prepSeconds.put(id, seconds);
+            prepTimes.set(id, Duration.ofSeconds(seconds));
+        }
+        return product;
+    }
+
+    private static Order copyAt(Order cart, long timeNanos) {
+        Order order = new Order(cart.getId(), cart.isPriority(), timeNanos);
+        for (int line = 0; line < cart.getLineCount(); line++) {
+            order.addItem(cart.getLineProduct(line), cart.getLineQuantity(line));
+        }
+        return order;
+    }
+
+    private static void printWaits(PrintStream out, String name, SampleRecorder recorder) {
+        long[] samples = recorder.sorted();
+        if (samples.length == 0) {
+            out.printf(Locale.US, "%-30s (no orders)%n", name);
+            return;
+        }
+        double sum = 0;
+        for (long sample : samples) {
+            sum += sample;
+        }
+        out.printf(Locale.US, "%-30s %8.1f  %8.1f  %8.1f  %8.1f  %8.1f%n", name,
+                sum / samples.length / 1e9, percentile(samples, 0.50) / 1e9, percentile(samples, 0.95) / 1e9,
+                percentile(samples, 0.99) / 1e9, samples[samples.length - 1] / 1e9);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+
+     //Wait times from one replay.
+    static final class Waits {
+        final SampleRecorder all = new SampleRecorder();
+        final SampleRecorder normal = new SampleRecorder();
+        final SampleRecorder priority = new SampleRecorder();
+
+        void record(Order order, long waitNanos) {
+            all.record(waitNanos);
+            (order.isPriority() ? priority : normal).record(waitNanos);
+        }
+    }
+
+
+    static final class Settings {
+        String trace;
+        String writeTrace;
+        int orders = 20_000;
+        int servers = 4;
+        double load = 0.9;
+        double priorityRatio = 0.4;
+        int products = 40;
+        long seed = 1;
+        long creditSeconds = 300;
+        double prepWeight = 1.0;
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String value = parts[1];
+                switch (parts[0]) {
+                    case "trace": settings.trace = value; break;
+                    case "writeTrace": settings.writeTrace = value; break;
+                    case "orders": settings.orders = Integer.parseInt(value); break;
+                    case "servers": settings.servers = Integer.parseInt(value); break;
+                    case "load": settings.load = Double.parseDouble(value); break;
+                    case "priority": settings.priorityRatio = Double.parseDouble(value); break;
+                    case "products": settings.products = Integer.parseInt(value); break;
+                    case "seed": settings.seed = Long.parseLong(value); break;
+                    case "credit": settings.creditSeconds = Long.parseLong(value); break;
+                    case "prepWeight": settings.prepWeight = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option --" + parts[0]
+                            + " (known: " + Arrays.asList("trace", "writeTrace", "orders", "servers", "load",
+                            "priority", "products", "seed", "credit", "prepWeight") + ")");
+                }
+            }
+            return settings;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package kioskapp.manager;
+
+import kioskapp.model.Product;
+import kioskapp.storage.CatalogFile;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+
+ //Loads the menu from a file and reloads it whenever the file changes, so
+ //prices and items can be changed without restarting the kiosks.
+ //
+ //Each reload goes through ProductManager.replaceAll, which publishes a new
+ //catalog snapshot and tells listeners only about the products that changed.
+ //A file that does not parse, or lists no products at all, is reported and
+ //skipped; the menu stays as it was.
+ //
+ //Edits made through the ProductManager (the admin screen) are written back to
+ //the file in one atomic step, so the next reload keeps them instead of
+ //reverting them. Our own write comes back as a change event; its reload finds
+ //nothing different and does nothing. Comments in the file are not kept.
+public class CatalogWatcher implements AutoCloseable, ProductListener {
+    // Editors often save in several writes; wait this long after the first event
+    private static final long SETTLE_MILLIS = 250;
+
+    private final Path file;
+    private final ProductManager productManager;
+    private final WatchService watchService;
+    private final Thread thread;
+    // The thread applying the file, whose changes must not be written back to it
+    private volatile Thread reloading;
+
+
+     //Loads the menu file into a product manager and starts watching it.
+     //If the file does not exist yet it is created from the defaults, so
+     //there is something to edit.
+     //@param file           The menu file.
+     //@param productManager The catalog to keep in step with the file.
+     //@param defaults       The menu to write if there is no file.
+     //@return The running watcher; close it on shutdown.
+     //@throws IOException if the file cannot be created, read or parsed.
+    public static CatalogWatcher open(Path file, ProductManager productManager, List<Product> defaults) throws IOException {
+        if (Files.notExists(file)) {
+            CatalogFile.write(file, defaults);
+        }
+        productManager.replaceAll(readMenu(file));
+        CatalogWatcher watcher = new CatalogWatcher(file.toAbsolutePath(), productManager);
+        productManager.addProductListener(watcher);
+        return watcher;
+    }
+
+    private CatalogWatcher(Path file, ProductManager productManager) throws IOException {
+        this.file = file;
+        this.productManager = productManager;
+        this.watchService = file.getFileSystem().newWatchService();
+        // Watch the folder: saving by rename replaces the file, and a watch on
+        // the file itself would be lost with the old one
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+     //Reads the file again and applies what changed.
+     //@return How many products changed, or -1 if the file could not be used.
+    public int reload() {
+        // Read under the manager's lock, so an admin edit cannot be written to the
+        // file and then undone by applying the copy read just before it
+        synchronized (productManager) {
+            reloading = Thread.currentThread();
+            try {
+                int changes = productManager.replaceAll(readMenu(file));
+                if (changes > 0) {
+                    System.out.println("Menu reloaded from " + file + ": " + changes + " products changed.");
+                }
+                return changes;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Menu file not applied, keeping the current menu: " + e.getMessage());
+                return -1;
+            } finally {
+                reloading = null;
+            }
+        }
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        saveEdit();
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        saveEdit();
+    }
+
+    @Override
+    public void productRemoved(Product product) {
+        saveEdit();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+
+     //Stops watching. Later admin edits are no longer written to the file.
+    @Override
+    public void close() {
+        productManager.removeProductListener(this);
+        try {
+            watchService.close(); // wakes the thread with ClosedWatchServiceException
+            thread.join();
+        } catch (IOException e) {
+            System.err.println("Error closing menu watcher: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean menuChanged = touchesMenu(key);
+                if (!menuChanged) {
+                    continue;
+                }
+                Thread.sleep(SETTLE_MILLIS);
+                // Fold in whatever else arrived while the file settled
+                for (WatchKey more = watchService.poll(); more != null; more = watchService.poll()) {
+                    touchesMenu(more);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed; nothing left to do
+        }
+    }
+
+
+     //Writes the whole menu after an admin edit. Listeners run with the
+     //manager locked, so the writes happen in the order of the edits.
+    private void saveEdit() {
+        if (Thread.currentThread() == reloading) {
+            return; // The change came from the file
+        }
+        try {
+            CatalogFile.write(file, productManager.getAllProducts());
+        } catch (IOException e) {
+            System.err.println("Menu edit not saved to " + file + "; the next reload will undo it: " + e.getMessage());
+        }
+    }
+
+
+     //Reads the menu file, refusing one with no products: an emptied or
+     //truncated file would otherwise take every product off the screens.
+    private static List<Product> readMenu(Path file) throws IOException {
+        List<Product> products = CatalogFile.read(file);
+        if (products.isEmpty()) {
+            throw new IOException(file.getFileName() + " lists no products");
+        }
+        return products;
+    }
+
+
+     //Reads and resets a watch key.
+     //@return true if one of its events was for the menu file (or events were lost).
+    private boolean touchesMenu(WatchKey key) {
+        boolean menuChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                menuChanged = true;
+            }
+        }
+        key.reset();
+        return menuChanged;
+    }
+}
@@ -0,0 +1,51 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+
+import java.util.List;
+
+
+    //The starting menu every kiosk comes up with, and what a new menu file is filled with.
+    //Shared by the desktop app and the headless launcher so both sell the same things.
+
+public final class DefaultMenu {
+
+    private DefaultMenu() {
+    }
+
+
+     //Adds the demo products to a product manager.
+     //@param productManager The manager to fill.
+    public static void loadInto(ProductManager productManager) {
+        productManager.replaceAll(products());
+    }
+
+
+     //Makes fresh copies of the demo products.
+     //@return The demo menu, in display order.
+    public static List<Product> products() {
+        return List.of(
+                new Product("C1", "Chickenjoy 1pc Meal", Money.parse("120.00")),
+                new Product("C2", "Chickenjoy 2pc Meal", Money.parse("200.00")),
+                new Product("S1", "Spaghetti Solo", Money.parse("80.00")),
+                new Product("B1", "Burger Steak 1pc", Money.parse("95.00")),
+                new Product("F1", "Fries Large", Money.parse("70.00")),
+                new Product("D1", "Coke Regular", Money.parse("50.00")));
+    }
+
+
+     //Kitchen routes for the demo products; anything else goes to the grill.
+     //@return A router for a Kitchen.
+    public static StationRouter stationRoutes() {
+        StationRouter router = new StationRouter(Station.GRILL);
+        router.route("C1", Station.FRYER);
+        router.route("C2", Station.FRYER);
+        router.route("F1", Station.FRYER);
+        router.route("B1", Station.GRILL);
+        router.route("S1", Station.PASTA);
+        router.route("D1", Station.DRINKS);
+        return router;
+    }
+}
@@ -0,0 +1,336 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+ //Places orders through a chain of stage threads instead of on the caller's thread.
+ //
+ //Carts go into a ring of pre-allocated slots. Four threads each walk the
+ //ring behind the one before, so different orders are in different stages
+ //at the same time:
+ //  1. validate - look every product up in the catalog and take its current
+ //                price; carts with unknown products or bad quantities fail here
+ //  2. assign   - give the order its ID and build the final order
+ //  3. journal  - write PLACED, then wait once for the whole batch to be on disk
+ //  4. enqueue  - hand the orders to the cashiers and complete the callers' futures
+ //submit() returns as soon as the cart is in a slot. It only waits if every
+ //slot is in use, which keeps a flood of kiosks from running the heap dry.
+ //
+ //A stage that throws fails only the future of the slot it was working on;
+ //the thread carries on with the next one. If the journal cannot make a batch
+ //durable, the batch's orders are taken back before any cashier sees them.
+public class IntakePipeline implements AutoCloseable {
+    // Longest an idle stage sleeps. The stage before it (or submit) unparks it
+    // as soon as there is work, so this is only a backstop, not a polling rate
+    private static final long IDLE_PARK_NANOS = 100_000_000;
+    // How long submit() waits before looking again when every slot is in use
+    private static final long FULL_RING_PARK_NANOS = 50_000;
+
+    private final ProductManager productManager;
+    private final OrderManager orderManager;
+    private final Slot[] ring;
+    private final int mask;
+
+    // Next sequence a caller will claim
+    private final AtomicLong claimed = new AtomicLong();
+    // How far each stage has got: every sequence below the cursor is done with that stage
+    private final AtomicLong validated = new AtomicLong();
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong journaled = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+
+    private final Thread validateThread;
+    private final Thread assignThread;
+    private final Thread journalThread;
+    private final Thread enqueueThread;
+    private volatile boolean closing;
+    // Callers inside submit(); the stages keep running until this drops to 0 after closing
+    private final AtomicInteger submitting = new AtomicInteger();
+
+
+     //Creates the pipeline and starts its stage threads.
+     //@param productManager The catalog carts are checked and priced against.
+     //@param orderManager The manager the orders are placed in.
+     //@param capacity How many orders can be in flight; rounded up to a power of two.
+    public IntakePipeline(ProductManager productManager, OrderManager orderManager, int capacity) {
+        this.productManager = productManager;
+        this.orderManager = orderManager;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+
+        validateThread = startStage("intake-validate", this::runValidate);
+        assignThread = startStage("intake-assign", this::runAssign);
+        journalThread = startStage("intake-journal", this::runJournal);
+        enqueueThread = startStage("intake-enqueue", this::runEnqueue);
+    }
+
+
+     //Queues a cart for placing. The cart is copied by the first stage, so the
+     //caller must not change it until the returned future completes.
+     //@param cart The customer's order (its ID is ignored).
+     //@return Completes with the placed order, or with an IllegalArgumentException
+     //        saying what was wrong with the cart.
+     //@throws IllegalStateException if the pipeline is closed.
+    public CompletableFuture<Order> submit(Order cart) {
+        // Counted before looking at closing, so the validate stage cannot stop
+        // between our check and our claim and leave the slot unserved
+        submitting.incrementAndGet();
+        try {
+            if (closing) {
+                throw new IllegalStateException("Intake pipeline is closed");
+            }
+            long seq = claimed.getAndIncrement();
+            // Wait for the slot to come free if the ring is full
+            while (seq - enqueued.get() >= ring.length) {
+                LockSupport.parkNanos(FULL_RING_PARK_NANOS);
+            }
+            Slot slot = ring[(int) seq & mask];
+            CompletableFuture<Order> result = new CompletableFuture<>();
+            slot.cart = cart;
+            slot.result = result;
+            slot.error = null;
+            slot.published = seq; // volatile write makes the fields above visible to the validate stage
+            LockSupport.unpark(validateThread);
+            return result;
+        } finally {
+            if (submitting.decrementAndGet() == 0 && closing) {
+                // The validate stage may be waiting for us before it stops
+                LockSupport.unpark(validateThread);
+            }
+        }
+    }
+
+
+     //Stops taking carts, lets the ones already submitted finish, and stops the threads.
+     //Every future submit() has returned is complete once this returns.
+    @Override
+    public void close() {
+        closing = true;
+        for (Thread thread : new Thread[]{validateThread, assignThread, journalThread, enqueueThread}) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // --- Stages ---
+
+    private void runValidate() {
+        long next = 0;
+        while (true) {
+            Slot slot = ring[(int) next & mask];
+            if (slot.published != next) {
+                if (closing && submitting.get() == 0 && next >= claimed.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                validate(slot);
+            } catch (RuntimeException e) {
+                slot.error = e;
+            }
+            validated.set(++next);
+            LockSupport.unpark(assignThread);
+        }
+    }
+
+    private void runAssign() {
+        long next = 0;
+        while (true) {
+            long available = validated.get();
+            if (next == available) {
+                if (closing && validateThread.getState() == Thread.State.TERMINATED && next == validated.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (; next < available; next++) {
+                Slot slot = ring[(int) next & mask];
+                if (slot.error == null) {
+                    try {
+                        slot.order = build(slot);
+                    } catch (RuntimeException e) {
+                        slot.error = e;
+                    }
+                }
+            }
+            assigned.set(next);
+            LockSupport.unpark(journalThread);
+        }
+    }
+
+    private void runJournal() {
+        long next = 0;
+        while (true) {
+            long available = assigned.get();
+            if (next == available) {
+                if (closing && assignThread.getState() == Thread.State.TERMINATED && next == assigned.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            // Append the whole batch, then wait for the disk once (group commit)
+            long lastSeq = 0;
+            for (long seq = next; seq < available; seq++) {
+                Slot slot = ring[(int) seq & mask];
+                if (slot.error == null) {
+                    try {
+                        lastSeq = orderManager.journalPlaced(slot.order);
+                    } catch (RuntimeException e) {
+                        slot.error = e;
+                        orderManager.abandonPlaced(slot.order); // frees its display code
+                    }
+                }
+            }
+            try {
+                orderManager.awaitDurable(lastSeq);
+            } catch (RuntimeException e) {
+                // Nobody has seen these orders yet; take them back rather than
+                // leave them registered as PENDING with no cashier queue entry
+                for (long seq = next; seq < available; seq++) {
+                    Slot slot = ring[(int) seq & mask];
+                    if (slot.error == null) {
+                        slot.error = e;
+                        orderManager.abandonPlaced(slot.order);
+                    }
+                }
+            }
+            next = available;
+            journaled.set(next);
+            LockSupport.unpark(enqueueThread);
+        }
+    }
+
+    private void runEnqueue() {
+        long next = 0;
+        while (true) {
+            long available = journaled.get();
+            if (next == available) {
+                if (closing && journalThread.getState() == Thread.State.TERMINATED && next == journaled.get()) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (; next < available; next++) {
+                Slot slot = ring[(int) next & mask];
+                CompletableFuture<Order> result = slot.result;
+                Order order = slot.order;
+                RuntimeException error = slot.error;
+                slot.clear();
+                if (error == null) {
+                    try {
+                        orderManager.enqueuePlaced(order);
+                    } catch (RuntimeException e) {
+                        // Same as placeOrder(): the order is queued, but the caller hears of the failure
+                        error = e;
+                    }
+                }
+                // Free the slot before running the caller's callbacks
+                enqueued.set(next + 1);
+                if (error == null) {
+                    result.complete(order);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    // --- Stage work ---
+
+
+     //Swaps every cart line for the catalog's product, so a stale or made-up
+     //price on the cart is never charged.
+    private void validate(Slot slot) {
+        Order cart = slot.cart;
+        int lines = cart.getLineCount();
+        if (lines == 0) {
+            slot.error = new IllegalArgumentException("Empty cart");
+            return;
+        }
+        slot.ensureLines(lines);
+        slot.lineCount = lines;
+        for (int line = 0; line < lines; line++) {
+            Product cartProduct = cart.getLineProduct(line);
+            Product current = productManager.getProductById(cartProduct.getId());
+            if (current == null) {
+                slot.error = new IllegalArgumentException("Unknown product: " + cartProduct.getId());
+                return;
+            }
+            int quantity = cart.getLineQuantity(line);
+            if (quantity <= 0) {
+                slot.error = new IllegalArgumentException("Quantity must be positive: " + cartProduct.getId());
+                return;
+            }
+            slot.products[line] = current;
+            slot.quantities[line] = quantity;
+        }
+    }
+
+    private Order build(Slot slot) {
+        Order order = new Order(orderManager.nextOrderId(), slot.cart.isPriority());
+        for (int line = 0; line < slot.lineCount; line++) {
+            order.addItem(slot.products[line], slot.quantities[line]);
+        }
+        return order;
+    }
+
+    private static Thread startStage(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+
+     //One ring entry. Written by the caller, then by each stage in turn; the
+     //stage cursors order those writes, so the fields need no locks.
+    private static final class Slot {
+        volatile long published = -1;
+        Order cart;
+        CompletableFuture<Order> result;
+        RuntimeException error;
+        // Priced lines from the validate stage; arrays are reused and only grow
+        Product[] products = new Product[8];
+        int[] quantities = new int[8];
+        int lineCount;
+        Order order;
+
+        void ensureLines(int lines) {
+            if (products.length < lines) {
+                int size = Integer.highestOneBit(lines - 1) << 1;
+                products = new Product[size];
+                quantities = new int[size];
+            }
+        }
+
+        void clear() {
+            cart = null;
+            result = null;
+            order = null;
+            error = null;
+            Arrays.fill(products, 0, lineCount, null);
+            lineCount = 0;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Station;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+ //Splits orders sent to the kitchen into station tickets and tracks them
+ //until every ticket of an order is done, then completes the order.
+ //
+ //Each station has its own lock-free queue. A station that runs dry helps
+ //the busiest station it is able to cover (see Station.canCover), taking
+ //that station's oldest ticket so the longest-waiting customer is served
+ //first. Safe to use from one thread per station.
+ //
+ //An order completed or cancelled some other way (e.g. at the counter) takes
+ //its waiting tickets out of the queues, so a kitchen nobody works from does
+ //not pile up tickets.
+public class Kitchen implements OrderListener {
+    private static final Station[] STATIONS = Station.values();
+
+    private final OrderManager orderManager;
+    private final StationRouter router;
+    // One queue per station, by ordinal
+    private final StationQueue[] queues;
+    // Order ID -> its tickets; gone once the order is finished or dropped
+    private final Map<Long, OpenOrder> openOrders = new ConcurrentHashMap<>();
+    private final AtomicInteger stolen = new AtomicInteger();
+
+    private Kitchen(OrderManager orderManager, StationRouter router) {
+        this.orderManager = orderManager;
+        this.router = router;
+        this.queues = new StationQueue[STATIONS.length];
+        for (int i = 0; i < STATIONS.length; i++) {
+            queues[i] = new StationQueue();
+        }
+    }
+
+
+     //Creates a kitchen and starts splitting the order manager's preparing
+     //orders into tickets, including those restored from the journal.
+     //@param orderManager The manager whose orders the kitchen makes.
+     //@param router Which station makes which product.
+     //@return The kitchen, already listening to the manager.
+    public static Kitchen attach(OrderManager orderManager, StationRouter router) {
+        Kitchen kitchen = new Kitchen(orderManager, router);
+        orderManager.addOrderListener(kitchen);
+        for (Order order : orderManager.getPreparingOrders()) {
+            kitchen.orderSentToPreparation(order);
+        }
+        return kitchen;
+    }
+
+
+     //Gets the next ticket for a station: its own oldest ticket, or else the
+     //oldest ticket of the busiest station it can cover.
+     //@param station The station asking for work.
+     //@return A ticket, or null if there is nothing this station can make.
+    public KitchenTicket takeTicket(Station station) {
+        KitchenTicket ticket = poll(station);
+        if (ticket != null) {
+            return ticket;
+        }
+        while (true) {
+            Station busiest = null;
+            int most = 0;
+            for (Station other : STATIONS) {
+                int depth = queues[other.ordinal()].depth.get();
+                if (other != station && depth > most && station.canCover(other)) {
+                    busiest = other;
+                    most = depth;
+                }
+            }
+            if (busiest == null) {
+                return null;
+            }
+            ticket = poll(busiest);
+            if (ticket != null) {
+                stolen.incrementAndGet();
+                return ticket;
+            }
+            // Someone else emptied it first; look again
+        }
+    }
+
+
+     //Marks a ticket as made. When it was the order's last ticket, the order
+     //is completed.
+     //@param ticket A ticket from takeTicket().
+     //@return true if this finished the whole order.
+    public boolean finishTicket(KitchenTicket ticket) {
+        return finishTicket(ticket.getOrder().getId(), ticket.getStation());
+    }
+
+
+     //Marks an order's ticket for a station as made, for callers that only
+     //kept the order ID (e.g. a station screen on another machine).
+     //Finishing the same ticket twice has no effect. If completing the order
+     //fails, the ticket stays open so the station can finish it again.
+     //@param orderId The order the ticket belongs to.
+     //@param station The station the ticket was routed to (KitchenTicket.getStation()).
+     //@return true if this finished the whole order.
+     //@throws IllegalStateException if the completion could not be journaled.
+    public boolean finishTicket(long orderId, Station station) {
+        OpenOrder open = openOrders.get(orderId);
+        if (open == null || !open.finish(station)) {
+            return false;
+        }
+        boolean completed;
+        try {
+            completed = orderManager.completePreparation(orderId);
+        } catch (RuntimeException e) {
+            // The order is still preparing; keep its ticket open
+            open.unfinish(station);
+            throw e;
+        }
+        openOrders.remove(orderId, open);
+        return completed;
+    }
+
+
+     //Puts a ticket that was taken but not made back at the front of its
+     //station's queue, e.g. when a station screen is closed.
+     //@param ticket A ticket from takeTicket().
+    public void returnTicket(KitchenTicket ticket) {
+        OpenOrder open = openOrders.get(ticket.getOrder().getId());
+        if (open != null && open.isWaitingFor(ticket.getStation())) {
+            queues[ticket.getStation().ordinal()].addFirst(ticket);
+        }
+    }
+
+    // Whether the order still has a ticket for this station that is not made yet
+    public boolean hasOpenTicket(long orderId, Station station) {
+        OpenOrder open = openOrders.get(orderId);
+        return open != null && open.isWaitingFor(station);
+    }
+
+    // Tickets waiting at a station
+    public int pendingTickets(Station station) {
+        return Math.max(queues[station.ordinal()].depth.get(), 0);
+    }
+
+    // Tickets made by a station other than the one they were routed to
+    public int stolenTickets() {
+        return stolen.get();
+    }
+
+    @Override
+    public void orderSentToPreparation(Order order) {
+        // Count the lines per station, then hand out the line numbers
+        int[] counts = new int[STATIONS.length];
+        Station[] stationOfLine = new Station[order.getLineCount()];
+        for (int line = 0; line < stationOfLine.length; line++) {
+            stationOfLine[line] = router.stationFor(order.getLineProduct(line));
+            counts[stationOfLine[line].ordinal()]++;
+        }
+        KitchenTicket[] tickets = new KitchenTicket[STATIONS.length];
+        boolean any = false;
+        for (Station station : STATIONS) {
+            int count = counts[station.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            int[] lines = new int[count];
+            int next = 0;
+            for (int line = 0; line < stationOfLine.length; line++) {
+                if (stationOfLine[line] == station) {
+                    lines[next++] = line;
+                }
+            }
+            tickets[station.ordinal()] = new KitchenTicket(order, station, lines);
+            any = true;
+        }
+        if (!any) {
+            orderManager.completePreparation(order.getId());
+            return;
+        }
+        if (openOrders.putIfAbsent(order.getId(), new OpenOrder(tickets)) != null) {
+            return; // Already split (seen both in the startup copy and as an event)
+        }
+        for (KitchenTicket ticket : tickets) {
+            if (ticket != null) {
+                queues[ticket.getStation().ordinal()].addLast(ticket);
+            }
+        }
+    }
+
+    @Override
+    public void orderCompleted(Order order) {
+        // Finished at the counter without the tickets; drop whatever is left
+        drop(order.getId());
+    }
+
+    @Override
+    public void orderCancelled(Order order, OrderStatus previousStatus) {
+        if (previousStatus == OrderStatus.PREPARING) {
+            drop(order.getId());
+        }
+    }
+
+    private void drop(long orderId) {
+        OpenOrder open = openOrders.remove(orderId);
+        if (open == null) {
+            return;
+        }
+        for (KitchenTicket ticket : open.tickets) {
+            if (ticket != null) {
+                queues[ticket.getStation().ordinal()].remove(ticket);
+            }
+        }
+    }
+
+
+     //Takes a station's oldest ticket, skipping tickets of orders that were
+     //cancelled or completed some other way, and tickets already finished by
+     //ID while they were still queued.
+    private KitchenTicket poll(Station station) {
+        StationQueue queue = queues[station.ordinal()];
+        KitchenTicket ticket;
+        while ((ticket = queue.pollFirst()) != null) {
+            OpenOrder open = openOrders.get(ticket.getOrder().getId());
+            if (open != null && open.isWaitingFor(ticket.getStation())) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+
+     //One station's tickets, oldest first. Deque size() walks the whole
+     //deque, so the depth is counted alongside.
+    private static final class StationQueue {
+        final ConcurrentLinkedDeque<KitchenTicket> tickets = new ConcurrentLinkedDeque<>();
+        final AtomicInteger depth = new AtomicInteger();
+
+        void addLast(KitchenTicket ticket) {
+            tickets.addLast(ticket);
+            depth.incrementAndGet();
+        }
+
+        void addFirst(KitchenTicket ticket) {
+            tickets.addFirst(ticket);
+            depth.incrementAndGet();
+        }
+
+        KitchenTicket pollFirst() {
+            KitchenTicket ticket = tickets.pollFirst();
+            if (ticket != null) {
+                depth.decrementAndGet();
+            }
+            return ticket;
+        }
+
+        // Only one of remove() and pollFirst() gets a given ticket, so it is counted once
+        void remove(KitchenTicket ticket) {
+            if (tickets.removeFirstOccurrence(ticket)) {
+                depth.decrementAndGet();
+            }
+        }
+    }
+
+
+     //An order's tickets and which of them are not made yet, one bit per station.
+    private static final class OpenOrder {
+        final KitchenTicket[] tickets; // by station ordinal, null where the order has nothing
+        final AtomicInteger waiting = new AtomicInteger();
+
+        OpenOrder(KitchenTicket[] tickets) {
+            this.tickets = tickets;
+            int bits = 0;
+            for (KitchenTicket ticket : tickets) {
+                if (ticket != null) {
+                    bits |= 1 << ticket.getStation().ordinal();
+                }
+            }
+            waiting.set(bits);
+        }
+
+        boolean isWaitingFor(Station station) {
+            return (waiting.get() & (1 << station.ordinal())) != 0;
+        }
+
+        // Clears the station's bit; true if it was the last one
+        boolean finish(Station station) {
+            int bit = 1 << station.ordinal();
+            while (true) {
+                int bits = waiting.get();
+                if ((bits & bit) == 0) {
+                    return false;
+                }
+                if (waiting.compareAndSet(bits, bits & ~bit)) {
+                    return (bits & ~bit) == 0;
+                }
+            }
+        }
+
+        // Sets the station's bit again after a completion that failed
+        void unfinish(Station station) {
+            waiting.getAndUpdate(bits -> bits | 1 << station.ordinal());
+        }
+    }
+}
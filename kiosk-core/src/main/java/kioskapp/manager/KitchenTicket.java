@@ -0,0 +1,50 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+
+
+ //The part of an order one kitchen station makes: some of the order's lines.
+public final class KitchenTicket {
+    private final Order order;
+    private final Station station;
+    private final int[] lines; // Line numbers in the order
+
+    KitchenTicket(Order order, Station station, int[] lines) {
+        this.order = order;
+        this.station = station;
+        this.lines = lines;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    // The station the items were routed to (a helper may be the one making them)
+    public Station getStation() {
+        return station;
+    }
+
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    public Product getLineProduct(int i) {
+        return order.getLineProduct(lines[i]);
+    }
+
+    public int getLineQuantity(int i) {
+        return order.getLineQuantity(lines[i]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(station).append(" #").append(order.getOrderId()).append(':');
+        for (int i = 0; i < lines.length; i++) {
+            sb.append(' ').append(getLineQuantity(i)).append('x').append(getLineProduct(i).getName());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package kioskapp.manager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+ //Hands out order IDs that are unique across restarts and across nodes
+ //without the nodes ever talking to each other.
+ //
+ //An ID packs three parts into a positive long:
+ //  41 bits  milliseconds since 2025-01-01 UTC (good for about 69 years)
+ //  10 bits  node ID, 0-1023, set per backend instance
+ //  12 bits  sequence within the millisecond
+ //so IDs from one node go up over time and IDs from different nodes never
+ //clash. Taking an ID is one compare-and-set on this generator's own counter.
+ //
+ //The counter holds the time and sequence together. If more than 4096 IDs are
+ //taken in one millisecond the sequence carries into the time part, which just
+ //borrows from the next millisecond. If the clock steps back, IDs keep going up
+ //from where they were instead of following it.
+public class OrderIdGenerator {
+    // 2025-01-01T00:00:00Z
+    public static final long EPOCH_MILLIS = 1_735_689_600_000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIME_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final long nodeBits;
+    // Last (time << SEQUENCE_BITS | sequence) handed out
+    private final AtomicLong last = new AtomicLong();
+
+
+     //@param nodeId This backend's ID, 0-1023; no two running nodes may share one.
+    public OrderIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be 0-" + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+
+     //Takes the next ID.
+     //@return A new unique ID.
+    public long next() {
+        return compose(reserve(1));
+    }
+
+
+     //Takes several IDs with one compare-and-set.
+     //@param ids Filled with new unique IDs, in increasing order.
+    public void next(long[] ids) {
+        if (ids.length == 0) {
+            return;
+        }
+        long first = reserve(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = compose(first + i);
+        }
+    }
+
+
+     //Makes sure no ID at or below the given one is handed out again, e.g. the
+     //highest ID found in the journal after a restart.
+     //@param id An ID this node already used.
+    public void advancePast(long id) {
+        last.accumulateAndGet(stamp(id), Math::max);
+    }
+
+
+     //@return The highest ID handed out (or passed to advancePast) so far.
+    public long lastIssued() {
+        return compose(last.get());
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+
+     //@return The node that handed out an ID.
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+
+     //@return When an ID was handed out, in milliseconds since the Unix epoch
+     //        (a little later than the real time if that millisecond ran out of IDs).
+    public static long millisOf(long id) {
+        return (id >>> TIME_SHIFT) + EPOCH_MILLIS;
+    }
+
+
+     //Reserves `count` consecutive stamps and returns the first.
+    private long reserve(int count) {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long first = Math.max(previous + 1, now);
+            if (last.compareAndSet(previous, first + count - 1)) {
+                return first;
+            }
+        }
+    }
+
+    private long compose(long stamp) {
+        return (stamp >>> SEQUENCE_BITS) << TIME_SHIFT | nodeBits | (stamp & SEQUENCE_MASK);
+    }
+
+    private static long stamp(long id) {
+        return (id >>> TIME_SHIFT) << SEQUENCE_BITS | (id & SEQUENCE_MASK);
+    }
+}
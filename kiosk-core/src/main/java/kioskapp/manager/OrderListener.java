@@ -0,0 +1,37 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+
+
+ //Gets told when orders move through the pipeline.
+ //Methods run on the thread that made the change, after it is journaled,
+ //so they must be quick and must not assume they are on a UI thread.
+ //Orders restored from the journal at startup are not announced; read
+ //getPendingOrders() and getPreparingOrders() after adding the listener.
+public interface OrderListener {
+
+    // A new order joined the pending queue
+    default void orderPlaced(Order order) {
+    }
+
+    // A cashier took an order off the pending queue
+    default void orderRetrieved(Order order) {
+    }
+
+    // A retrieved order went back to the pending queue unserved
+    default void orderReturned(Order order) {
+    }
+
+    // A cashier sent an order to the kitchen
+    default void orderSentToPreparation(Order order) {
+    }
+
+    // The kitchen finished an order
+    default void orderCompleted(Order order) {
+    }
+
+    // An order was cancelled; previousStatus tells which queue it left
+    default void orderCancelled(Order order, OrderStatus previousStatus) {
+    }
+}
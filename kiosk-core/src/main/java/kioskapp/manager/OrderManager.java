@@ -0,0 +1,934 @@
+package kioskapp.manager;
+
+import kioskapp.metrics.PipelineMetrics;
+import kioskapp.metrics.SalesStore;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.storage.JournalEvent;
+import kioskapp.storage.OrderArchive;
+import kioskapp.storage.OrderJournal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+ //Handles customer orders and manages the order queues.
+public class OrderManager implements AutoCloseable {
+    // Take a snapshot after this many journaled events
+    private static final int EVENTS_PER_CHECKPOINT = 10_000;
+
+    // Queue for orders waiting for the cashier (safe to use from many kiosks/cashiers)
+    private PendingOrderQueue pendingCashierQueue;
+    // Orders currently being prepared, by ID, in the order they were sent (guarded by its own lock)
+    private final Map<Long, Order> preparingOrders = new LinkedHashMap<>();
+    // Every order by ID, with its current status
+    private OrderRegistry registry;
+    // Unique order IDs for this node
+    private final OrderIdGenerator idGenerator;
+
+    // Per-stage latency histograms and queue-depth gauges
+    private final PipelineMetrics metrics;
+    // Lines of every order completed since launch, for sales reports
+    private final SalesStore sales = new SalesStore();
+    // On-disk history of completed orders (null if not kept)
+    private volatile OrderArchive archive;
+    // Completed orders the archive could not take yet (guarded by itself); until
+    // they are archived the journal is their only copy, so checkpoints wait
+    private final List<OrderJournal.CompletedOrder> unarchived = new ArrayList<>();
+    // Told about every lifecycle change
+    private final List<OrderListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Durable log of lifecycle events (null when running in memory only)
+    private final OrderJournal journal;
+    // Changes hold the read lock while they update state and append to the journal;
+    // a checkpoint takes the write lock so its snapshot matches the segment boundary
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final AtomicInteger eventsSinceCheckpoint = new AtomicInteger();
+    private final AtomicBoolean checkpointScheduled = new AtomicBoolean();
+    private final Object checkpointLock = new Object();
+    private final ExecutorService checkpointExecutor;
+    // False if the journal could not be read at startup: a checkpoint would then
+    // snapshot without the unread orders and delete the segments that hold them
+    private volatile boolean recovered = true;
+
+
+    //Creates a new order manager and sets up the queues.
+
+    public OrderManager() {
+        this(null);
+    }
+
+
+     //Creates an order manager that journals every change and first restores
+     //the orders that were still open when the journal was last used.
+     //@param journal The journal to restore from and write to, or null for memory only.
+
+    public OrderManager(OrderJournal journal) {
+        // Priority orders go first; earlier orders are ahead if priority is the same
+        this(journal, SchedulingPolicy.strictPriority());
+    }
+
+
+     //Creates an order manager with its own rule for who the cashier serves next.
+     //@param journal The journal to restore from and write to, or null for memory only.
+     //@param policy  Ranks orders in the pending queue.
+
+    public OrderManager(OrderJournal journal, SchedulingPolicy policy) {
+        this(journal, policy, new OrderIdGenerator(0));
+    }
+
+
+     //Creates an order manager for one node of several sharing the order traffic.
+     //@param journal     The journal to restore from and write to, or null for memory only.
+     //@param policy      Ranks orders in the pending queue.
+     //@param idGenerator Hands out this node's order IDs; each node needs its own node ID.
+
+    public OrderManager(OrderJournal journal, SchedulingPolicy policy, OrderIdGenerator idGenerator) {
+        this(journal, policy, idGenerator, null);
+    }
+
+
+     //Creates an order manager that keeps completed orders in an archive. The
+     //archive is attached before the journal is recovered, so orders the
+     //journal shows as completed but the archive lost in a crash are added back.
+     //@param journal     The journal to restore from and write to, or null for memory only.
+     //@param policy      Ranks orders in the pending queue.
+     //@param idGenerator Hands out this node's order IDs; each node needs its own node ID.
+     //@param archive     The archive to append completed orders to, or null to keep none.
+
+    public OrderManager(OrderJournal journal, SchedulingPolicy policy, OrderIdGenerator idGenerator, OrderArchive archive) {
+        this.idGenerator = idGenerator;
+        this.archive = archive;
+        pendingCashierQueue = new PendingOrderQueue(policy);
+        registry = new OrderRegistry();
+        metrics = new PipelineMetrics(pendingCashierQueue::size, this::preparingCount);
+        this.journal = journal;
+        if (journal == null) {
+            checkpointExecutor = null;
+            return;
+        }
+        checkpointExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "order-journal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recover();
+    }
+
+
+     //Adds a new customer order to the pending queue. Cashiers only see it
+     //once it is on disk, so if this throws the order was not placed and the
+     //cart can be placed again without making a duplicate.
+     //@param customerOrder The order to be placed.
+     //@return The placed order with its new ID.
+     //@throws java.io.UncheckedIOException if the journal could not store it.
+     //@throws IllegalStateException if so many orders are open that no display code is free.
+
+    public Order placeOrder(Order customerOrder) {
+        // Create a unique order ID
+        long newOrderId = nextOrderId();
+        Order finalOrder = new Order(newOrderId, customerOrder.isPriority());
+
+        // Copy all items into the new order
+        for (int line = 0; line < customerOrder.getLineCount(); line++) {
+            finalOrder.addItem(customerOrder.getLineProduct(line), customerOrder.getLineQuantity(line));
+        }
+        // Durable before queued, so a cashier's RETRIEVED can never land ahead of PLACED
+        long seq = journalPlaced(finalOrder);
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            abandonPlaced(finalOrder);
+            throw e;
+        }
+        enqueuePlaced(finalOrder);
+        System.out.println("Order #" + finalOrder.getOrderId() + " placed. Priority: " + finalOrder.isPriority());
+        return finalOrder;
+    }
+
+     //Places many orders at once: one atomic step reserves their IDs, one
+     //locked section journals them, one wait covers the disk, and then the
+     //ones that made it to disk are queued together.
+     //Carts with no items or a quantity below 1 are rejected, and so is any
+     //order the journal could not store or no display code was free for
+     //(nobody has seen those, so they can be placed again); the rest are placed.
+     //@param carts The customer orders, in the order their IDs should go.
+     //@return One result per cart, in the same order.
+
+    public List<PlacementResult> placeOrders(Collection<Order> carts) {
+        List<PlacementResult> results = new ArrayList<>(carts.size());
+        List<Order> accepted = new ArrayList<>(carts.size());
+        for (Order cart : carts) {
+            String problem = checkCart(cart);
+            if (problem != null) {
+                results.add(PlacementResult.rejected(cart, problem));
+            } else {
+                accepted.add(cart);
+                results.add(null); // filled in below
+            }
+        }
+
+        // Reserve the whole block of IDs with one compare-and-set
+        long[] ids = new long[accepted.size()];
+        idGenerator.next(ids);
+        boolean replaced = false;
+        int claimed = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (registry.claimCode(ids[i])) {
+                ids[claimed++] = ids[i];
+                continue;
+            }
+            try {
+                ids[claimed++] = nextOrderId();
+                replaced = true;
+            } catch (IllegalStateException e) {
+                claimed--; // no code free; the carts past the claimed IDs are refused below
+            }
+        }
+        if (replaced) {
+            Arrays.sort(ids, 0, claimed); // Replacements are newer than the block
+        }
+        List<Order> placed = new ArrayList<>(claimed);
+        int[] resultIndex = new int[claimed]; // where each placed order's result is
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            Order cart = accepted.get(next);
+            if (next >= claimed) {
+                results.set(i, PlacementResult.rejected(cart, "Not placed, try again: too many open orders"));
+                next++;
+                continue;
+            }
+            Order order = new Order(ids[next], cart.isPriority());
+            for (int line = 0; line < cart.getLineCount(); line++) {
+                order.addItem(cart.getLineProduct(line), cart.getLineQuantity(line));
+            }
+            placed.add(order);
+            results.set(i, PlacementResult.placed(cart, order));
+            resultIndex[next] = i;
+            next++;
+        }
+        if (placed.isEmpty()) {
+            return results;
+        }
+
+        long[] seqs = new long[placed.size()];
+        journalLock.readLock().lock();
+        try {
+            for (int i = 0; i < placed.size(); i++) {
+                Order order = placed.get(i);
+                try {
+                    seqs[i] = journal(JournalEvent.PLACED, order);
+                    registry.register(order);
+                } catch (RuntimeException e) {
+                    registry.forget(order.getId()); // frees the claimed display code
+                    seqs[i] = -1;
+                }
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+
+        // The batch shares one fsync; after the first wait the others return at once
+        List<Order> stored = new ArrayList<>(placed.size());
+        for (int i = 0; i < placed.size(); i++) {
+            Order order = placed.get(i);
+            if (seqs[i] >= 0) {
+                try {
+                    awaitDurable(seqs[i]);
+                    stored.add(order);
+                    continue;
+                } catch (RuntimeException e) {
+                    abandonPlaced(order);
+                }
+            }
+            int at = resultIndex[i];
+            results.set(at, PlacementResult.rejected(results.get(at).getCart(), "Not stored, try again: the order journal failed"));
+        }
+        if (stored.isEmpty()) {
+            return results;
+        }
+
+        List<Order> queued = new ArrayList<>(stored.size());
+        for (Order order : stored) {
+            // It may have been cancelled by ID while the disk caught up
+            if (order.getStatus() == OrderStatus.PENDING) {
+                queued.add(order);
+            }
+        }
+        pendingCashierQueue.offerAll(queued);
+        for (Order order : stored) {
+            for (OrderListener listener : listeners) {
+                listener.orderPlaced(order);
+            }
+        }
+        System.out.println(stored.size() + " orders placed (#" + stored.get(0).getOrderId() + " to #" + stored.get(stored.size() - 1).getOrderId() + ").");
+        return results;
+    }
+
+
+     //Says what is wrong with a cart, or null if it can be placed.
+    private static String checkCart(Order cart) {
+        if (cart.getLineCount() == 0) {
+            return "Empty cart";
+        }
+        for (int line = 0; line < cart.getLineCount(); line++) {
+            if (cart.getLineQuantity(line) < 1) {
+                return "Quantity must be positive: " + cart.getLineProduct(line).getId();
+            }
+        }
+        return null;
+    }
+
+     //Gets the next order from the pending queue. If the RETRIEVED record
+     //cannot be journaled the order goes back in the queue and this throws.
+     //@return The next order or null if empty.
+    public Order retrieveNextOrder() {
+        Order next;
+        long seq = 0;
+        journalLock.readLock().lock();
+        try {
+            while ((next = pendingCashierQueue.poll()) != null) {
+                // Skip orders that were cancelled while we were polling
+                if (registry.transition(next, OrderStatus.PENDING, OrderStatus.AT_CASHIER)) {
+                    metrics.placedToRetrieved().record(next.markStage());
+                    try {
+                        seq = journal(JournalEvent.RETRIEVED, next);
+                    } catch (RuntimeException e) {
+                        requeue(next);
+                        throw e;
+                    }
+                    break;
+                }
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            // Nobody will get this order, so it must not stay at a cashier
+            requeue(next);
+            throw e;
+        }
+        if (next != null) {
+            for (OrderListener listener : listeners) {
+                listener.orderRetrieved(next);
+            }
+        }
+        return next;
+    }
+
+
+     //Undoes retrieveNextOrder's hand-over when it fails. Not journaled: a
+     //replay already sends orders that were at a cashier back to the queue.
+    private void requeue(Order order) {
+        if (registry.transition(order, OrderStatus.AT_CASHIER, OrderStatus.PENDING)) {
+            pendingCashierQueue.offer(order);
+        }
+    }
+
+
+     //Puts a retrieved order back in the pending queue, e.g. when the cashier
+     //it was handed to never received it. It keeps its place by priority and age.
+     //@param order The order, still at the cashier.
+     //@return true if it was queued again, false if it was not at the cashier.
+
+    public boolean returnToPending(Order order) {
+        if (order == null) {
+            return false;
+        }
+        long seq;
+        journalLock.readLock().lock();
+        try {
+            if (!registry.transition(order, OrderStatus.AT_CASHIER, OrderStatus.PENDING)) {
+                return false;
+            }
+            seq = journal(JournalEvent.RETURNED, order);
+            pendingCashierQueue.offer(order);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        awaitDurable(seq);
+        for (OrderListener listener : listeners) {
+            listener.orderReturned(order);
+        }
+        System.out.println("Order #" + order.getOrderId() + " returned to the pending queue.");
+        return true;
+    }
+
+
+     //Sends an order to the kitchen for preparation. If the journal cannot
+     //store the change the order stays at the cashier and this throws.
+     //@param order The order to prepare.
+     //@return true if the order was moved, false if it was not at the cashier.
+
+    public boolean sendOrderToPreparation(Order order) {
+        if (order == null) {
+            return false;
+        }
+        long seq;
+        journalLock.readLock().lock();
+        try {
+            if (!registry.transition(order, OrderStatus.AT_CASHIER, OrderStatus.PREPARING)) {
+                return false;
+            }
+            metrics.retrievedToPreparation().record(order.markStage());
+            synchronized (preparingOrders) {
+                preparingOrders.put(order.getId(), order);
+            }
+            try {
+                seq = journal(JournalEvent.SENT_TO_PREPARATION, order);
+            } catch (RuntimeException e) {
+                unsend(order);
+                throw e;
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            unsend(order);
+            throw e;
+        }
+        for (OrderListener listener : listeners) {
+            listener.orderSentToPreparation(order);
+        }
+        System.out.println("Order #" + order.getOrderId() + " moved to preparation.");
+        return true;
+    }
+
+
+     //Undoes sendOrderToPreparation when it fails: the order goes back to
+     //the cashier, unless something else has moved it since.
+    private void unsend(Order order) {
+        if (order.compareAndSetStatus(OrderStatus.PREPARING, OrderStatus.AT_CASHIER)) {
+            synchronized (preparingOrders) {
+                preparingOrders.remove(order.getId());
+            }
+        }
+    }
+
+
+     //Marks an order as done and removes it from the preparation list. If the
+     //journal cannot store the change the order stays in preparation (and out
+     //of the archive) and this throws.
+     //@param orderId The ID of the completed order.
+     //@return true if removed, false if not found.
+
+    public boolean completePreparation(long orderId) {
+        Order order = registry.find(orderId);
+        long completedMillis = System.currentTimeMillis();
+        long seq;
+        boolean archived;
+        journalLock.readLock().lock();
+        try {
+            if (order == null || !registry.transition(order, OrderStatus.PREPARING, OrderStatus.COMPLETED)) {
+                System.out.println("Order #" + Order.displayCode(orderId) + " not found in preparation queue.");
+                return false;
+            }
+            metrics.preparationToCompletion().record(order.markStage());
+            try {
+                seq = journal(JournalEvent.COMPLETED, order);
+            } catch (RuntimeException e) {
+                uncomplete(order, false);
+                throw e;
+            }
+            // Archived before the lock is released, so a checkpoint that drops
+            // this order from the journal finds it in the archive to force
+            archived = archive(order, completedMillis);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            uncomplete(order, archived);
+            throw e;
+        }
+        // Only now, so a failed completion leaves the list's order alone
+        synchronized (preparingOrders) {
+            preparingOrders.remove(orderId);
+        }
+        sales.record(order, completedMillis);
+        for (OrderListener listener : listeners) {
+            listener.orderCompleted(order);
+        }
+        registry.forget(orderId);
+        System.out.println("Order #" + order.getOrderId() + " completed and removed from preparation queue.");
+        return true;
+    }
+
+
+     //Undoes completePreparation when it fails: the order goes back to the
+     //kitchen, and out of the archive if it was added (possibly by a checkpoint
+     //retrying it). It is still in the preparation list, which
+     //completePreparation only leaves on success.
+    private void uncomplete(Order order, boolean archived) {
+        if (!order.compareAndSetStatus(OrderStatus.COMPLETED, OrderStatus.PREPARING)) {
+            return;
+        }
+        boolean waiting;
+        synchronized (unarchived) {
+            waiting = unarchived.removeIf(done -> done.getOrder() == order);
+        }
+        OrderArchive current = archive;
+        if (current != null && (archived || !waiting)) {
+            current.retract(order.getId());
+        }
+    }
+
+
+     //Adds a completed order to the archive, if there is one (caller holds the
+     //read lock). The order is already journaled as completed, so a failure
+     //does not fail the kitchen: the order waits in the unarchived list, and
+     //checkpoints retry it before they may drop its journal records.
+     //@return true if the order was archived.
+    private boolean archive(Order order, long completedMillis) {
+        OrderArchive current = archive;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.append(order, completedMillis);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Order #" + order.getOrderId() + " not archived yet: " + e.getMessage());
+            synchronized (unarchived) {
+                unarchived.add(new OrderJournal.CompletedOrder(order, completedMillis));
+            }
+            return false;
+        }
+    }
+
+
+     //Tries again to archive the completed orders the archive could not take.
+     //@return true if none are left waiting.
+    private boolean retryUnarchived() {
+        OrderArchive current = archive;
+        synchronized (unarchived) {
+            if (unarchived.isEmpty()) {
+                return true;
+            }
+            if (current == null) {
+                return false;
+            }
+            while (!unarchived.isEmpty()) {
+                OrderJournal.CompletedOrder done = unarchived.get(0);
+                Order order = done.getOrder();
+                if (current.findById(order.getId()) == null) {
+                    try {
+                        current.append(order, done.getCompletedMillis());
+                    } catch (IOException e) {
+                        System.err.println("Order #" + order.getOrderId() + " still not archived: " + e.getMessage());
+                        return false;
+                    }
+                }
+                unarchived.remove(0);
+            }
+            return true;
+        }
+    }
+
+
+     //Cancels an order that has not been completed yet. If the journal cannot
+     //store the change the order is put back where it was and this throws.
+     //@param orderId The ID of the order to cancel.
+     //@return true if cancelled, false if unknown or already finished.
+
+    public boolean cancelOrder(long orderId) {
+        Order order = registry.find(orderId);
+        if (order == null) {
+            return false;
+        }
+        long seq = 0;
+        OrderStatus previous = null;
+        journalLock.readLock().lock();
+        try {
+            OrderStatus current = order.getStatus();
+            while (current.canMoveTo(OrderStatus.CANCELLED)) {
+                if (registry.transition(order, current, OrderStatus.CANCELLED)) {
+                    // A preparing order leaves the list only on success, like in completePreparation
+                    if (current == OrderStatus.PENDING) {
+                        pendingCashierQueue.remove(order);
+                    }
+                    try {
+                        seq = journal(JournalEvent.CANCELLED, order);
+                    } catch (RuntimeException e) {
+                        uncancel(order, current);
+                        throw e;
+                    }
+                    previous = current;
+                    break;
+                }
+                current = order.getStatus();
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        if (previous == null) {
+            return false;
+        }
+        try {
+            awaitDurable(seq);
+        } catch (RuntimeException e) {
+            uncancel(order, previous);
+            throw e;
+        }
+        if (previous == OrderStatus.PREPARING) {
+            synchronized (preparingOrders) {
+                preparingOrders.remove(orderId);
+            }
+        }
+        for (OrderListener listener : listeners) {
+            listener.orderCancelled(order, previous);
+        }
+        registry.forget(orderId);
+        System.out.println("Order #" + order.getOrderId() + " cancelled.");
+        return true;
+    }
+
+
+     //Undoes cancelOrder when it fails: the order goes back to the state it
+     //was cancelled from, and a pending one back in the queue by priority and age.
+    private void uncancel(Order order, OrderStatus previous) {
+        if (order.compareAndSetStatus(OrderStatus.CANCELLED, previous) && previous == OrderStatus.PENDING) {
+            pendingCashierQueue.offer(order);
+        }
+    }
+
+
+     //Finds an open order.
+     //@param orderId The order ID.
+     //@return The order or null if unknown or already finished.
+    public Order findOrder(long orderId) {
+        return registry.find(orderId);
+    }
+
+
+     //Tells where an order is right now. Finished orders are remembered for
+     //a while (see OrderRegistry), then become unknown.
+     //@param orderId The order ID.
+     //@return The status or null if unknown.
+    public OrderStatus getOrderStatus(long orderId) {
+        return registry.statusOf(orderId);
+    }
+
+
+     //Counts the orders the manager is still tracking: open ones, plus any
+     //finished a moment ago whose listeners are still running.
+     //@return The number of tracked orders.
+    public int getTrackedOrderCount() {
+        return registry.size();
+    }
+
+
+      //Gets a copy of the orders currently in preparation, oldest first.
+      //@return List of preparing orders.
+    public List<Order> getPreparingOrders() {
+        synchronized (preparingOrders) {
+            return Collections.unmodifiableList(new ArrayList<>(preparingOrders.values()));
+        }
+    }
+
+    private int preparingCount() {
+        synchronized (preparingOrders) {
+            return preparingOrders.size();
+        }
+    }
+
+
+      //Gets a snapshot of the pending cashier queue, in service order.
+     //@return List of pending orders.
+
+    public List<Order> getPendingOrders() {
+        return Collections.unmodifiableList(pendingCashierQueue.snapshot());
+    }
+
+
+     //Starts telling a listener about order changes.
+     //@param listener The listener to add.
+    public void addOrderListener(OrderListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeOrderListener(OrderListener listener) {
+        listeners.remove(listener);
+    }
+
+
+     //Gets the pipeline latency histograms and queue-depth gauges.
+     //@return The metrics for this manager.
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+
+     //Gets the sales of every order completed since launch.
+     //@return The sales store for this manager.
+    public SalesStore getSales() {
+        return sales;
+    }
+
+
+     //Starts keeping every order completed from now on in an archive.
+     //@param archive The archive to append to, or null to stop.
+    public void setArchive(OrderArchive archive) {
+        this.archive = archive;
+    }
+
+    public OrderArchive getArchive() {
+        return archive;
+    }
+
+
+      //Checks if there are no orders waiting for the cashier.
+     //@return true if no pending orders.
+
+    public boolean isPendingCashierQueueEmpty() {
+        return pendingCashierQueue.isEmpty();
+    }
+
+
+     //Saves a snapshot of all open orders and drops the journal segments it replaces.
+     //Changes pause only while the open orders are copied and the journal moves
+     //to a new segment (which waits for the batch being synced, if any); the
+     //snapshot is written and fsynced after they resume.
+
+    public void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        if (!recovered) {
+            System.err.println("Order journal checkpoint skipped: the journal could not be read at startup, "
+                    + "so its old segments are kept. Restart once it can be read.");
+            return;
+        }
+        // One checkpoint at a time, so an older snapshot never lands after a newer one
+        synchronized (checkpointLock) {
+            retryUnarchived();
+            OrderJournal.Checkpoint started;
+            journalLock.writeLock().lock();
+            try {
+                // Checked under the lock: no completion can fail to archive meanwhile
+                int waiting;
+                synchronized (unarchived) {
+                    waiting = unarchived.size();
+                }
+                if (waiting > 0) {
+                    System.err.println("Order journal checkpoint skipped: " + waiting + " completed orders are not "
+                            + "archived yet, so the journal keeps them. The next checkpoint tries again.");
+                    return;
+                }
+                started = journal.startCheckpoint(registry.liveOrders(), idGenerator.lastIssued());
+                eventsSinceCheckpoint.set(0);
+            } catch (IOException e) {
+                System.err.println("Order journal checkpoint failed: " + e.getMessage());
+                return;
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+            // The snapshot leaves out completed orders and the old segments go
+            // next; the archive is then the only copy, so get it on disk first
+            OrderArchive current = archive;
+            if (current != null) {
+                current.force();
+            }
+            try {
+                journal.finishCheckpoint(started);
+            } catch (IOException e) {
+                System.err.println("Order journal checkpoint failed: " + e.getMessage());
+            }
+        }
+    }
+
+
+     //Says whether the journal was read at startup. If not, checkpoints are off
+     //until a restart reads it, so its orders are not lost.
+     //@return false if recovery failed.
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+
+     //Stops the metrics sampler, writes a final snapshot and closes the journal.
+
+    @Override
+    public void close() {
+        metrics.close();
+        if (journal == null) {
+            return;
+        }
+        checkpointExecutor.shutdown();
+        checkpoint();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing order journal: " + e.getMessage());
+        }
+    }
+
+
+     //IntakePipeline hooks: placeOrder's steps, split so each can run on its own stage thread.
+
+     //Takes a new ID whose display code no open order has, and claims the code.
+     //@throws IllegalStateException if nearly every display code is in use.
+    long nextOrderId() {
+        return registry.claimNewId(idGenerator);
+    }
+
+
+     //Journals a new order and registers it, so a checkpoint taken before it
+     //is queued still includes it. Cashiers cannot see it yet.
+     //@return The sequence to wait on before queueing.
+    long journalPlaced(Order order) {
+        journalLock.readLock().lock();
+        try {
+            long seq;
+            try {
+                seq = journal(JournalEvent.PLACED, order);
+            } catch (RuntimeException e) {
+                registry.forget(order.getId()); // frees the claimed display code
+                throw e;
+            }
+            registry.register(order);
+            return seq;
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+
+     //Hands a journaled order to the cashiers.
+    void enqueuePlaced(Order order) {
+        // It may have been cancelled by ID while waiting to be queued
+        if (order.getStatus() == OrderStatus.PENDING) {
+            pendingCashierQueue.offer(order);
+        }
+        for (OrderListener listener : listeners) {
+            listener.orderPlaced(order);
+        }
+    }
+
+
+     //Takes back a journaled order whose PLACED record did not become durable.
+     //No cashier or listener has seen it, so it is cancelled quietly; the
+     //CANCELLED record keeps a replay from reviving it if PLACED reached the
+     //disk after all.
+    void abandonPlaced(Order order) {
+        journalLock.readLock().lock();
+        try {
+            if (registry.transition(order, OrderStatus.PENDING, OrderStatus.CANCELLED)) {
+                try {
+                    journal(JournalEvent.CANCELLED, order);
+                } catch (RuntimeException e) {
+                    // The journal is already failing; the order is gone from memory either way
+                }
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        registry.forget(order.getId());
+    }
+
+
+     //Appends an event to the journal (caller holds the read lock).
+     //@return The sequence to wait on, or 0 when not journaling.
+    private long journal(JournalEvent event, Order order) {
+        if (journal == null) {
+            return 0;
+        }
+        long seq = journal.append(event, order);
+        if (eventsSinceCheckpoint.incrementAndGet() >= EVENTS_PER_CHECKPOINT
+                && checkpointScheduled.compareAndSet(false, true)) {
+            checkpointExecutor.execute(() -> {
+                try {
+                    checkpoint();
+                } finally {
+                    checkpointScheduled.set(false);
+                }
+            });
+        }
+        return seq;
+    }
+
+    void awaitDurable(long seq) {
+        if (seq != 0) {
+            journal.awaitDurable(seq);
+        }
+    }
+
+
+     //Puts back the open orders found in the journal.
+     //Orders that were at a cashier go back to the pending queue, since that
+     //cashier's screen is gone.
+    private void recover() {
+        OrderJournal.RecoveredState state;
+        try {
+            state = journal.recover();
+        } catch (IOException e) {
+            // Keep going so orders can still be taken, but never checkpoint: that
+            // would drop whatever could not be read. New events go to a new segment,
+            // so a restart after the problem is fixed replays everything.
+            recovered = false;
+            System.err.println("Could not read order journal, starting empty without checkpoints: " + e.getMessage());
+            return;
+        }
+        for (Order order : state.getLiveOrders()) {
+            if (order.getStatus() == OrderStatus.AT_CASHIER) {
+                order.compareAndSetStatus(OrderStatus.AT_CASHIER, OrderStatus.PENDING);
+            }
+            registry.register(order);
+            if (order.getStatus() == OrderStatus.PREPARING) {
+                preparingOrders.put(order.getId(), order);
+            } else {
+                pendingCashierQueue.offer(order);
+            }
+        }
+        // Never hand out an ID that is already in the journal
+        idGenerator.advancePast(state.getMaxOrderId());
+        System.out.println("Recovered " + state.getLiveOrders().size() + " open orders from the journal.");
+        rearchive(state.getCompletedOrders());
+        // Fold the replayed tail into a snapshot so the next start is short too;
+        // it archives the orders above first, and is skipped while any fail
+        checkpoint();
+    }
+
+
+     //Queues the orders the replayed journal completed that the archive does
+     //not have: a crash can come before the archive reaches the disk, and the
+     //recovery checkpoint would otherwise drop them from the journal.
+    private void rearchive(List<OrderJournal.CompletedOrder> completed) {
+        OrderArchive current = archive;
+        if (current == null) {
+            return;
+        }
+        int missing = 0;
+        synchronized (unarchived) {
+            for (OrderJournal.CompletedOrder done : completed) {
+                if (current.findById(done.getOrder().getId()) == null) {
+                    unarchived.add(done);
+                    missing++;
+                }
+            }
+        }
+        if (missing > 0) {
+            System.out.println("Archiving " + missing + " completed orders the archive was missing.");
+        }
+    }
+}
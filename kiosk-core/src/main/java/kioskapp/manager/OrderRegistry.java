@@ -0,0 +1,139 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+ //Index of the orders the manager is working on, keyed by their numeric ID.
+ //Answers "where is order 1234 right now?" in O(1) and makes state changes
+ //atomic per order.
+ //
+ //Finished orders are forgotten once the manager is done with them, so the
+ //index only grows with the open orders. The final status of the most
+ //recently finished ones is kept a while longer for statusOf().
+ //
+ //The registry also owns the display codes (Order.displayCode) of the open
+ //orders, so a new order never gets a code that is already on the board.
+public class OrderRegistry {
+    // How many finished orders statusOf() still knows about
+    static final int RECENTLY_FINISHED = 4096;
+    // New IDs tried before giving up on finding a free display code. Codes are
+    // only 20 bits, so with nearly every code on the board this fails instead
+    // of spinning; below about 90% in use it practically never does.
+    static final int CODE_ATTEMPTS = 128;
+
+    private final ConcurrentHashMap<Long, Order> ordersById = new ConcurrentHashMap<>();
+    // Display code bits -> the open (or about to be placed) order that has them
+    private final ConcurrentHashMap<Integer, Long> codes = new ConcurrentHashMap<>();
+    // Final status of recently forgotten orders, oldest first (guarded by itself)
+    private final Map<Long, OrderStatus> finished = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, OrderStatus> eldest) {
+            return size() > RECENTLY_FINISHED;
+        }
+    };
+
+
+     //Starts tracking a freshly placed order. Its code is normally claimed
+     //already; orders restored from an old journal may share one.
+     //@param order The order (status PENDING).
+    public void register(Order order) {
+        codes.putIfAbsent(Order.displayCodeBits(order.getId()), order.getId());
+        ordersById.put(order.getId(), order);
+    }
+
+
+     //Reserves an ID's display code for an order about to be placed.
+     //@param orderId A new order ID.
+     //@return false if an open order already shows the same code.
+    public boolean claimCode(long orderId) {
+        Long holder = codes.putIfAbsent(Order.displayCodeBits(orderId), orderId);
+        return holder == null || holder == orderId;
+    }
+
+
+     //Takes new IDs until one has a display code no open order shows, and claims it.
+     //@param idGenerator Hands out the IDs to try.
+     //@return The new ID.
+     //@throws IllegalStateException if nearly every display code is in use.
+    public long claimNewId(OrderIdGenerator idGenerator) {
+        for (int attempt = 0; attempt < CODE_ATTEMPTS; attempt++) {
+            long id = idGenerator.next();
+            if (claimCode(id)) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("No free order code: too many open orders (" + codes.size() + ")");
+    }
+
+
+     //Finds an order by ID.
+     //@param orderId The order ID.
+     //@return The order or null if unknown.
+    public Order find(long orderId) {
+        return ordersById.get(orderId);
+    }
+
+
+     //Gets the current status of an order, or the final status of one that
+     //finished recently.
+     //@param orderId The order ID.
+     //@return The status or null if unknown.
+    public OrderStatus statusOf(long orderId) {
+        Order order = ordersById.get(orderId);
+        if (order != null) {
+            return order.getStatus();
+        }
+        synchronized (finished) {
+            return finished.get(orderId);
+        }
+    }
+
+
+     //Moves an order from one state to another if it is still in the expected state.
+     //@param order    The order.
+     //@param expected The state it must be in now.
+     //@param next     The state to move to.
+     //@return true if this call made the change.
+    public boolean transition(Order order, OrderStatus expected, OrderStatus next) {
+        return expected.canMoveTo(next) && order.compareAndSetStatus(expected, next);
+    }
+
+
+     //Stops tracking an order once it is completed or cancelled (or was
+     //never placed), freeing its display code.
+     //@param orderId The order ID.
+    public void forget(long orderId) {
+        codes.remove(Order.displayCodeBits(orderId), orderId);
+        Order order = ordersById.remove(orderId);
+        if (order != null) {
+            synchronized (finished) {
+                finished.put(orderId, order.getStatus());
+            }
+        }
+    }
+
+     //Collects every order that is not completed or cancelled yet.
+     //@return The open orders, in no particular order.
+    public List<Order> liveOrders() {
+        List<Order> live = new ArrayList<>();
+        for (Order order : ordersById.values()) {
+            OrderStatus status = order.getStatus();
+            if (status != OrderStatus.COMPLETED && status != OrderStatus.CANCELLED) {
+                live.add(order);
+            }
+        }
+        return live;
+    }
+
+    // Number of orders being tracked (not counting the recently finished)
+    public int size() {
+        return ordersById.size();
+    }
+}
@@ -0,0 +1,111 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+ //Thread-safe queue of orders waiting for the cashier.
+ //Orders sit in one lock-free skip list sorted by the rank a SchedulingPolicy
+ //gave them, so kiosks and cashiers on different threads never block each
+ //other and every operation is O(log n).
+public class PendingOrderQueue {
+    // The order the cashier gets orders in: lowest rank first, the ID breaks ties
+    // so no two orders are "equal". Views that show the queue sort with this so
+    // they match poll().
+    public static final Comparator<Order> SERVICE_ORDER =
+            Comparator.comparingLong(Order::getScheduleRank).thenComparingLong(Order::getId);
+
+    private final SchedulingPolicy policy;
+    private final ConcurrentSkipListSet<Order> orders = new ConcurrentSkipListSet<>(SERVICE_ORDER);
+    // Skip list size() walks the whole list, so keep our own count
+    private final AtomicInteger size = new AtomicInteger();
+
+
+     //Creates a queue where priority orders always go first.
+    public PendingOrderQueue() {
+        this(SchedulingPolicy.strictPriority());
+    }
+
+
+     //Creates a queue that serves orders in the policy's order.
+     //@param policy Ranks each order as it is queued.
+    public PendingOrderQueue(SchedulingPolicy policy) {
+        this.policy = policy;
+    }
+
+
+     //Adds an order at the place its rank puts it.
+     //@param order The order to add.
+    public void offer(Order order) {
+        rank(order);
+        if (orders.add(order)) {
+            size.incrementAndGet();
+        }
+    }
+
+
+     //Adds many orders with one update of the shared size.
+     //@param orders The orders to add.
+    public void offerAll(List<Order> orders) {
+        int added = 0;
+        for (Order order : orders) {
+            rank(order);
+            if (this.orders.add(order)) {
+                added++;
+            }
+        }
+        size.addAndGet(added);
+    }
+
+
+     //Takes the next order to serve.
+     //@return The lowest-ranked order or null if the queue is empty.
+    public Order poll() {
+        Order next = orders.pollFirst();
+        if (next != null) {
+            size.decrementAndGet();
+        }
+        return next;
+    }
+
+
+     //Removes a specific order (e.g. when it is cancelled).
+     //@param order The order to remove.
+     //@return true if it was still waiting.
+    public boolean remove(Order order) {
+        if (order.getScheduleRank() != Order.UNRANKED && orders.remove(order)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+
+     //Copies the waiting orders in the order the cashier will get them.
+     //@return List of pending orders in service order.
+    public List<Order> snapshot() {
+        return new ArrayList<>(orders);
+    }
+
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+
+     //Ranks an order the first time it is queued. The rank is its key in the
+     //skip list, so it must never change while the order is in there.
+    private void rank(Order order) {
+        if (order.getScheduleRank() == Order.UNRANKED) {
+            order.setScheduleRank(policy.rank(order));
+        }
+    }
+}
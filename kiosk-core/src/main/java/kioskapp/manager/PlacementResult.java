@@ -0,0 +1,49 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+
+
+ //What happened to one cart in OrderManager.placeOrders().
+public class PlacementResult {
+    private final Order cart;
+    private final Order order;
+    private final String error;
+
+    private PlacementResult(Order cart, Order order, String error) {
+        this.cart = cart;
+        this.order = order;
+        this.error = error;
+    }
+
+    static PlacementResult placed(Order cart, Order order) {
+        return new PlacementResult(cart, order, null);
+    }
+
+    static PlacementResult rejected(Order cart, String error) {
+        return new PlacementResult(cart, null, error);
+    }
+
+    // The cart that was passed in
+    public Order getCart() {
+        return cart;
+    }
+
+    public boolean isPlaced() {
+        return order != null;
+    }
+
+    // The placed order with its new ID, or null if the cart was rejected
+    public Order getOrder() {
+        return order;
+    }
+
+    // Why the cart was rejected (invalid, or not stored by the journal), or null if it was placed
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isPlaced() ? "placed #" + order.getOrderId() : "rejected: " + error;
+    }
+}
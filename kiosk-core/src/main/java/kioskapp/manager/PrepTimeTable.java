@@ -0,0 +1,44 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+ //How long the kitchen usually takes per item of each product.
+ //Used by SchedulingPolicy.prepTimeFirst to serve quick orders sooner.
+public class PrepTimeTable {
+    // Normalized product ID -> nanoseconds per item
+    private final Map<String, Long> perItemNanos = new ConcurrentHashMap<>();
+    private final long fallbackNanos;
+
+
+     //@param fallback Prep time per item for products with no estimate.
+    public PrepTimeTable(Duration fallback) {
+        this.fallbackNanos = fallback.toNanos();
+    }
+
+
+     //Sets a product's prep time per item.
+     //@param productId The product ID (any letter case).
+     //@param perItem How long one item takes.
+    public void set(String productId, Duration perItem) {
+        perItemNanos.put(productId.toUpperCase(Locale.ROOT), perItem.toNanos());
+    }
+
+
+     //Estimates an order's prep time as the sum of its items' prep times.
+     //@param order The order.
+     //@return Estimated nanoseconds.
+    public long estimateNanos(Order order) {
+        long total = 0;
+        for (int line = 0; line < order.getLineCount(); line++) {
+            String key = order.getLineProduct(line).getId().toUpperCase(Locale.ROOT);
+            total += perItemNanos.getOrDefault(key, fallbackNanos) * order.getLineQuantity(line);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,22 @@
+package kioskapp.manager;
+
+import kioskapp.model.Product;
+
+
+ //Gets told about catalog changes made through ProductManager.
+ //Methods run on the thread that made the change, in the order the changes
+ //happened, while the manager is still locked; keep them short.
+public interface ProductListener {
+
+    // A new product was added
+    default void productAdded(Product product) {
+    }
+
+    // A product was replaced by a new version with the same ID
+    default void productUpdated(Product oldProduct, Product newProduct) {
+    }
+
+    // A product was deleted
+    default void productRemoved(Product product) {
+    }
+}
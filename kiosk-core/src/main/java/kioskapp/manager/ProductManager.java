@@ -0,0 +1,293 @@
+package kioskapp.manager;
+
+import kioskapp.model.Product;
+import kioskapp.storage.CatalogFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+    //Handles product data in the kiosk.
+    //Screens that need to follow changes register a ProductListener.
+    //
+    //The product list is an immutable snapshot that every change replaces (copy
+    //on write), so kiosks, cashiers and the intake server read it without locks.
+    //Lookups by ID go through a concurrent index that changes patch in place:
+    //adding, editing or deleting one product copies the list array and touches
+    //one index entry, rather than rebuilding the index. A delete shifts the
+    //later products left without re-indexing them, so an entry's position is
+    //only where the product was last seen; edits look from there back down.
+    //The index is patched just before the new list is published, so a lookup
+    //may see a change a moment before getAllProducts() does. Changes are rare
+    //(admin edits, menu file reloads) and take turns on this object's lock.
+    //
+    //Every change is a new catalog version. New and edited products are
+    //stored as Product versions stamped with it, so orders keep the exact
+    //version they were placed with however the menu changes later. A version
+    //only gets a ProductTable entry once an order uses it, so edits nobody
+    //orders in between leave nothing behind.
+
+public class ProductManager {
+    // The current product list; never changed in place, only swapped for a new one
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Normalized ID -> product and its place in the list; written only under this object's lock
+    private final ConcurrentHashMap<String, Indexed> index = new ConcurrentHashMap<>();
+    // Told about every change
+    private final List<ProductListener> listeners = new CopyOnWriteArrayList<>();
+
+
+     //Adds a new product at the end of the list.
+      //@param product The product to add.
+      //@throws IllegalArgumentException if the ID is taken, or the ID or name could not be saved in the menu file.
+    public synchronized void addProduct(Product product) {
+        CatalogFile.checkId(product.getId());
+        CatalogFile.checkName(product.getName());
+        Snapshot current = snapshot;
+        String key = key(product.getId());
+        if (index.containsKey(key)) {
+            throw new IllegalArgumentException("Duplicate product ID: " + product.getId());
+        }
+        long version = current.version + 1;
+        Product added = stamp(product, version);
+        Product[] products = Arrays.copyOf(current.array, current.array.length + 1);
+        products[current.array.length] = added;
+        index.put(key, new Indexed(added, current.array.length));
+        snapshot = new Snapshot(products, version);
+        for (ProductListener listener : listeners) {
+            listener.productAdded(added);
+        }
+    }
+
+
+     //Finds a product by its ID.
+     //@param id The product ID.
+     //@return The matching product or null.
+
+    public Product getProductById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Indexed entry = index.get(key(id));
+        return entry == null ? null : entry.product;
+    }
+
+
+
+     //Updates a product if it exists.
+     //@param updatedProduct The product with new details.
+     //@return true if updated, false if not found.
+     //@throws IllegalArgumentException if the new name could not be saved in the menu file.
+
+    public synchronized boolean updateProduct(Product updatedProduct) {
+        CatalogFile.checkName(updatedProduct.getName());
+        Snapshot current = snapshot;
+        String key = key(updatedProduct.getId());
+        Indexed old = index.get(key);
+        if (old == null) {
+            return false;
+        }
+        Product oldProduct = old.product;
+        if (oldProduct.sameDetails(updatedProduct)) {
+            return true; // nothing changed, so no new version
+        }
+        long version = current.version + 1;
+        Product newProduct = stamp(updatedProduct, version);
+        int position = positionOf(current.array, old);
+        Product[] products = current.array.clone();
+        products[position] = newProduct;
+        index.put(key, new Indexed(newProduct, position));
+        snapshot = new Snapshot(products, version);
+        for (ProductListener listener : listeners) {
+            listener.productUpdated(oldProduct, newProduct);
+        }
+        return true;
+    }
+
+
+      //Removes a product by its ID.
+     //@param id The ID of the product to delete.
+     //@return true if removed, false otherwise.
+
+    public synchronized boolean deleteProduct(String id) {
+        Snapshot current = snapshot;
+        Indexed entry = id == null ? null : index.get(key(id));
+        if (entry == null) {
+            return false;
+        }
+        Product removed = entry.product;
+        int position = positionOf(current.array, entry);
+        Product[] products = new Product[current.array.length - 1];
+        System.arraycopy(current.array, 0, products, 0, position);
+        System.arraycopy(current.array, position + 1, products, position, products.length - position);
+        // The products after it move left but keep their entries (see positionOf)
+        index.remove(key(id));
+        snapshot = new Snapshot(products, current.version + 1);
+        for (ProductListener listener : listeners) {
+            listener.productRemoved(removed);
+        }
+        return true;
+    }
+
+
+     //Makes the catalog match a complete product list, e.g. a reloaded menu
+     //file. Products whose name and price did not change keep their current
+     //object, and listeners only hear about the entries that changed.
+     //@param latest The whole catalog, in display order; IDs must be unique.
+     //@return How many products were added, updated or removed.
+     //@throws IllegalArgumentException on a duplicate ID, or an ID or name the menu file could not hold.
+
+    public synchronized int replaceAll(Collection<Product> latest) {
+        Snapshot current = snapshot;
+        Map<String, Product> wanted = new LinkedHashMap<>();
+        for (Product product : latest) {
+            CatalogFile.checkId(product.getId());
+            CatalogFile.checkName(product.getName());
+            if (wanted.put(key(product.getId()), product) != null) {
+                throw new IllegalArgumentException("Duplicate product ID: " + product.getId());
+            }
+        }
+
+        List<Product> removed = new ArrayList<>();
+        for (Product old : current.products) {
+            if (!wanted.containsKey(key(old.getId()))) {
+                removed.add(old);
+            }
+        }
+        long version = current.version + 1;
+        Product[] products = new Product[wanted.size()];
+        int position = 0;
+        List<Product[]> updated = new ArrayList<>();
+        List<Product> added = new ArrayList<>();
+        for (Map.Entry<String, Product> entry : wanted.entrySet()) {
+            Product product = entry.getValue();
+            Indexed indexed = index.get(entry.getKey());
+            Product old = indexed == null ? null : indexed.product;
+            if (old == null) {
+                product = stamp(product, version);
+                added.add(product);
+            } else if (old.sameDetails(product)) {
+                product = old;
+            } else {
+                product = stamp(product, version);
+                updated.add(new Product[]{old, product});
+            }
+            products[position++] = product;
+        }
+        if (removed.isEmpty() && updated.isEmpty() && added.isEmpty()) {
+            return 0;
+        }
+
+        for (Product product : removed) {
+            index.remove(key(product.getId()));
+        }
+        for (int i = 0; i < products.length; i++) {
+            index.put(key(products[i].getId()), new Indexed(products[i], i));
+        }
+        snapshot = new Snapshot(products, version);
+        for (ProductListener listener : listeners) {
+            for (Product product : removed) {
+                listener.productRemoved(product);
+            }
+            for (Product[] change : updated) {
+                listener.productUpdated(change[0], change[1]);
+            }
+            for (Product product : added) {
+                listener.productAdded(product);
+            }
+        }
+        return removed.size() + updated.size() + added.size();
+    }
+
+
+     //The catalog version: goes up by one with every change.
+     //@return The current version (0 for an empty, never changed catalog).
+
+    public long getCatalogVersion() {
+        return snapshot.version;
+    }
+
+
+     //Returns all products. The list is the current snapshot itself: it never
+     //changes, so there is nothing to copy.
+     //@return The products at this moment (read-only).
+
+    public List<Product> getAllProducts() {
+        return snapshot.products;
+    }
+
+
+     //Starts telling a listener about catalog changes.
+     //@param listener The listener to add.
+
+    public void addProductListener(ProductListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeProductListener(ProductListener listener) {
+        listeners.remove(listener);
+    }
+
+
+     //Makes the stored copy of a product for a catalog version. Not interned:
+     //the first order line for it does that, so the copy becomes the shared one.
+    private static Product stamp(Product product, long version) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), version);
+    }
+
+
+     //Finds an indexed product in the list. Deletes only ever move products
+     //left of their recorded position, so the search starts there and goes down;
+     //it is one step unless products before it were deleted since it was indexed.
+    private static int positionOf(Product[] array, Indexed entry) {
+        for (int i = Math.min(entry.position, array.length - 1); i >= 0; i--) {
+            if (array[i] == entry.product) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Product " + entry.product.getId() + " is indexed but not listed");
+    }
+
+
+     //IDs are matched without caring about letter case.
+
+    private static String key(String id) {
+        return id.toUpperCase(Locale.ROOT);
+    }
+
+
+     //One version of the product list, in display order. Built once and never changed.
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Product[0], 0);
+
+        final Product[] array;
+        final List<Product> products; // read-only view of array
+        final long version;
+
+        Snapshot(Product[] array, long version) {
+            this.array = array;
+            this.products = Collections.unmodifiableList(Arrays.asList(array));
+            this.version = version;
+        }
+    }
+
+
+     //An index entry: the current product for an ID and where it was in the
+     //list when indexed (it may have moved left since; see positionOf).
+    private static final class Indexed {
+        final Product product;
+        final int position;
+
+        Indexed(Product product, int position) {
+            this.product = product;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package kioskapp.manager;
+
+import kioskapp.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+ //Typeahead search over the catalog: finds products whose ID or name has
+ //words starting with what the customer typed.
+ //
+ //Product IDs and names are split into lowercase words ("Chickenjoy 1pc Meal"
+ //-> chickenjoy, 1pc, meal) and every word goes into a trie. Each trie node
+ //keeps the set of products with a word under it, so a prefix is found by
+ //walking one node per typed character. A query of several words ("chick
+ //meal") returns the products that match all of them.
+ //
+ //The index follows the ProductManager as a listener, so catalog changes
+ //only touch the words of the product that changed.
+public class ProductSearchIndex implements ProductListener {
+    private final Node root = new Node();
+    // Words each indexed product was filed under, by product key, so removal finds them
+    private final Map<String, List<String>> wordsByKey = new HashMap<>();
+
+
+     //Indexes the catalog and starts following its changes.
+     //@param productManager The catalog to index.
+    public ProductSearchIndex(ProductManager productManager) {
+        // Listen first, then copy, so nothing added in between is missed
+        productManager.addProductListener(this);
+        for (Product product : productManager.getAllProducts()) {
+            productAdded(product);
+        }
+    }
+
+
+     //Finds the products matching every word of a query.
+     //@param query What the customer typed; case and punctuation are ignored.
+     //@return The matching products (all of them for a blank query). Products
+     //        are equal by ID, so this can be checked with contains().
+    public synchronized Set<Product> search(String query) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return new HashSet<>(root.products);
+        }
+        // Start from the smallest candidate set, then keep only what every word matches
+        List<Set<Product>> matches = new ArrayList<>(words.size());
+        for (String word : words) {
+            Node node = root.find(word);
+            if (node == null) {
+                return new HashSet<>();
+            }
+            matches.add(node.products);
+        }
+        matches.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Product> result = new HashSet<>(matches.get(0));
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return root.products.size();
+    }
+
+    @Override
+    public synchronized void productAdded(Product product) {
+        // The constructor's copy may repeat a product the listener already saw
+        remove(product);
+        add(product);
+    }
+
+    @Override
+    public synchronized void productUpdated(Product oldProduct, Product newProduct) {
+        remove(oldProduct);
+        add(newProduct);
+    }
+
+    @Override
+    public synchronized void productRemoved(Product product) {
+        remove(product);
+    }
+
+    private void add(Product product) {
+        List<String> words = words(product.getId() + " " + product.getName());
+        wordsByKey.put(key(product), words);
+        root.products.add(product);
+        for (String word : words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+                node.products.add(product);
+            }
+        }
+    }
+
+    private void remove(Product product) {
+        List<String> words = wordsByKey.remove(key(product));
+        if (words == null) {
+            return;
+        }
+        // The product leaves every node on every one of its words' paths
+        root.products.remove(product);
+        for (String word : words) {
+            root.remove(word, 0, product);
+        }
+    }
+
+    private static String key(Product product) {
+        return product.getId().toUpperCase(Locale.ROOT);
+    }
+
+
+     //Splits text into lowercase words of letters and digits.
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+
+     //One trie node: the products with a word that starts with the path to here.
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final Set<Product> products = new HashSet<>();
+
+        Node find(String word) {
+            Node node = this;
+            for (int i = 0; i < word.length() && node != null; i++) {
+                node = node.children.get(word.charAt(i));
+            }
+            return node;
+        }
+
+
+         //Takes a product out of this node and the path below it, dropping
+         //nodes nothing passes through any more.
+        void remove(String word, int depth, Product product) {
+            products.remove(product);
+            if (depth == word.length()) {
+                return;
+            }
+            Node child = children.get(word.charAt(depth));
+            if (child == null) {
+                return;
+            }
+            child.remove(word, depth + 1, product);
+            if (child.products.isEmpty()) {
+                children.remove(word.charAt(depth));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+
+import java.time.Duration;
+import java.util.Locale;
+
+
+ //Decides the order cashiers take pending orders in.
+ //
+ //The policy gives each order a rank once, when it is queued; the queue keeps
+ //orders sorted by rank (then ID) in a skip list, so every offer, poll and
+ //remove stays O(log n) whatever the policy.
+ //
+ //Ranks are arrival times shifted by a bonus or penalty. Because everyone's
+ //wait grows at the same rate, a fixed shift is the same as aging: a normal
+ //order that has waited longer than a priority order's credit is served
+ //before it, so no order can be passed over forever.
+@FunctionalInterface
+public interface SchedulingPolicy {
+    // Priority head start the launchers use unless told otherwise
+    Duration DEFAULT_CREDIT = Duration.ofMinutes(5);
+    // Prep time per item the "prep" setting assumes for every product
+    Duration DEFAULT_PREP_PER_ITEM = Duration.ofMinutes(1);
+
+     //Ranks an order; lower ranks are served first, ties by lower order ID.
+     //@param order The order being queued.
+     //@return Its rank.
+    long rank(Order order);
+
+
+     //Priority orders always go before normal orders (the original behavior).
+     //Normal orders can wait forever while priority orders keep coming.
+    static SchedulingPolicy strictPriority() {
+        // Far more than any real wait, but small enough not to overflow epoch nanos
+        long credit = 1L << 62;
+        return order -> order.isPriority() ? order.getOrderTimeNanos() - credit : order.getOrderTimeNanos();
+    }
+
+
+     //Priority orders are served as if they had arrived `credit` earlier.
+     //@param credit Head start for priority orders; also the longest a normal
+     //              order can be held back by priority orders arriving after it.
+    static SchedulingPolicy aging(Duration credit) {
+        long creditNanos = credit.toNanos();
+        return order -> order.isPriority() ? order.getOrderTimeNanos() - creditNanos : order.getOrderTimeNanos();
+    }
+
+
+     //Aging plus shortest-prep-time-first: every order is pushed back by its
+     //estimated prep time times `weight`, so quick orders overtake slow ones
+     //that arrived only a little before them. Since estimates are bounded, a
+     //slow order is only ever held back by a bounded amount.
+     //@param prepTimes Per-product prep estimates.
+     //@param credit Head start for priority orders.
+     //@param weight How much one nanosecond of prep time counts against one of waiting.
+    static SchedulingPolicy prepTimeFirst(PrepTimeTable prepTimes, Duration credit, double weight) {
+        SchedulingPolicy aging = aging(credit);
+        return order -> aging.rank(order) + (long) (weight * prepTimes.estimateNanos(order));
+    }
+
+
+     //Reads a policy from a launcher setting: "strict", "aging" (with
+     //DEFAULT_CREDIT), "aging:<seconds>", "prep" or "prep:<seconds>". The prep
+     //policies have no per-product estimates here, so every item counts
+     //DEFAULT_PREP_PER_ITEM and orders with fewer items go sooner.
+     //@param setting The setting; null or blank means "aging".
+     //@return The policy.
+     //@throws IllegalArgumentException if the setting is none of those.
+    static SchedulingPolicy parse(String setting) {
+        return parse(setting, new PrepTimeTable(DEFAULT_PREP_PER_ITEM));
+    }
+
+
+     //Reads a policy from a launcher setting, like parse(String), with the
+     //given estimates for "prep" and "prep:<seconds>" (weight 1).
+     //@param setting The setting; null or blank means "aging".
+     //@param prepTimes Per-product prep estimates.
+     //@return The policy.
+     //@throws IllegalArgumentException if the setting is none of those.
+    static SchedulingPolicy parse(String setting, PrepTimeTable prepTimes) {
+        if (setting == null || setting.isBlank()) {
+            return aging(DEFAULT_CREDIT);
+        }
+        String value = setting.strip().toLowerCase(Locale.ROOT);
+        if (value.equals("strict")) {
+            return strictPriority();
+        }
+        if (value.equals("aging")) {
+            return aging(DEFAULT_CREDIT);
+        }
+        if (value.equals("prep")) {
+            return prepTimeFirst(prepTimes, DEFAULT_CREDIT, 1.0);
+        }
+        Duration credit = parseCredit(value, "aging:");
+        if (credit != null) {
+            return aging(credit);
+        }
+        credit = parseCredit(value, "prep:");
+        if (credit != null) {
+            return prepTimeFirst(prepTimes, credit, 1.0);
+        }
+        throw new IllegalArgumentException("Unknown scheduling policy \"" + setting
+                + "\" (use strict, aging, aging:<seconds>, prep or prep:<seconds>)");
+    }
+
+
+     //Reads the head start from "<prefix><seconds>".
+     //@return The head start, or null if value is not of that form.
+    private static Duration parseCredit(String value, String prefix) {
+        if (!value.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            long seconds = Long.parseLong(value.substring(prefix.length()));
+            return seconds >= 0 ? Duration.ofSeconds(seconds) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
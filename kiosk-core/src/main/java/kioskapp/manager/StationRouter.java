@@ -0,0 +1,35 @@
+package kioskapp.manager;
+
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+ //Decides which kitchen station makes each product.
+ //Products without a route go to the fallback station.
+public class StationRouter {
+    // Normalized product ID -> station
+    private final Map<String, Station> routes = new ConcurrentHashMap<>();
+    private final Station fallback;
+
+
+     //@param fallback Station for products that have no route.
+    public StationRouter(Station fallback) {
+        this.fallback = fallback;
+    }
+
+
+     //Sends a product to a station from now on.
+     //@param productId The product ID (any letter case).
+     //@param station The station that makes it.
+    public void route(String productId, Station station) {
+        routes.put(productId.toUpperCase(Locale.ROOT), station);
+    }
+
+    public Station stationFor(Product product) {
+        return routes.getOrDefault(product.getId().toUpperCase(Locale.ROOT), fallback);
+    }
+}
@@ -0,0 +1,161 @@
+package kioskapp.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+
+ //Latency histograms for each stage of the order pipeline, plus rolling
+ //queue-depth gauges. Recording is lock-free, so the managers can call it on
+ //every order without slowing down.
+public class PipelineMetrics implements AutoCloseable {
+    // Gauges keep 5 minutes of once-per-second samples
+    private static final int GAUGE_WINDOW_SECONDS = 300;
+    // One sampler thread shared by every PipelineMetrics in the JVM
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pipeline-metrics-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LatencyHistogram placedToRetrieved = new LatencyHistogram();
+    private final LatencyHistogram retrievedToPreparation = new LatencyHistogram();
+    private final LatencyHistogram preparationToCompletion = new LatencyHistogram();
+    private final RollingGauge pendingDepth;
+    private final RollingGauge preparingDepth;
+    private final ScheduledFuture<?> sampling;
+
+
+     //Creates the metrics and starts sampling the queue depths once a second.
+     //@param pendingSize   Reads how many orders wait for a cashier.
+     //@param preparingSize Reads how many orders are in the kitchen.
+    public PipelineMetrics(IntSupplier pendingSize, IntSupplier preparingSize) {
+        pendingDepth = new RollingGauge("Pending (cashier queue)", pendingSize, GAUGE_WINDOW_SECONDS);
+        preparingDepth = new RollingGauge("Preparing (kitchen)", preparingSize, GAUGE_WINDOW_SECONDS);
+        SampleTask task = new SampleTask(this);
+        sampling = SAMPLER.scheduleAtFixedRate(task, 1, 1, TimeUnit.SECONDS);
+        task.sampling = sampling;
+    }
+
+    private void sample() {
+        pendingDepth.sample();
+        preparingDepth.sample();
+    }
+
+    // Time from placing an order until a cashier takes it
+    public LatencyHistogram placedToRetrieved() {
+        return placedToRetrieved;
+    }
+
+    // Time a cashier spends on an order before sending it to the kitchen
+    public LatencyHistogram retrievedToPreparation() {
+        return retrievedToPreparation;
+    }
+
+    // Time the kitchen spends on an order
+    public LatencyHistogram preparationToCompletion() {
+        return preparationToCompletion;
+    }
+
+    public List<Stage> stages() {
+        return List.of(
+                new Stage("Placed -> retrieved by cashier", placedToRetrieved),
+                new Stage("Retrieved -> sent to preparation", retrievedToPreparation),
+                new Stage("Preparation -> completed", preparationToCompletion));
+    }
+
+    public List<RollingGauge> gauges() {
+        return List.of(pendingDepth, preparingDepth);
+    }
+
+
+     //Clears all histograms (gauges keep their window).
+    public void reset() {
+        placedToRetrieved.reset();
+        retrievedToPreparation.reset();
+        preparationToCompletion.reset();
+    }
+
+
+     //Writes the current numbers to a CSV file, one line per stage and gauge.
+     //Times are in milliseconds.
+     //@param file Where to write (replaced if it exists).
+    public void exportCsv(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# Order pipeline metrics exported " + LocalDateTime.now());
+            out.println("stage,count,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Stage stage : stages()) {
+                LatencyHistogram h = stage.getHistogram();
+                out.printf(Locale.US, "\"%s\",%d,%.3f,%.3f,%.3f,%.3f%n", stage.getName(), h.count(),
+                        millis(h.percentile(50)), millis(h.percentile(95)), millis(h.percentile(99)), millis(h.max()));
+            }
+            out.println();
+            out.println("gauge,current,average,peak");
+            for (RollingGauge gauge : gauges()) {
+                out.printf(Locale.US, "\"%s\",%d,%.1f,%d%n", gauge.getName(), gauge.current(), gauge.average(), gauge.peak());
+            }
+        }
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public void close() {
+        sampling.cancel(false);
+    }
+
+
+     //Samples the gauges once a second. It only holds the metrics weakly, so a
+     //manager nobody closed can still be collected; the task then cancels itself.
+    private static final class SampleTask implements Runnable {
+        private final WeakReference<PipelineMetrics> metrics;
+        private volatile ScheduledFuture<?> sampling;
+
+        SampleTask(PipelineMetrics metrics) {
+            this.metrics = new WeakReference<>(metrics);
+        }
+
+        @Override
+        public void run() {
+            PipelineMetrics current = metrics.get();
+            if (current != null) {
+                current.sample();
+            } else if (sampling != null) {
+                sampling.cancel(false);
+            }
+        }
+    }
+
+
+     //A named stage and its histogram.
+    public static final class Stage {
+        private final String name;
+        private final LatencyHistogram histogram;
+
+        Stage(String name, LatencyHistogram histogram) {
+            this.name = name;
+            this.histogram = histogram;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+}
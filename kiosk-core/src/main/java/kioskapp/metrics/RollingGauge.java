@@ -0,0 +1,56 @@
+package kioskapp.metrics;
+
+import java.util.function.IntSupplier;
+
+
+ //A value (like a queue depth) sampled once per tick, keeping the last
+ //few minutes of samples so we can show the current, average and peak value.
+public class RollingGauge {
+    private final String name;
+    private final IntSupplier source;
+    private final int[] samples;
+    private int next;   // guarded by this
+    private int filled; // guarded by this
+
+    public RollingGauge(String name, IntSupplier source, int windowSamples) {
+        this.name = name;
+        this.source = source;
+        this.samples = new int[windowSamples];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Reads the live value (not from the window)
+    public int current() {
+        return source.getAsInt();
+    }
+
+
+     //Takes one sample from the source.
+    public synchronized void sample() {
+        samples[next] = source.getAsInt();
+        next = (next + 1) % samples.length;
+        filled = Math.min(filled + 1, samples.length);
+    }
+
+    public synchronized int peak() {
+        int peak = 0;
+        for (int i = 0; i < filled; i++) {
+            peak = Math.max(peak, samples[i]);
+        }
+        return peak;
+    }
+
+    public synchronized double average() {
+        if (filled == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < filled; i++) {
+            sum += samples[i];
+        }
+        return (double) sum / filled;
+    }
+}
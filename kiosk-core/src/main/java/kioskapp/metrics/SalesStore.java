@@ -0,0 +1,243 @@
+package kioskapp.metrics;
+
+import kioskapp.model.Order;
+import kioskapp.model.ProductTable;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+ //In-memory sales history of completed orders, kept column by column so the
+ //admin screen can total it up while orders keep flowing.
+ //
+ //Every order line is one row. Each column is a primitive array, split into
+ //fixed-size chunks so growing never copies rows: product number (see
+ //ProductTable), quantity, amount in centavos, placed and completed times in
+ //epoch milliseconds, and flags (priority, first line of its order).
+ //
+ //Completing orders appends under a small lock that only other appends take.
+ //Totals never lock: they read up to the row count published by the last
+ //append and split the rows across the common fork/join pool.
+ //The store starts empty at every launch; the journal does not keep
+ //completed orders.
+public class SalesStore {
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    // Below this many rows a task totals its rows itself instead of splitting
+    private static final int LEAF_ROWS = 2 * CHUNK_ROWS;
+
+    private static final byte PRIORITY = 1;
+    private static final byte FIRST_LINE = 2;
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private final Object appendLock = new Object();
+    private volatile Chunk[] chunks = new Chunk[16];
+    // Rows readers may look at; written last by every append
+    private volatile int size;
+
+
+     //Adds a completed order's lines, priced at the product versions the order was placed with.
+     //@param order           The completed order.
+     //@param completedMillis When it was completed, in epoch milliseconds.
+    public void record(Order order, long completedMillis) {
+        int lines = order.getLineCount();
+        if (lines == 0) {
+            return;
+        }
+        long placedMillis = order.getOrderTimeNanos() / 1_000_000;
+        byte flags = order.isPriority() ? PRIORITY : 0;
+        synchronized (appendLock) {
+            int row = size;
+            for (int line = 0; line < lines; line++, row++) {
+                Chunk chunk = chunkForAppend(row);
+                int i = row & CHUNK_MASK;
+                int quantity = order.getLineQuantity(line);
+                chunk.product[i] = order.getLineProductIndex(line);
+                chunk.quantity[i] = quantity;
+                chunk.centavos[i] = order.getLineProduct(line).getPrice().centavos() * quantity;
+                chunk.placedMillis[i] = placedMillis;
+                chunk.completedMillis[i] = completedMillis;
+                chunk.flags[i] = line == 0 ? (byte) (flags | FIRST_LINE) : flags;
+            }
+            size = row; // publishes the rows above to readers
+        }
+    }
+
+    // Number of order lines recorded
+    public int size() {
+        return size;
+    }
+
+
+     //Totals by product. Keys are ProductTable numbers, one per product
+     //version, so a product ID has several if its name or price changed.
+     //Orders counts the lines that sold the product.
+    public SalesTotals byProduct() {
+        int rows = size;
+        return total(Dimension.PRODUCT, ProductTable.size(), rows, null);
+    }
+
+
+     //Totals by hour of the day the orders were completed (keys 0-23), in the
+     //system time zone.
+    public SalesTotals byHourOfDay() {
+        return byHourOfDay(ZoneId.systemDefault());
+    }
+
+
+     //Totals by local hour of completion in a time zone (keys 0-23). Each
+     //order uses the offset in force when it was completed, so sales on
+     //either side of a daylight-saving change land in the right hour.
+    public SalesTotals byHourOfDay(ZoneId zone) {
+        int rows = size;
+        return total(Dimension.HOUR, 24, rows, zone.getRules());
+    }
+
+
+     //Totals for normal (key 0) and priority (key 1) orders.
+    public SalesTotals byPriority() {
+        int rows = size;
+        return total(Dimension.PRIORITY, 2, rows, null);
+    }
+
+    private SalesTotals total(Dimension dimension, int keys, int rows, ZoneRules zone) {
+        Totaller task = new Totaller(chunks, dimension, keys, zone, 0, rows);
+        return rows <= LEAF_ROWS ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private Chunk chunkForAppend(int row) {
+        int index = row >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (index == current.length) {
+            Chunk[] bigger = new Chunk[current.length * 2];
+            System.arraycopy(current, 0, bigger, 0, current.length);
+            current = bigger;
+            chunks = current;
+        }
+        if (current[index] == null) {
+            current[index] = new Chunk();
+        }
+        return current[index];
+    }
+
+    private enum Dimension { PRODUCT, HOUR, PRIORITY }
+
+
+     //One block of rows, a slice of every column.
+    private static final class Chunk {
+        final int[] product = new int[CHUNK_ROWS];
+        final int[] quantity = new int[CHUNK_ROWS];
+        final long[] centavos = new long[CHUNK_ROWS];
+        final long[] placedMillis = new long[CHUNK_ROWS];
+        final long[] completedMillis = new long[CHUNK_ROWS];
+        final byte[] flags = new byte[CHUNK_ROWS];
+    }
+
+
+     //Totals rows [from, to), splitting in half until the ranges are small.
+     //Fork/join tasks are Serializable only by inheritance; these never leave
+     //the process, so the serial lint checks do not apply.
+    @SuppressWarnings("serial")
+    private static final class Totaller extends RecursiveTask<SalesTotals> {
+        private final Chunk[] chunks;
+        private final Dimension dimension;
+        private final int keys;
+        private final ZoneRules zone; // only for HOUR
+        private final int from;
+        private final int to;
+        private LocalHours hours;
+
+        Totaller(Chunk[] chunks, Dimension dimension, int keys, ZoneRules zone, int from, int to) {
+            this.chunks = chunks;
+            this.dimension = dimension;
+            this.keys = keys;
+            this.zone = zone;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SalesTotals compute() {
+            if (to - from > LEAF_ROWS) {
+                int middle = from + (to - from) / 2;
+                Totaller left = new Totaller(chunks, dimension, keys, zone, from, middle);
+                Totaller right = new Totaller(chunks, dimension, keys, zone, middle, to);
+                left.fork();
+                SalesTotals totals = right.compute();
+                totals.add(left.join());
+                return totals;
+            }
+            if (dimension == Dimension.HOUR) {
+                hours = new LocalHours(zone);
+            }
+            long[] quantity = new long[keys];
+            long[] centavos = new long[keys];
+            long[] orders = new long[keys];
+            int row = from;
+            while (row < to) {
+                // Walk one chunk's slice of the range at a time
+                Chunk chunk = chunks[row >>> CHUNK_BITS];
+                int start = row & CHUNK_MASK;
+                int end = start + Math.min(to - row, CHUNK_ROWS - start);
+                for (int i = start; i < end; i++) {
+                    int key = key(chunk, i);
+                    quantity[key] += chunk.quantity[i];
+                    centavos[key] += chunk.centavos[i];
+                    if (dimension == Dimension.PRODUCT || (chunk.flags[i] & FIRST_LINE) != 0) {
+                        orders[key]++;
+                    }
+                }
+                row += end - start;
+            }
+            return new SalesTotals(quantity, centavos, orders);
+        }
+
+        private int key(Chunk chunk, int i) {
+            switch (dimension) {
+                case PRODUCT:
+                    return chunk.product[i];
+                case HOUR:
+                    return hours.hourOf(chunk.completedMillis[i]);
+                default:
+                    return chunk.flags[i] & PRIORITY;
+            }
+        }
+    }
+
+
+     //Local hour of the day for epoch milliseconds. Looking up the zone's
+     //offset for every row would cost more than the totalling, so the offset
+     //is kept for the stretch between the transitions around the last time
+     //looked up; rows are appended in completion order, so that nearly always hits.
+    private static final class LocalHours {
+        private final ZoneRules rules;
+        // The cached offset holds for [validFrom, validUntil)
+        private long validFrom = Long.MAX_VALUE;
+        private long validUntil = Long.MIN_VALUE;
+        private long offsetMillis;
+
+        LocalHours(ZoneRules rules) {
+            this.rules = rules;
+        }
+
+        int hourOf(long epochMillis) {
+            if (epochMillis < validFrom || epochMillis >= validUntil) {
+                Instant instant = Instant.ofEpochMilli(epochMillis);
+                offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+                // plusNanos(1) so a transition at exactly this instant counts as before it
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusNanos(1));
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                validFrom = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() * 1000;
+                validUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000;
+            }
+            return (int) (Math.floorMod(epochMillis + offsetMillis, DAY_MILLIS) / HOUR_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package kioskapp.metrics;
+
+
+ //Sales added up per key (a product number, an hour of the day, or
+ //normal/priority, depending on which SalesStore method made it).
+public class SalesTotals {
+    private final long[] quantity;
+    private final long[] centavos;
+    private final long[] orders;
+
+    SalesTotals(long[] quantity, long[] centavos, long[] orders) {
+        this.quantity = quantity;
+        this.centavos = centavos;
+        this.orders = orders;
+    }
+
+    // Number of keys; keys go from 0 to keys() - 1
+    public int keys() {
+        return quantity.length;
+    }
+
+    // Items sold under a key
+    public long quantity(int key) {
+        return quantity[key];
+    }
+
+    // Revenue under a key, in centavos
+    public long centavos(int key) {
+        return centavos[key];
+    }
+
+    // Orders under a key (for products: order lines with that product)
+    public long orders(int key) {
+        return orders[key];
+    }
+
+    public long totalCentavos() {
+        long total = 0;
+        for (long amount : centavos) {
+            total += amount;
+        }
+        return total;
+    }
+
+
+     //Adds another set of totals with the same or fewer keys into this one.
+    void add(SalesTotals other) {
+        for (int key = 0; key < other.keys(); key++) {
+            quantity[key] += other.quantity[key];
+            centavos[key] += other.centavos[key];
+            orders[key] += other.orders[key];
+        }
+    }
+}
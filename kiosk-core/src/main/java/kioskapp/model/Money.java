@@ -0,0 +1,160 @@
+package kioskapp.model;
+
+
+ //An amount of pesos held as a whole number of centavos, so sums never drift.
+ //Immutable; the formatted text is worked out once and then reused.
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long centavos; // 1 peso = 100 centavos
+    private String text;         // cached toString(), e.g. "1,234.50"
+
+    private Money(long centavos) {
+        this.centavos = centavos;
+    }
+
+
+     //Creates an amount from centavos.
+     //@param centavos The amount in centavos (12050 = ₱120.50).
+     //@return The amount.
+    public static Money ofCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Money(centavos);
+    }
+
+
+     //Reads an amount typed as pesos, like "120", "120.5" or "120.50".
+     //@param text The text to read.
+     //@return The amount.
+     //@throws NumberFormatException if the text is not a peso amount with at most 2 decimals.
+    public static Money parse(String text) {
+        String trimmed = text.trim();
+        boolean negative = trimmed.startsWith("-");
+        String digits = negative ? trimmed.substring(1) : trimmed;
+        int dot = digits.indexOf('.');
+        String whole = dot < 0 ? digits : digits.substring(0, dot);
+        String fraction = dot < 0 ? "" : digits.substring(dot + 1);
+        if ((whole.isEmpty() && fraction.isEmpty()) || fraction.length() > 2
+                || !whole.chars().allMatch(Character::isDigit) || !fraction.chars().allMatch(Character::isDigit)) {
+            throw new NumberFormatException("Not a peso amount: " + text);
+        }
+        long pesos = whole.isEmpty() ? 0 : Long.parseLong(whole);
+        long cents = fraction.isEmpty() ? 0 : Long.parseLong(fraction.length() == 1 ? fraction + "0" : fraction);
+        long total = Math.addExact(Math.multiplyExact(pesos, 100), cents);
+        return ofCentavos(negative ? -total : total);
+    }
+
+    public long centavos() {
+        return centavos;
+    }
+
+    public boolean isNegative() {
+        return centavos < 0;
+    }
+
+    public Money plus(Money other) {
+        return ofCentavos(Math.addExact(centavos, other.centavos));
+    }
+
+    public Money times(int quantity) {
+        return ofCentavos(Math.multiplyExact(centavos, quantity));
+    }
+
+
+     //Writes the amount for display as "1,234.50" without creating any objects.
+     //@param out Where to write.
+     //@return The same builder.
+    public StringBuilder appendTo(StringBuilder out) {
+        return appendCentavos(out, centavos);
+    }
+
+
+     //Writes the amount as "1234.50", the form parse reads back, for files and
+     //the intake server rather than for people.
+     //@param out Where to write.
+     //@return The same builder.
+    public StringBuilder appendPlainTo(StringBuilder out) {
+        return append(out, centavos, false);
+    }
+
+
+     //Writes a centavo amount for display as "1,234.50" without creating any objects.
+     //Handy for running totals that are kept as plain longs.
+     //@param out      Where to write.
+     //@param centavos The amount.
+     //@return The same builder.
+    public static StringBuilder appendCentavos(StringBuilder out, long centavos) {
+        return append(out, centavos, true);
+    }
+
+    private static StringBuilder append(StringBuilder out, long centavos, boolean grouped) {
+        long abs = Math.abs(centavos);
+        if (centavos < 0) {
+            out.append('-');
+        }
+        long pesos = abs / 100;
+        if (!grouped || pesos < 1000) {
+            out.append(pesos);
+        } else {
+            // Thousands separated by commas, as the en_PH currency format does
+            long unit = 1000;
+            while (pesos / unit >= 1000) {
+                unit *= 1000;
+            }
+            out.append(pesos / unit);
+            for (unit /= 1000; unit > 0; unit /= 1000) {
+                long group = pesos / unit % 1000;
+                out.append(',');
+                if (group < 100) {
+                    out.append('0');
+                }
+                if (group < 10) {
+                    out.append('0');
+                }
+                out.append(group);
+            }
+        }
+        out.append('.');
+        long cents = abs % 100;
+        if (cents < 10) {
+            out.append('0');
+        }
+        return out.append(cents);
+    }
+
+
+     //Formats the amount as "1234.50", the form parse reads back (no peso sign).
+     //@return The amount as text.
+    public String toPlainString() {
+        return appendPlainTo(new StringBuilder(16)).toString();
+    }
+
+
+     //Formats the amount for display as "1,234.50" (no peso sign).
+     //@return The amount as text.
+    @Override
+    public String toString() {
+        String cached = text;
+        if (cached == null) {
+            cached = appendTo(new StringBuilder(16)).toString();
+            text = cached; // racy but harmless: every thread computes the same string
+        }
+        return cached;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(centavos, other.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return centavos == ((Money) o).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+}
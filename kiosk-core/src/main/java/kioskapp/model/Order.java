@@ -0,0 +1,313 @@
+package kioskapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a customer's order.
+ */
+public class Order {
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(Order.class, "status", OrderStatus.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int INITIAL_LINES = 4;
+    // Schedule rank of an order that has not been queued yet
+    public static final long UNRANKED = Long.MIN_VALUE;
+    // Formatters are immutable and thread-safe, so one is enough
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    // Crockford base 32: no I, L, O or U, so codes read out loud are not misheard
+    private static final char[] CODE_CHARS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long id; // Unique ID for the order (0 until the order is placed)
+    private final long orderTimeNanos; // Time the order was placed, in nanoseconds since the epoch
+    private boolean isPriority; // If the order is for priority customer
+    private volatile OrderStatus status = OrderStatus.PENDING; // Where the order is now
+
+    // Order lines as parallel arrays: line i is lineQuantities[i] x ProductTable.get(lineProducts[i])
+    private int[] lineProducts = new int[INITIAL_LINES];
+    private int[] lineQuantities = new int[INITIAL_LINES];
+    private int lineCount;
+    // Open-addressing map from product index to (line + 1); 0 marks an empty slot
+    private int[] lineSlots = new int[INITIAL_LINES * 2];
+
+    private long scheduleRank = UNRANKED; // Place in the pending queue, lower first (set when first queued)
+    private volatile long stageStartNanos = System.nanoTime(); // When the order entered its current stage
+    private long totalCentavos; // Running total, updated on every item change
+    private Money total = Money.ZERO; // Cached Money for totalCentavos (null after a change)
+    private int version; // Goes up on every change to the lines, so displays know to redraw
+    private String text; // Cached toString() for textVersion
+    private int textVersion = -1;
+
+
+     //Creates a new order.
+     //@param id         The order's unique ID (0 for a cart that is not placed yet).
+     //@param isPriority True if it's a priority order.
+
+    public Order(long id, boolean isPriority) {
+        this(id, isPriority, nowNanos());
+    }
+
+
+     //Creates an order with a known time (used when restoring saved orders).
+     //@param id             The order's unique ID.
+     //@param isPriority     True if it's a priority order.
+     //@param orderTimeNanos When the order was placed, in nanoseconds since the epoch.
+
+    public Order(long id, boolean isPriority, long orderTimeNanos) {
+        this.id = id;
+        this.orderTimeNanos = orderTimeNanos;
+        this.isPriority = isPriority;
+    }
+
+    // Getters
+    public long getId() {
+        return id;
+    }
+
+    // Short code shown to customers and staff, e.g. "7KQ2".
+    // Full IDs are too long to call out, so the board shows 4 characters picked
+    // from a hash of the ID. The hash alone is not unique, so OrderManager skips
+    // IDs whose code an open order already has; use getId() wherever an order is looked up.
+    public String getOrderId() {
+        return displayCode(id);
+    }
+
+    public static String displayCode(long id) {
+        int bits = displayCodeBits(id);
+        char[] code = new char[4];
+        for (int i = 3; i >= 0; i--) {
+            code[i] = CODE_CHARS[bits & 31];
+            bits >>>= 5;
+        }
+        return new String(code);
+    }
+
+    // The 20 bits behind displayCode(id); equal bits mean equal codes
+    public static int displayCodeBits(long id) {
+        // Fibonacci hashing spreads IDs that differ only in their low bits
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 44);
+    }
+
+    // Builds a LocalDateTime for display; use getOrderTimeNanos() for comparisons
+    public LocalDateTime getOrderTime() {
+        Instant instant = Instant.ofEpochSecond(0, orderTimeNanos);
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    public long getOrderTimeNanos() {
+        return orderTimeNanos;
+    }
+
+
+     //Copies the order lines into OrderItem objects (for tables and reports).
+     //Changing the returned items does not change the order.
+     //@return A read-only list of the order's items.
+
+    public List<OrderItem> getItems() {
+        List<OrderItem> items = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            items.add(new OrderItem(ProductTable.get(lineProducts[i]), lineQuantities[i]));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    // Number of distinct products in the order
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public Product getLineProduct(int line) {
+        return ProductTable.get(lineProducts[checkLine(line)]);
+    }
+
+    public int getLineProductIndex(int line) {
+        return lineProducts[checkLine(line)];
+    }
+
+    public int getLineQuantity(int line) {
+        return lineQuantities[checkLine(line)];
+    }
+
+
+     //Changes how many of a line's product are ordered; the total follows.
+     //@param line     The line number (0 to getLineCount() - 1).
+     //@param quantity The new quantity.
+
+    public void setLineQuantity(int line, int quantity) {
+        int oldQuantity = lineQuantities[checkLine(line)];
+        lineQuantities[line] = quantity;
+        version++;
+        addToTotal(ProductTable.get(lineProducts[line]).getPrice().centavos() * (quantity - oldQuantity));
+    }
+
+    // Where the scheduling policy put the order in the pending queue (UNRANKED until queued)
+    public long getScheduleRank() {
+        return scheduleRank;
+    }
+
+    // Only for the pending queue, and only before the order is in it
+    public void setScheduleRank(long scheduleRank) {
+        this.scheduleRank = scheduleRank;
+    }
+
+    // Changes whenever the items or quantities change
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isPriority() {
+        return isPriority;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+
+     //Marks the start of a new pipeline stage.
+     //@return Nanoseconds spent in the stage that just ended.
+
+    public long markStage() {
+        long now = System.nanoTime();
+        long elapsed = now - stageStartNanos;
+        stageStartNanos = now;
+        return elapsed;
+    }
+
+
+     //Atomically changes the status if it still has the expected value.
+     //@param expected The status the order must have now.
+     //@param next     The new status.
+     //@return true if the status was changed.
+
+    public boolean compareAndSetStatus(OrderStatus expected, OrderStatus next) {
+        return STATUS.compareAndSet(this, expected, next);
+    }
+
+
+     //Adds an item to the order.
+     //If the product is already in the order, it adds the quantity.
+     //@param item The item to add.
+
+    public void addOrderItem(OrderItem item) {
+        addItem(item.getProduct(), item.getQuantity());
+    }
+
+
+     //Adds some of a product to the order, merging with an existing line in O(1).
+     //@param product  The product.
+     //@param quantity How many to add.
+
+    public void addItem(Product product, int quantity) {
+        int productIndex = ProductTable.indexOf(product);
+        int slot = findSlot(productIndex);
+        int line = lineSlots[slot] - 1;
+        if (line >= 0) {
+            lineQuantities[line] += quantity;
+        } else {
+            if (lineCount == lineProducts.length) {
+                growLines();
+                slot = findSlot(productIndex);
+            }
+            line = lineCount++;
+            lineProducts[line] = productIndex;
+            lineQuantities[line] = quantity;
+            lineSlots[slot] = line + 1;
+        }
+        version++;
+        addToTotal(product.getPrice().centavos() * quantity);
+    }
+
+    private void addToTotal(long centavos) {
+        if (centavos != 0) {
+            totalCentavos += centavos;
+            total = null;
+        }
+    }
+
+
+     //Finds the slot holding a product's line, or the empty slot where it belongs.
+    private int findSlot(int productIndex) {
+        int mask = lineSlots.length - 1;
+        int slot = (productIndex * 0x9E3779B9) >>> 16 & mask;
+        while (lineSlots[slot] != 0 && lineProducts[lineSlots[slot] - 1] != productIndex) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void growLines() {
+        int capacity = lineProducts.length * 2;
+        lineProducts = Arrays.copyOf(lineProducts, capacity);
+        lineQuantities = Arrays.copyOf(lineQuantities, capacity);
+        lineSlots = new int[capacity * 2];
+        for (int line = 0; line < lineCount; line++) {
+            lineSlots[findSlot(lineProducts[line])] = line + 1;
+        }
+    }
+
+    private int checkLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+        }
+        return line;
+    }
+
+    private static long nowNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+
+     //Gets the total price of all items. The total is kept up to date as items
+     //change, so this is O(1) and only creates a Money the first time after a change.
+     //@return The total cost.
+
+    public Money getTotalCost() {
+        Money cached = total;
+        if (cached == null) {
+            cached = Money.ofCentavos(totalCentavos);
+            total = cached;
+        }
+        return cached;
+    }
+
+
+     //Gets the total in centavos without creating any object.
+     //@return The total cost in centavos.
+
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+
+     //Returns a simple string showing order info.
+     //@return A formatted string.
+
+    @Override
+    public String toString() {
+        String cached = text;
+        if (cached == null || textVersion != version) {
+            cached = "Order #" + getOrderId() + " (" + (isPriority ? "PRIORITY" : "NORMAL") + ") - ₱"
+                    + getTotalCost() + " at " + getOrderTime().format(TIME_FORMAT);
+            text = cached;
+            textVersion = version;
+        }
+        return cached;
+    }
+}
\ No newline at end of file
@@ -3,7 +3,7 @@ package kioskapp.model;
 
  //One item in a customer's order.
 public class OrderItem {
-    private Product product; // The product being ordered
+    private final Product product; // The product being ordered (the version the customer picked)
     private int quantity;    // How many of the product
 
 
@@ -34,8 +34,8 @@ public class OrderItem {
      //Gets total price (price × quantity).
      //@return Total cost for this item.
 
-    public double getTotalPrice() {
-        return product.getPrice() * quantity;
+    public Money getTotalPrice() {
+        return product.getPrice().times(quantity);
     }
 
 
@@ -44,6 +44,6 @@ public class OrderItem {
 
     @Override
     public String toString() {
-        return product.getName() + " x" + quantity + " (₱" + String.format("%.2f", getTotalPrice()) + ")";
+        return product.getName() + " x" + quantity + " (₱" + getTotalPrice() + ")";
     }
 }
\ No newline at end of file
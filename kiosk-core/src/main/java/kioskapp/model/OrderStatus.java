@@ -0,0 +1,29 @@
+package kioskapp.model;
+
+
+ //Where an order is in its life, from the kiosk to pickup.
+public enum OrderStatus {
+    PENDING,     // Placed at a kiosk, waiting for the cashier
+    AT_CASHIER,  // Taken by a cashier, waiting for payment confirmation
+    PREPARING,   // Sent to the kitchen
+    COMPLETED,   // Ready for pickup
+    CANCELLED;   // Dropped before it was completed
+
+
+     //Checks if an order in this state may move to the next one.
+     //@param next The state to move to.
+     //@return true if the move is allowed.
+    public boolean canMoveTo(OrderStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == AT_CASHIER || next == CANCELLED;
+            case AT_CASHIER:
+                // Back to PENDING if the cashier never got it
+                return next == PREPARING || next == CANCELLED || next == PENDING;
+            case PREPARING:
+                return next == COMPLETED || next == CANCELLED;
+            default:
+                return false; // COMPLETED and CANCELLED are final
+        }
+    }
+}
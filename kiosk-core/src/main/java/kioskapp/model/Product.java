@@ -0,0 +1,102 @@
+package kioskapp.model;
+
+import java.util.Objects;
+
+
+ //One version of a menu item. Products never change: editing a price makes a
+ //new Product, so orders that hold the old one keep the price they were
+ //placed at. ProductTable interns the ones put on an order, so every order
+ //line for the same version shares one object.
+public final class Product {
+    private final String id;      // Unique ID (e.g., "C1")
+    private final String name;    // Product name (e.g., "Burger Meal")
+    private final Money price;    // Product price
+    private final long version;   // Catalog version these details first appeared in (0 if not from the catalog)
+    private volatile int tableIndex = -1; // Number in ProductTable (-1 until first used in an order)
+
+
+     //Creates a new product.
+     //@param id    Product ID.
+     //@param name  Product name.
+     //@param price Product price.
+    public Product(String id, String name, Money price) {
+        this(id, name, price, 0);
+    }
+
+
+     //Creates a product stamped with the catalog version it belongs to.
+     //@param id      Product ID.
+     //@param name    Product name.
+     //@param price   Product price.
+     //@param version The ProductManager catalog version.
+    public Product(String id, String name, Money price, long version) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.version = version;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Money getPrice() {
+        return price;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+
+     //Checks if two products have the same ID, name and price (equals() only
+     //compares IDs, so two versions of one item are equal).
+     //@param other Another product.
+     //@return True if they are the same version of the item.
+    public boolean sameDetails(Product other) {
+        return id.equals(other.id) && Objects.equals(name, other.name) && Objects.equals(price, other.price);
+    }
+
+    // Number in ProductTable, or -1 if not assigned yet
+    int getTableIndex() {
+        return tableIndex;
+    }
+
+    void setTableIndex(int tableIndex) {
+        this.tableIndex = tableIndex;
+    }
+
+
+     //Shows product info as a string.
+     //@return Text like "C1 - Burger (₱99.00)"
+    @Override
+    public String toString() {
+        return id + " - " + name + " (₱" + price + ")";
+    }
+
+
+     //Checks if two products are the same by ID.
+     //@param o Another object.
+     //@return True if IDs match.
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Product product = (Product) o;
+        return Objects.equals(id, product.id);
+    }
+
+
+     //Generates a hash code based on ID.
+     //@return The hash code.
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package kioskapp.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+ //Gives every product version a small int number, so orders can store
+ //product references as plain ints instead of object pointers.
+ //
+ //Products are interned: the first object seen with a given ID, name, price
+ //and catalog version becomes the canonical one, and later objects with the
+ //same details get its number. So the thousands of order lines for one menu
+ //item all point at one shared Product. The version is part of the key so a
+ //catalog product never turns into an unversioned copy rebuilt from the
+ //journal or the archive (those share one version-0 entry among themselves).
+ //
+ //Only products put on an order line get a number, never every catalog
+ //version, so the table grows with the versions actually ordered rather than
+ //with menu edits. Numbers are never reused: order lines, the sales store and
+ //archive segments keep them for as long as the process runs.
+public final class ProductTable {
+    private static volatile Product[] products = new Product[64];
+    private static int size; // guarded by ProductTable.class
+    // Canonical product by details key; guarded by ProductTable.class
+    private static final Map<String, Product> canonical = new HashMap<>();
+
+    private ProductTable() {
+    }
+
+
+     //Gets the number for a product, assigning one the first time its
+     //details are seen.
+     //@param product The product.
+     //@return Its table index (shared with every product with the same details).
+    public static int indexOf(Product product) {
+        int index = product.getTableIndex();
+        if (index >= 0) {
+            return index;
+        }
+        synchronized (ProductTable.class) {
+            index = product.getTableIndex();
+            if (index >= 0) {
+                return index;
+            }
+            String key = detailsKey(product);
+            Product existing = canonical.get(key);
+            if (existing != null) {
+                // Same version seen before: share its number
+                index = existing.getTableIndex();
+                product.setTableIndex(index);
+                return index;
+            }
+            canonical.put(key, product);
+            Product[] table = products;
+            if (size == table.length) {
+                Product[] bigger = new Product[table.length * 2];
+                System.arraycopy(table, 0, bigger, 0, size);
+                table = bigger;
+            }
+            table[size] = product;
+            products = table; // publish the array before the index becomes visible
+            product.setTableIndex(size);
+            return size++;
+        }
+    }
+
+
+     //Gets the shared object for a product version.
+     //@param product The product.
+     //@return The canonical product with the same ID, name, price and version.
+    public static Product intern(Product product) {
+        return get(indexOf(product));
+    }
+
+
+     //Looks up the product with a given number.
+     //@param index A number returned by indexOf().
+     //@return The product.
+    public static Product get(int index) {
+        return products[index];
+    }
+
+
+     //How many products have been numbered so far.
+     //@return The number of table entries.
+    public static int size() {
+        synchronized (ProductTable.class) {
+            return size;
+        }
+    }
+
+    private static String detailsKey(Product product) {
+        return product.getId() + '\u0000' + product.getName() + '\u0000' + product.getPrice().centavos()
+                + '\u0000' + product.getVersion();
+    }
+}
@@ -0,0 +1,23 @@
+package kioskapp.model;
+
+
+ //Kitchen stations. Each order is split into one ticket per station it needs.
+public enum Station {
+    FRYER,   // Chicken, fries
+    GRILL,   // Burgers, burger steak
+    PASTA,   // Spaghetti, palabok
+    DRINKS;  // Sodas, iced tea
+
+
+     //Checks if this station can make another station's tickets when it has
+     //none of its own. The grill cook can cover the fryer and the pasta pot,
+     //and anyone can pour a drink; nobody else can work the grill.
+     //@param other The station whose ticket it is.
+     //@return true if this station may take it.
+    public boolean canCover(Station other) {
+        if (other == this || other == DRINKS) {
+            return true;
+        }
+        return this == GRILL && (other == FRYER || other == PASTA);
+    }
+}
@@ -0,0 +1,80 @@
+package kioskapp.server;
+
+import kioskapp.model.Money;
+import kioskapp.storage.ArchivedOrder;
+import kioskapp.storage.OrderArchive;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+
+ //Prints archived orders from the command line, e.g. to answer "what sold
+ //between 12:00 and 13:00 last Friday" without starting the backend.
+ //Times are local date-times in the system time zone; the end is exclusive.
+ //
+ //Usage:
+ //  java -cp kiosk-core/target/classes kioskapp.server.ArchiveQuery kiosk-data/archive 2026-10-09T12:00 2026-10-09T13:00
+ //  java -cp kiosk-core/target/classes kioskapp.server.ArchiveQuery kiosk-data/archive --id=123456789
+ //Add --quiet after the times to print only the totals. The archive is opened
+ //read-only, so this is safe while the backend is running.
+public class ArchiveQuery {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ArchiveQuery <archiveDir> <from> <to> [--quiet] | <archiveDir> --id=<orderId>");
+            System.exit(2);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        try (OrderArchive archive = OrderArchive.openReadOnly(Paths.get(args[0]))) {
+            if (args[1].startsWith("--id=")) {
+                ArchivedOrder order = archive.findById(Long.parseLong(args[1].substring("--id=".length())));
+                if (order == null) {
+                    System.out.println("Not in the archive.");
+                } else {
+                    print(order, zone, true);
+                }
+                return;
+            }
+            long from = LocalDateTime.parse(args[1]).atZone(zone).toInstant().toEpochMilli();
+            long to = LocalDateTime.parse(args[2]).atZone(zone).toInstant().toEpochMilli();
+            boolean quiet = args.length > 3 && args[3].equals("--quiet");
+
+            long[] totals = new long[3]; // centavos, items, priority orders
+            long start = System.nanoTime();
+            int orders = archive.forEachBetween(from, to, order -> {
+                totals[0] += order.getTotalCentavos();
+                for (int line = 0; line < order.getLineCount(); line++) {
+                    totals[1] += order.getLineQuantity(line);
+                }
+                if (order.isPriority()) {
+                    totals[2]++;
+                }
+                if (!quiet) {
+                    print(order, zone, false);
+                }
+            });
+            long micros = (System.nanoTime() - start) / 1000;
+            System.out.println(orders + " orders (" + totals[2] + " priority), " + totals[1] + " items, "
+                    + Money.ofCentavos(totals[0]) + " in sales; " + archive.size() + " orders archived, scanned in "
+                    + micros + " us");
+        }
+    }
+
+    private static void print(ArchivedOrder order, ZoneId zone, boolean withLines) {
+        String completed = TIME.format(Instant.ofEpochMilli(order.getCompletedMillis()).atZone(zone));
+        System.out.println(completed + "  " + order.getOrderId() + "  #" + order.getId()
+                + (order.isPriority() ? "  PRIORITY" : "") + "  " + order.getTotalCost());
+        if (withLines) {
+            System.out.println("  placed " + TIME.format(Instant.ofEpochMilli(order.getPlacedMillis()).atZone(zone)));
+            for (int line = 0; line < order.getLineCount(); line++) {
+                System.out.println("  " + order.getLineQuantity(line) + " x " + order.getLineProduct(line).getName()
+                        + " @ " + order.getLineProduct(line).getPrice());
+            }
+        }
+    }
+}
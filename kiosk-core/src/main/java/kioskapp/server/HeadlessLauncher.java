@@ -0,0 +1,130 @@
+package kioskapp.server;
+
+import kioskapp.manager.CatalogWatcher;
+import kioskapp.manager.DefaultMenu;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.OrderIdGenerator;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.SchedulingPolicy;
+import kioskapp.manager.ProductManager;
+import kioskapp.storage.OrderArchive;
+import kioskapp.storage.OrderJournal;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+
+
+ //Starts the order backend without any screens, for servers and containers
+ //that have no display and no JavaFX. Kiosks and cashiers reach it through
+ //the OrderIntakeServer.
+ //
+ //Usage: java -cp kiosk-core/target/classes kioskapp.server.HeadlessLauncher [journalDir] [port] [bindAddress] [nodeId] [menuFile] [policy]
+ //Pass "none" as the journal folder to keep orders in memory only. The intake
+ //server listens on 127.0.0.1:8085 by default; bind 0.0.0.0 to serve the LAN,
+ //which also needs a staff token in KIOSK_STAFF_TOKEN for the cashier and
+ //kitchen requests (see OrderIntakeServer). Orders sent to preparation are
+ //split into station tickets that kitchen screens take from /kitchen.
+ //When several backends take orders, give each its own node ID (0-1023) so
+ //their order IDs never clash. The menu is read from kiosk-data/menu.csv (created
+ //with the demo menu if missing) and reloaded when the file changes; pass
+ //"none" to use the built-in menu. The cashiers' queue order is "aging" by
+ //default, so priority orders go first but never starve normal ones; pass
+ //"aging:<seconds>" for another head start, "strict" for priority first always,
+ //or "prep" to also serve orders with fewer items sooner (see SchedulingPolicy.parse). Completed orders are archived in an
+ //"archive" folder next to the journal folder (see OrderArchive).
+public class HeadlessLauncher {
+
+    static final int DEFAULT_PORT = 8085;
+    // Environment variable holding the intake server's staff token
+    static final String STAFF_TOKEN_VARIABLE = "KIOSK_STAFF_TOKEN";
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        String journalArg = args.length > 0 ? args[0] : "kiosk-data/journal";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        String bindAddress = args.length > 2 ? args[2] : "127.0.0.1";
+        int nodeId = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        String menuArg = args.length > 4 ? args[4] : "kiosk-data/menu.csv";
+        SchedulingPolicy policy = SchedulingPolicy.parse(args.length > 5 ? args[5] : null);
+
+        ProductManager productManager = new ProductManager();
+        CatalogWatcher catalogWatcher = openCatalog(menuArg, productManager);
+        // The archive goes in first, so recovery can add back completed orders it lost
+        OrderArchive archive = openArchive(journalArg);
+        OrderManager orderManager = new OrderManager(openJournal(journalArg), policy,
+                new OrderIdGenerator(nodeId), archive);
+        Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+        OrderIntakeServer intake = new OrderIntakeServer(new InetSocketAddress(bindAddress, port), productManager,
+                orderManager, kitchen, System.getenv(STAFF_TOKEN_VARIABLE));
+        intake.start();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Shutting down order backend...");
+            // Stop taking orders before the journal closes
+            intake.close();
+            if (catalogWatcher != null) {
+                catalogWatcher.close();
+            }
+            orderManager.close();
+            if (archive != null) {
+                archive.close();
+            }
+            stopped.countDown();
+        }, "kiosk-shutdown"));
+
+        long startupMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Order backend ready in " + startupMillis + " ms: "
+                + productManager.getAllProducts().size() + " products, "
+                + orderManager.getPendingOrders().size() + " pending, "
+                + orderManager.getPreparingOrders().size() + " preparing. Node " + nodeId + " taking orders on http://"
+                + bindAddress + ":" + intake.getPort() + "/");
+
+        // Nothing else to do on this thread; stay alive until the JVM is asked to stop
+        stopped.await();
+    }
+
+    //Loads and watches the menu file, or loads the built-in menu and returns null.
+    private static CatalogWatcher openCatalog(String menuArg, ProductManager productManager) {
+        if (!menuArg.equalsIgnoreCase("none")) {
+            try {
+                return CatalogWatcher.open(Paths.get(menuArg), productManager, DefaultMenu.products());
+            } catch (IOException e) {
+                System.err.println("Menu file unavailable, using the built-in menu: " + e.getMessage());
+            }
+        }
+        DefaultMenu.loadInto(productManager);
+        return null;
+    }
+
+    //Opens the journal, or returns null to run in memory only.
+    private static OrderJournal openJournal(String journalArg) {
+        if (journalArg.equalsIgnoreCase("none")) {
+            return null;
+        }
+        Path dir = Paths.get(journalArg);
+        try {
+            return OrderJournal.open(dir);
+        } catch (IOException e) {
+            System.err.println("Order journal unavailable, orders will not survive a restart: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //Opens the order history next to the journal, or returns null when there is no journal.
+    private static OrderArchive openArchive(String journalArg) {
+        if (journalArg.equalsIgnoreCase("none")) {
+            return null;
+        }
+        Path dir = Paths.get(journalArg).toAbsolutePath().resolveSibling("archive");
+        try {
+            return OrderArchive.open(dir);
+        } catch (IOException e) {
+            System.err.println("Order archive unavailable, completed orders will not be kept: " + e.getMessage());
+            return null;
+        }
+    }
+}
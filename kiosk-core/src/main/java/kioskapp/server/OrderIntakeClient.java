@@ -0,0 +1,134 @@
+package kioskapp.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+
+ //Talks to an OrderIntakeServer from a kiosk or cashier in another process.
+ //One client can be shared by many threads.
+public class OrderIntakeClient {
+    private final HttpClient http;
+    private final URI base;
+    private final String staffToken; // null for a kiosk
+
+
+     //Creates a kiosk's client: it can read the menu and place orders.
+     //@param base The server's address, e.g. http://127.0.0.1:8085
+    public OrderIntakeClient(URI base) {
+        this(base, null);
+    }
+
+
+     //Creates a client for a cashier or kitchen screen.
+     //@param base       The server's address, e.g. http://192.168.1.10:8085
+     //@param staffToken The server's staff token, or null if it has none.
+    public OrderIntakeClient(URI base, String staffToken) {
+        this.base = base;
+        this.staffToken = staffToken;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+
+     //Gets the menu as "id<TAB>name<TAB>price" lines.
+    public String getMenu() throws IOException, InterruptedException {
+        return expect(send(HttpRequest.newBuilder(base.resolve("/menu")).GET()), 200);
+    }
+
+
+     //Places an order.
+     //@param items Product ID -> quantity, in the order the lines should appear.
+     //@param priority True for a priority customer.
+     //@return The new order's ID.
+     //@throws IOException if the server refused the cart (the message says why).
+    public long placeOrder(Map<String, Integer> items, boolean priority) throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder();
+        if (priority) {
+            body.append("PRIORITY\n");
+        }
+        for (Map.Entry<String, Integer> item : items.entrySet()) {
+            body.append(item.getKey()).append(' ').append(item.getValue()).append('\n');
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve("/orders"))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        return Long.parseLong(expect(send(request), 201).trim());
+    }
+
+
+     //Takes the next waiting order for this cashier.
+     //@return The order text (see OrderIntakeServer.writeOrder), or null if none are waiting.
+    public String retrieveNextOrder() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/orders/next"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        return response.statusCode() == 204 ? null : expect(response, 200);
+    }
+
+    public boolean sendOrderToPreparation(long orderId) throws IOException, InterruptedException {
+        return action(orderId, "prepare");
+    }
+
+    public boolean completePreparation(long orderId) throws IOException, InterruptedException {
+        return action(orderId, "complete");
+    }
+
+    public boolean cancelOrder(long orderId) throws IOException, InterruptedException {
+        return action(orderId, "cancel");
+    }
+
+
+     //Gets an order's status name, or null if the server does not know it.
+    public String getOrderStatus(long orderId) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/orders/" + orderId)).GET());
+        return response.statusCode() == 404 ? null : expect(response, 200).trim();
+    }
+
+     //Takes a kitchen station's next ticket.
+     //@param station The station name, e.g. "FRYER".
+     //@return The ticket text (see OrderIntakeServer.writeTicket), or null if there is nothing to make.
+    public String takeTicket(String station) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/kitchen/" + station + "/next"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        return response.statusCode() == 204 ? null : expect(response, 200);
+    }
+
+
+     //Marks a kitchen ticket as made.
+     //@param orderId The order ID from the ticket's first line.
+     //@param station The station from the ticket's first line.
+     //@return The order's status afterwards, or null if there was no such open ticket.
+    public String finishTicket(long orderId, String station) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(
+                base.resolve("/kitchen/" + station + "/" + orderId + "/done")).POST(HttpRequest.BodyPublishers.noBody()));
+        return response.statusCode() == 409 ? null : expect(response, 200).trim();
+    }
+
+    private boolean action(long orderId, String action) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(base.resolve("/orders/" + orderId + "/" + action))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        if (response.statusCode() == 404 || response.statusCode() == 409) {
+            return false;
+        }
+        expect(response, 200);
+        return true;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        if (staffToken != null) {
+            request.header("Authorization", "Bearer " + staffToken);
+        }
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String expect(HttpResponse<String> response, int status) throws IOException {
+        if (response.statusCode() != status) {
+            throw new IOException("HTTP " + response.statusCode() + ": " + response.body().trim());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,527 @@
+package kioskapp.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kioskapp.manager.IntakePipeline;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.KitchenTicket;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.ProductManager;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+ //Small HTTP endpoint so kiosks and cashiers in other processes (or on other
+ //machines on the LAN) can share one OrderManager.
+ //
+ //Every exchange runs on its own virtual thread, so a request that waits on
+ //the journal does not hold up anyone else and thousands of open
+ //connections cost little more than their sockets.
+ //
+ //Plain-text protocol, UTF-8:
+ //  GET  /menu                      one "id<TAB>name<TAB>price" line per product
+ //  POST /orders                    body: optional "PRIORITY" line, then "productId quantity" lines;
+ //                                  201 with the new order ID
+ //  POST /orders/next               200 with the next order (see writeOrder), 204 if none waiting
+ //  GET  /orders/{id}               200 with the order's status
+ //  POST /orders/{id}/prepare       send a retrieved order to the kitchen
+ //  POST /orders/{id}/complete      kitchen finished the order
+ //  POST /orders/{id}/cancel        cancel a pending or preparing order
+ //  GET  /kitchen                   one "station<TAB>waiting tickets" line per station
+ //  POST /kitchen/{station}/next    200 with the station's next ticket (see writeTicket), 204 if none
+ //  POST /kitchen/{station}/{id}/done  the ticket for order {id} routed to {station} is made;
+ //                                  200 with the order's status, 409 if there is no such open ticket
+ //The /kitchen paths exist only when the server was given a Kitchen.
+ //Prices always come from this server's catalog, never from the request.
+ //
+ //Kiosks may browse, place orders and ask about them. Taking, preparing,
+ //completing and cancelling orders, and everything under /kitchen, are staff actions: with a staff token set,
+ //those requests need an "Authorization: Bearer <token>" header (401 without).
+ //A server that listens beyond loopback must have a token.
+ //Orders are placed through an IntakePipeline; the handler's virtual thread
+ //just waits for its order to come out the other end.
+public class OrderIntakeServer implements AutoCloseable {
+    // Most lines accepted in one cart, and most of one product per line
+    static final int MAX_LINES = 100;
+    static final int MAX_QUANTITY = 999;
+    // Largest request body read, in bytes
+    private static final int MAX_BODY = 16 * 1024;
+    // Connections the OS may queue before we accept them
+    private static final int BACKLOG = 4096;
+    // Orders that can be in the intake pipeline at once
+    private static final int PIPELINE_CAPACITY = 1024;
+
+    private final ProductManager productManager;
+    private final OrderManager orderManager;
+    private final Kitchen kitchen; // null when orders are completed as a whole
+    // What staff requests must present; null accepts anyone (loopback only)
+    private final byte[] staffToken;
+    private final IntakePipeline intake;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+
+     //Creates a server for this machine only, with no staff token.
+     //@param address A loopback address to listen on (port 0 picks a free port).
+     //@param productManager The catalog used to price carts.
+     //@param orderManager The manager all orders go to.
+     //@throws IOException if the address cannot be bound.
+    public OrderIntakeServer(InetSocketAddress address, ProductManager productManager, OrderManager orderManager) throws IOException {
+        this(address, productManager, orderManager, null);
+    }
+
+
+     //Creates the server; call start() to begin accepting connections.
+     //@param address Where to listen (port 0 picks a free port).
+     //@param productManager The catalog used to price carts.
+     //@param orderManager The manager all orders go to.
+     //@param staffToken Secret that cashier and kitchen requests must carry;
+     //       may be null only when listening on loopback.
+     //@throws IOException if the address cannot be bound.
+     //@throws IllegalArgumentException if the address is reachable from other machines and there is no token.
+    public OrderIntakeServer(InetSocketAddress address, ProductManager productManager, OrderManager orderManager,
+                             String staffToken) throws IOException {
+        this(address, productManager, orderManager, null, staffToken);
+    }
+
+
+     //Creates the server with kitchen station endpoints; call start() to begin accepting connections.
+     //@param address Where to listen (port 0 picks a free port).
+     //@param productManager The catalog used to price carts.
+     //@param orderManager The manager all orders go to.
+     //@param kitchen The kitchen attached to orderManager, or null for no /kitchen paths.
+     //@param staffToken Secret that cashier and kitchen requests must carry;
+     //       may be null only when listening on loopback.
+     //@throws IOException if the address cannot be bound.
+     //@throws IllegalArgumentException if the address is reachable from other machines and there is no token.
+    public OrderIntakeServer(InetSocketAddress address, ProductManager productManager, OrderManager orderManager,
+                             Kitchen kitchen, String staffToken) throws IOException {
+        boolean blank = staffToken == null || staffToken.isBlank();
+        if (blank && (address.getAddress() == null || !address.getAddress().isLoopbackAddress())) {
+            throw new IllegalArgumentException("A staff token is required to listen on " + address);
+        }
+        this.staffToken = blank ? null : staffToken.strip().getBytes(StandardCharsets.UTF_8);
+        this.productManager = productManager;
+        this.orderManager = orderManager;
+        this.kitchen = kitchen;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.intake = new IntakePipeline(productManager, orderManager, PIPELINE_CAPACITY);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/menu", this::handleMenu);
+        server.createContext("/orders", this::handleOrders);
+        if (kitchen != null) {
+            server.createContext("/kitchen", this::handleKitchen);
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // The port actually bound (useful when created with port 0)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+
+     //Stops accepting connections and waits up to a second for open requests.
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        intake.close();
+    }
+
+    private void handleMenu(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Contexts match by prefix, so /menuX would land here too
+            if (!exchange.getRequestURI().getPath().equals("/menu")) {
+                send(exchange, 404, "Unknown path");
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, "Use GET");
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            for (Product product : productManager.getAllProducts()) {
+                body.append(product.getId()).append('\t').append(product.getName()).append('\t');
+                product.getPrice().appendPlainTo(body);
+                body.append('\n');
+            }
+            send(exchange, 200, body.toString());
+        }
+    }
+
+    private void handleOrders(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // parts[0] is empty, parts[1] is "orders" (or e.g. "ordersX": contexts match by prefix)
+            if (parts.length < 2 || !parts[1].equals("orders")) {
+                send(exchange, 404, "Unknown path");
+                return;
+            }
+            try {
+                routeOrders(exchange, parts);
+            } catch (UncheckedIOException | IllegalStateException e) {
+                unavailable(exchange, e);
+            }
+        }
+    }
+
+    private void routeOrders(HttpExchange exchange, String[] parts) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (parts.length == 2) {
+            if (method.equals("POST")) {
+                placeOrder(exchange);
+            } else {
+                send(exchange, 405, "Use POST");
+            }
+            return;
+        }
+        if (parts.length == 3 && parts[2].equals("next")) {
+            if (!isStaff(exchange)) {
+                return;
+            }
+            if (method.equals("POST")) {
+                retrieveNextOrder(exchange);
+            } else {
+                send(exchange, 405, "Use POST");
+            }
+            return;
+        }
+
+        long orderId;
+        try {
+            orderId = Long.parseLong(parts[2]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send(exchange, 404, "Unknown path");
+            return;
+        }
+        if (parts.length == 3) {
+            if (!method.equals("GET")) {
+                send(exchange, 405, "Use GET");
+                return;
+            }
+            OrderStatus status = orderManager.getOrderStatus(orderId);
+            if (status == null) {
+                send(exchange, 404, "No order #" + orderId);
+            } else {
+                send(exchange, 200, status.name());
+            }
+        } else if (parts.length == 4 && method.equals("POST")) {
+            if (isStaff(exchange)) {
+                changeStatus(exchange, orderId, parts[3]);
+            }
+        } else {
+            send(exchange, 404, "Unknown path");
+        }
+    }
+
+    private void handleKitchen(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // parts[0] is empty, parts[1] is "kitchen" (or e.g. "kitchenX": contexts match by prefix)
+            if (parts.length < 2 || !parts[1].equals("kitchen")) {
+                send(exchange, 404, "Unknown path");
+                return;
+            }
+            if (!isStaff(exchange)) {
+                return;
+            }
+            try {
+                routeKitchen(exchange, parts);
+            } catch (UncheckedIOException | IllegalStateException e) {
+                unavailable(exchange, e);
+            }
+        }
+    }
+
+    private void routeKitchen(HttpExchange exchange, String[] parts) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (parts.length == 2) {
+            if (!method.equals("GET")) {
+                send(exchange, 405, "Use GET");
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            for (Station station : Station.values()) {
+                body.append(station.name()).append('\t').append(kitchen.pendingTickets(station)).append('\n');
+            }
+            send(exchange, 200, body.toString());
+            return;
+        }
+        Station station;
+        try {
+            station = Station.valueOf(parts[2].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 404, "Unknown station: " + parts[2]);
+            return;
+        }
+        if (!method.equals("POST")) {
+            send(exchange, 405, "Use POST");
+        } else if (parts.length == 4 && parts[3].equals("next")) {
+            KitchenTicket ticket = kitchen.takeTicket(station);
+            if (ticket == null) {
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            try {
+                send(exchange, 200, writeTicket(ticket));
+            } catch (IOException e) {
+                // Nobody at the station saw it; let the next request have it
+                kitchen.returnTicket(ticket);
+                throw e;
+            }
+        } else if (parts.length == 5 && parts[4].equals("done")) {
+            long orderId;
+            try {
+                orderId = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                send(exchange, 404, "Unknown path");
+                return;
+            }
+            if (!kitchen.hasOpenTicket(orderId, station)) {
+                send(exchange, 409, "No open " + station + " ticket for order #" + orderId);
+                return;
+            }
+            kitchen.finishTicket(orderId, station);
+            OrderStatus status = orderManager.getOrderStatus(orderId);
+            send(exchange, 200, status == null ? OrderStatus.COMPLETED.name() : status.name());
+        } else {
+            send(exchange, 404, "Unknown path");
+        }
+    }
+
+    private void placeOrder(HttpExchange exchange) throws IOException {
+        String body = readBody(exchange);
+        if (body == null) {
+            send(exchange, 413, "Cart too large");
+            return;
+        }
+        Order cart;
+        try {
+            cart = parseCart(body);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, e.getMessage());
+            return;
+        }
+        Order placed;
+        try {
+            placed = intake.submit(cart).join();
+        } catch (CompletionException e) {
+            // The catalog changed between parsing and validation
+            if (e.getCause() instanceof IllegalArgumentException) {
+                send(exchange, 400, e.getCause().getMessage());
+            } else {
+                // Not stored (e.g. the journal cannot write); the pipeline took it back
+                unavailable(exchange, e.getCause() != null ? e.getCause() : e);
+            }
+            return;
+        }
+        send(exchange, 201, String.valueOf(placed.getId()));
+    }
+
+
+     //Turns a cart body into an unplaced order, pricing it from the catalog.
+     //@throws IllegalArgumentException with a message for the client if the cart is bad.
+    Order parseCart(String body) {
+        boolean priority = false;
+        Order cart = null;
+        int lines = 0;
+        for (String raw : body.split("\n")) {
+            String line = raw.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (cart == null && line.equalsIgnoreCase("PRIORITY")) {
+                priority = true;
+                continue;
+            }
+            if (cart == null) {
+                cart = new Order(0, priority);
+            }
+            if (++lines > MAX_LINES) {
+                throw new IllegalArgumentException("More than " + MAX_LINES + " lines");
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("Expected \"productId quantity\": " + line);
+            }
+            Product product = productManager.getProductById(fields[0]);
+            if (product == null) {
+                throw new IllegalArgumentException("Unknown product: " + fields[0]);
+            }
+            int quantity;
+            try {
+                quantity = Integer.parseInt(fields[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad quantity: " + fields[1]);
+            }
+            if (quantity < 1 || quantity > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity must be 1 to " + MAX_QUANTITY + ": " + line);
+            }
+            cart.addItem(product, quantity);
+        }
+        if (cart == null) {
+            throw new IllegalArgumentException("Empty cart");
+        }
+        // Lines for the same product were merged above; check what they add up to
+        for (int line = 0; line < cart.getLineCount(); line++) {
+            if (cart.getLineQuantity(line) > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity must be 1 to " + MAX_QUANTITY + ": "
+                        + cart.getLineProduct(line).getId() + " " + cart.getLineQuantity(line));
+            }
+        }
+        return cart;
+    }
+
+    private void retrieveNextOrder(HttpExchange exchange) throws IOException {
+        Order next = orderManager.retrieveNextOrder();
+        if (next == null) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        try {
+            send(exchange, 200, writeOrder(next));
+        } catch (IOException e) {
+            // The cashier never got it; don't leave it stuck at a cashier nobody is at
+            orderManager.returnToPending(next);
+            throw e;
+        }
+    }
+
+    private void changeStatus(HttpExchange exchange, long orderId, String action) throws IOException {
+        boolean changed;
+        OrderStatus target;
+        switch (action.toLowerCase(Locale.ROOT)) {
+            case "prepare" -> {
+                Order order = orderManager.findOrder(orderId);
+                changed = order != null && orderManager.sendOrderToPreparation(order);
+                target = OrderStatus.PREPARING;
+            }
+            case "complete" -> {
+                changed = orderManager.completePreparation(orderId);
+                target = OrderStatus.COMPLETED;
+            }
+            case "cancel" -> {
+                changed = orderManager.cancelOrder(orderId);
+                target = OrderStatus.CANCELLED;
+            }
+            default -> {
+                send(exchange, 404, "Unknown action: " + action);
+                return;
+            }
+        }
+        if (changed) {
+            // Not looked up again: a finished order may already be forgotten
+            send(exchange, 200, target.name());
+            return;
+        }
+        // One lookup, so the 404/409 choice and the message agree
+        OrderStatus status = orderManager.getOrderStatus(orderId);
+        if (status == null) {
+            send(exchange, 404, "No order #" + orderId);
+        } else {
+            send(exchange, 409, "Order #" + orderId + " is " + status);
+        }
+    }
+
+
+     //Writes an order as text: a header line "id<TAB>PRIORITY|NORMAL<TAB>total<TAB>code"
+     //then one "productId<TAB>quantity<TAB>name" line per item.
+    static String writeOrder(Order order) {
+        StringBuilder text = new StringBuilder();
+        text.append(order.getId()).append('\t').append(order.isPriority() ? "PRIORITY" : "NORMAL").append('\t');
+        order.getTotalCost().appendPlainTo(text);
+        text.append('\t').append(order.getOrderId()).append('\n');
+        for (int line = 0; line < order.getLineCount(); line++) {
+            Product product = order.getLineProduct(line);
+            text.append(product.getId()).append('\t').append(order.getLineQuantity(line)).append('\t')
+                    .append(product.getName()).append('\n');
+        }
+        return text.toString();
+    }
+
+
+     //Writes a ticket as text: a header line "orderId<TAB>station<TAB>code", where
+     //station is the one to name when the ticket is done, then one
+     //"productId<TAB>quantity<TAB>name" line per item.
+    static String writeTicket(KitchenTicket ticket) {
+        Order order = ticket.getOrder();
+        StringBuilder text = new StringBuilder();
+        text.append(order.getId()).append('\t').append(ticket.getStation().name()).append('\t')
+                .append(order.getOrderId()).append('\n');
+        for (int line = 0; line < ticket.getLineCount(); line++) {
+            Product product = ticket.getLineProduct(line);
+            text.append(product.getId()).append('\t').append(ticket.getLineQuantity(line)).append('\t')
+                    .append(product.getName()).append('\n');
+        }
+        return text.toString();
+    }
+
+
+     //Checks the staff token, answering 401 if it is missing or wrong.
+     //@return true if the request may go on.
+    private boolean isStaff(HttpExchange exchange) throws IOException {
+        if (staffToken == null) {
+            return true;
+        }
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        byte[] given = header != null && header.startsWith("Bearer ")
+                ? header.substring("Bearer ".length()).strip().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        // Constant-time compare, so response timing says nothing about the token
+        if (MessageDigest.isEqual(staffToken, given)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        send(exchange, 401, "Staff token required");
+        return false;
+    }
+
+
+     //Answers 503 when the order store cannot take a change right now (the
+     //journal cannot write, or the server is shutting down), so the client
+     //gets a reply it can retry on instead of a dropped connection.
+    private static void unavailable(HttpExchange exchange, Throwable cause) throws IOException {
+        System.err.println("Intake request failed: " + cause);
+        send(exchange, 503, "Service unavailable, try again: " + cause.getMessage());
+    }
+
+
+     //Reads the request body, or returns null if it is over MAX_BODY.
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY + 1);
+            if (bytes.length > MAX_BODY) {
+                return null;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + (body.endsWith("\n") ? "" : "\n")).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
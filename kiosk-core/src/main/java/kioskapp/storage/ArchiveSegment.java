@@ -0,0 +1,435 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import kioskapp.model.ProductTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+
+ //One fixed-size archive file, memory-mapped, plus an in-memory index of the
+ //orders in it.
+ //
+ //File layout: a 16-byte header (magic, format version), then records:
+ //  int length (whole record), int CRC32 (of everything after it), byte type
+ //  PRODUCT: int ref, short+UTF-8 id, short+UTF-8 name, long price in centavos
+ //  ORDER:   long id, long placed millis, long completed millis, byte flags,
+ //           int line count, long total centavos, then per line int ref + int quantity
+ //Products are written once per segment and orders point at them by ref, so
+ //an order line is 8 bytes and every segment can be read on its own.
+ //A zero length or a bad CRC marks the end of the data. An order whose
+ //completion was undone keeps its record with the RETRACTED flag set, and
+ //is skipped by the index.
+ //
+ //Only the archive's writer changes a segment, while holding the archive lock;
+ //queries work from a View taken under that lock, which only covers records
+ //that were complete at the time. The ID sort is the exception: it is done
+ //by the archive's flush thread once the segment is full, and published
+ //through a volatile field.
+final class ArchiveSegment {
+    static final int MAGIC = 0x4A4B4152; // "JKAR"
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 16;
+
+    static final byte PRODUCT = 1;
+    static final byte ORDER = 2;
+    static final byte PRIORITY = 1;
+    static final byte RETRACTED = 2;
+
+    // Offsets within a record
+    static final int REC_CRC = 4;
+    static final int REC_TYPE = 8;
+    static final int REC_BODY = 9;
+    static final int ORDER_ID = 9;
+    static final int ORDER_PLACED = 17;
+    static final int ORDER_COMPLETED = 25;
+    static final int ORDER_FLAGS = 33;
+    static final int ORDER_LINES = 34;
+    static final int ORDER_TOTAL = 38;
+    static final int ORDER_FIRST_LINE = 46;
+    static final int LINE_BYTES = 8;
+
+    final long number;
+    final Path file;
+    final MappedByteBuffer buffer;
+
+    // Order index in file order. Arrays are replaced, never shrunk, when they
+    // grow, so a View's copy of the references stays valid.
+    private int count;
+    private int retracted; // orders in the index whose record is RETRACTED
+    private long[] times = new long[256];
+    private long[] ids = new long[256];
+    private int[] offsets = new int[256];
+    private boolean timeSorted = true; // false if the clock stepped back while writing
+    long minTime = Long.MAX_VALUE;
+    long maxTime = Long.MIN_VALUE;
+    long minId = Long.MAX_VALUE;
+    long maxId = Long.MIN_VALUE;
+
+    // Products by ref
+    private Product[] products = new Product[64];
+    private int productCount;
+    // ProductTable number -> ref, for the writer
+    private final Map<Integer, Integer> refs = new HashMap<>();
+
+    private int end = HEADER_BYTES; // where the next record goes
+    private volatile int[] byId;    // positions sorted by ID, once sealed
+
+    private ArchiveSegment(long number, Path file, MappedByteBuffer buffer) {
+        this.number = number;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+
+     //Creates an empty segment file of a fixed size, mapped for writing.
+    static ArchiveSegment create(Path file, long number, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT);
+            return new ArchiveSegment(number, file, buffer);
+        }
+    }
+
+
+     //Checks whether a segment file holds any record, without mapping it (a
+     //mapped file cannot be deleted on Windows until the mapping is collected).
+     //@return false if the first record slot is empty.
+    static boolean hasRecords(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            while (length.hasRemaining()) {
+                if (channel.read(length, HEADER_BYTES + length.position()) < 0) {
+                    return false;
+                }
+            }
+            return length.getInt(0) != 0;
+        }
+    }
+
+
+     //Maps an existing segment read-only and indexes it. Segments are never
+     //appended to after a restart: the archive starts a fresh one.
+    static ArchiveSegment open(Path file, long number) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            throw new IOException("Not an order archive segment: " + file);
+        }
+        ArchiveSegment segment = new ArchiveSegment(number, file, buffer);
+        segment.scan();
+        segment.seal();
+        return segment;
+    }
+
+
+     //Appends an order, preceded by any of its products this segment has not stored yet.
+     //@return false if it does not fit; nothing is written then.
+    boolean append(Order order, long completedMillis) {
+        int lines = order.getLineCount();
+        // Work out the size first so a record never straddles the end
+        int needed = ORDER_FIRST_LINE + lines * LINE_BYTES;
+        for (int line = 0; line < lines; line++) {
+            // Lines are distinct products, so each missing one is written once
+            int tableIndex = order.getLineProductIndex(line);
+            if (!refs.containsKey(tableIndex)) {
+                Product product = ProductTable.get(tableIndex);
+                needed += REC_BODY + 4 + 8
+                        + 2 + utf8Length(product.getId())
+                        + 2 + utf8Length(product.getName());
+            }
+        }
+        if (end + needed > buffer.capacity()) {
+            return false;
+        }
+
+        for (int line = 0; line < lines; line++) {
+            int tableIndex = order.getLineProductIndex(line);
+            if (!refs.containsKey(tableIndex)) {
+                writeProduct(tableIndex);
+            }
+        }
+
+        int start = end;
+        buffer.put(start + REC_TYPE, ORDER);
+        buffer.putLong(start + ORDER_ID, order.getId());
+        buffer.putLong(start + ORDER_PLACED, order.getOrderTimeNanos() / 1_000_000);
+        buffer.putLong(start + ORDER_COMPLETED, completedMillis);
+        buffer.put(start + ORDER_FLAGS, order.isPriority() ? PRIORITY : 0);
+        buffer.putInt(start + ORDER_LINES, lines);
+        buffer.putLong(start + ORDER_TOTAL, order.getTotalCentavos());
+        int at = start + ORDER_FIRST_LINE;
+        for (int line = 0; line < lines; line++, at += LINE_BYTES) {
+            buffer.putInt(at, refs.get(order.getLineProductIndex(line)));
+            buffer.putInt(at + 4, order.getLineQuantity(line));
+        }
+        finishRecord(start, at - start);
+        index(order.getId(), completedMillis, start);
+        return true;
+    }
+
+    int orderCount() {
+        return count - retracted;
+    }
+
+
+     //Marks an order appended by this run as not completed after all. Its
+     //record stays in the file, flagged so queries and later scans skip it.
+     //@return false if this segment has no such order to retract.
+    boolean retract(long id) {
+        if (buffer.isReadOnly() || count == 0 || id < minId || id > maxId) {
+            return false;
+        }
+        // Just appended, so it is near the end
+        for (int i = count - 1; i >= 0; i--) {
+            if (ids[i] != id) {
+                continue;
+            }
+            int start = offsets[i];
+            byte flags = buffer.get(start + ORDER_FLAGS);
+            if ((flags & RETRACTED) != 0) {
+                return false;
+            }
+            buffer.put(start + ORDER_FLAGS, (byte) (flags | RETRACTED));
+            writeCrc(start, buffer.getInt(start));
+            retracted++;
+            return true;
+        }
+        return false;
+    }
+
+
+     //Flushes written records to the file.
+    void force() {
+        buffer.force();
+    }
+
+
+     //Sorts the ID index; called once no more orders will be added, from any thread.
+    void seal() {
+        Integer[] positions = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        long[] idsNow = ids;
+        Arrays.sort(positions, (a, b) -> Long.compare(idsNow[a], idsNow[b]));
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = positions[i];
+        }
+        byId = sorted;
+    }
+
+
+     //Captures what queries may read right now. Call under the archive lock.
+    View view() {
+        return new View(this, count, times, ids, offsets, timeSorted, products, byId);
+    }
+
+    private void writeProduct(int tableIndex) {
+        Product product = ProductTable.get(tableIndex);
+        int ref = productCount;
+        byte[] id = product.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] name = product.getName().getBytes(StandardCharsets.UTF_8);
+        int start = end;
+        int at = start + REC_BODY;
+        buffer.put(start + REC_TYPE, PRODUCT);
+        buffer.putInt(at, ref);
+        at += 4;
+        at = putBytes(at, id);
+        at = putBytes(at, name);
+        buffer.putLong(at, product.getPrice().centavos());
+        at += 8;
+        finishRecord(start, at - start);
+        refs.put(tableIndex, ref);
+        addProduct(product);
+    }
+
+    private int putBytes(int at, byte[] bytes) {
+        buffer.putShort(at, (short) bytes.length);
+        buffer.put(at + 2, bytes);
+        return at + 2 + bytes.length;
+    }
+
+    private void finishRecord(int start, int length) {
+        writeCrc(start, length);
+        // Length last: until it is written the record reads as the end of the data
+        buffer.putInt(start, length);
+        end = start + length;
+    }
+
+    private void writeCrc(int start, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + REC_TYPE, length - REC_TYPE));
+        buffer.putInt(start + REC_CRC, (int) crc.getValue());
+    }
+
+
+     //Reads the records of a segment written by an earlier run.
+    private void scan() {
+        int limit = buffer.limit();
+        CRC32 crc = new CRC32();
+        int at = HEADER_BYTES;
+        while (at + REC_BODY <= limit) {
+            int length = buffer.getInt(at);
+            if (length < REC_BODY || length > limit - at) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(at + REC_TYPE, length - REC_TYPE));
+            if ((int) crc.getValue() != buffer.getInt(at + REC_CRC)) {
+                break; // torn write from a crash: the data ends here
+            }
+            byte type = buffer.get(at + REC_TYPE);
+            if (type == PRODUCT) {
+                int pos = at + REC_BODY + 4;
+                byte[] id = new byte[Short.toUnsignedInt(buffer.getShort(pos))];
+                buffer.get(pos + 2, id);
+                pos += 2 + id.length;
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort(pos))];
+                buffer.get(pos + 2, name);
+                pos += 2 + name.length;
+                addProduct(ProductTable.intern(new Product(new String(id, StandardCharsets.UTF_8),
+                        new String(name, StandardCharsets.UTF_8), Money.ofCentavos(buffer.getLong(pos)))));
+            } else if (type == ORDER && (buffer.get(at + ORDER_FLAGS) & RETRACTED) == 0) {
+                index(buffer.getLong(at + ORDER_ID), buffer.getLong(at + ORDER_COMPLETED), at);
+            }
+            at += length;
+        }
+        end = at;
+    }
+
+    private void addProduct(Product product) {
+        if (productCount == products.length) {
+            products = Arrays.copyOf(products, productCount * 2);
+        }
+        products[productCount++] = product;
+    }
+
+    private void index(long id, long completedMillis, int offset) {
+        if (count == times.length) {
+            times = Arrays.copyOf(times, count * 2);
+            ids = Arrays.copyOf(ids, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        if (count > 0 && completedMillis < times[count - 1]) {
+            timeSorted = false;
+        }
+        times[count] = completedMillis;
+        ids[count] = id;
+        offsets[count] = offset;
+        count++;
+        minTime = Math.min(minTime, completedMillis);
+        maxTime = Math.max(maxTime, completedMillis);
+        minId = Math.min(minId, id);
+        maxId = Math.max(maxId, id);
+    }
+
+    private static int utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+
+     //A segment as it was when the view was taken.
+    static final class View {
+        final ArchiveSegment segment;
+        final int count;
+        final long[] times;
+        final long[] ids;
+        final int[] offsets;
+        final boolean timeSorted;
+        final Product[] products;
+        final int[] byId; // null while the segment is still being written
+
+        View(ArchiveSegment segment, int count, long[] times, long[] ids, int[] offsets, boolean timeSorted,
+             Product[] products, int[] byId) {
+            this.segment = segment;
+            this.count = count;
+            this.times = times;
+            this.ids = ids;
+            this.offsets = offsets;
+            this.timeSorted = timeSorted;
+            this.products = products;
+            this.byId = byId;
+        }
+
+
+         //Where a scan for orders completed at or after a time starts; 0 if
+         //the times are out of order and every order has to be checked.
+        int firstAtOrAfter(long fromMillis) {
+            if (!timeSorted) {
+                return 0;
+            }
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < fromMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+
+         //@return true if the order at a position was retracted after it was appended.
+        boolean isRetracted(int position) {
+            return (segment.buffer.get(offsets[position] + ORDER_FLAGS) & RETRACTED) != 0;
+        }
+
+
+         //@return The position of an order, or -1. A retracted record is
+         //skipped; the same order may have been appended again after it.
+        int find(long id) {
+            if (byId == null) {
+                for (int i = 0; i < count; i++) {
+                    if (ids[i] == id && !isRetracted(i)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = ids[byId[mid]];
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    // Look at every copy of the ID around the one found
+                    int first = mid;
+                    while (first > 0 && ids[byId[first - 1]] == id) {
+                        first--;
+                    }
+                    for (int i = first; i < count && ids[byId[i]] == id; i++) {
+                        if (!isRetracted(byId[i])) {
+                            return byId[i];
+                        }
+                    }
+                    return -1;
+                }
+            }
+            return -1;
+        }
+    }
+}
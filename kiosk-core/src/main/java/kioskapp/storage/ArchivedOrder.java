@@ -0,0 +1,102 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+
+import java.nio.MappedByteBuffer;
+
+
+ //A completed order as stored in the archive, read straight from the mapped
+ //segment file. Nothing is copied until a getter is called.
+ //
+ //OrderArchive.forEachBetween reuses one instance for every order it visits,
+ //so keep the values you need, or call toOrder(), rather than the object itself.
+public final class ArchivedOrder {
+    private MappedByteBuffer buffer;
+    private Product[] products;
+    private int offset;
+
+    ArchivedOrder() {
+    }
+
+    ArchivedOrder(ArchiveSegment.View view, int position) {
+        moveTo(view, position);
+    }
+
+    void moveTo(ArchiveSegment.View view, int position) {
+        this.buffer = view.segment.buffer;
+        this.products = view.products;
+        this.offset = view.offsets[position];
+    }
+
+    public long getId() {
+        return buffer.getLong(offset + ArchiveSegment.ORDER_ID);
+    }
+
+    // Short code shown to customers and staff; see Order.getOrderId()
+    public String getOrderId() {
+        return Order.displayCode(getId());
+    }
+
+    // When the order was placed, in epoch milliseconds
+    public long getPlacedMillis() {
+        return buffer.getLong(offset + ArchiveSegment.ORDER_PLACED);
+    }
+
+    // When the kitchen completed it, in epoch milliseconds
+    public long getCompletedMillis() {
+        return buffer.getLong(offset + ArchiveSegment.ORDER_COMPLETED);
+    }
+
+    public boolean isPriority() {
+        return (buffer.get(offset + ArchiveSegment.ORDER_FLAGS) & ArchiveSegment.PRIORITY) != 0;
+    }
+
+    public int getLineCount() {
+        return buffer.getInt(offset + ArchiveSegment.ORDER_LINES);
+    }
+
+    // The product version the line was sold at
+    public Product getLineProduct(int line) {
+        return products[buffer.getInt(lineOffset(line))];
+    }
+
+    public int getLineQuantity(int line) {
+        return buffer.getInt(lineOffset(line) + 4);
+    }
+
+    public long getTotalCentavos() {
+        return buffer.getLong(offset + ArchiveSegment.ORDER_TOTAL);
+    }
+
+    public Money getTotalCost() {
+        return Money.ofCentavos(getTotalCentavos());
+    }
+
+
+     //Copies the archived order into a completed Order, e.g. to show it on a screen.
+     //@return A new order with the archived ID, time, priority and lines.
+    public Order toOrder() {
+        Order order = new Order(getId(), isPriority(), getPlacedMillis() * 1_000_000);
+        for (int line = 0; line < getLineCount(); line++) {
+            order.addItem(getLineProduct(line), getLineQuantity(line));
+        }
+        order.compareAndSetStatus(OrderStatus.PENDING, OrderStatus.COMPLETED);
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedOrder{" + getOrderId() + " #" + getId() + ", " + getLineCount() + " lines, "
+                + getTotalCost() + (isPriority() ? ", priority" : "") + "}";
+    }
+
+    private int lineOffset(int line) {
+        if (line < 0 || line >= getLineCount()) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + getLineCount());
+        }
+        return offset + ArchiveSegment.ORDER_FIRST_LINE + line * ArchiveSegment.LINE_BYTES;
+    }
+}
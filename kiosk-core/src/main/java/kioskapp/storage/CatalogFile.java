@@ -0,0 +1,149 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+
+ //Reads and writes the menu file: one "id,name,price" line per product,
+ //in the order the screens list them. The name may contain commas (the ID is
+ //everything before the first comma and the price everything after the last).
+ //Blank lines and lines starting with # are ignored, which is why an ID may
+ //not contain a comma or start with # (see checkId). Neither field may hold a
+ //line break or spaces at either end, as those do not survive a read (see checkName).
+ //
+ //  # id,name,price
+ //  C1,Chickenjoy 1pc Meal,120.00
+ //  D1,Coke Regular,50
+public final class CatalogFile {
+
+    private CatalogFile() {
+    }
+
+
+     //Reads the whole menu.
+     //@param file The menu file.
+     //@return The products, in file order.
+     //@throws IOException if the file cannot be read or a line is malformed
+     //        (the message names the line), so a half-edited file is never applied.
+    public static List<Product> read(Path file) throws IOException {
+        List<Product> products = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int firstComma = line.indexOf(',');
+            int lastComma = line.lastIndexOf(',');
+            if (firstComma <= 0 || lastComma == firstComma) {
+                throw new IOException(file.getFileName() + " line " + number + ": expected id,name,price");
+            }
+            String id = line.substring(0, firstComma).strip();
+            String name = line.substring(firstComma + 1, lastComma).strip();
+            if (id.isEmpty()) {
+                throw new IOException(file.getFileName() + " line " + number + ": expected id,name,price");
+            }
+            Money price;
+            try {
+                price = Money.parse(line.substring(lastComma + 1));
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IOException(file.getFileName() + " line " + number + ": bad price", e);
+            }
+            if (name.isEmpty() || price.isNegative()) {
+                throw new IOException(file.getFileName() + " line " + number + ": name must be set and price not negative");
+            }
+            if (!ids.add(id.toUpperCase(Locale.ROOT))) {
+                throw new IOException(file.getFileName() + " line " + number + ": duplicate ID " + id);
+            }
+            products.add(new Product(id, name, price));
+        }
+        return products;
+    }
+
+
+     //Writes a menu file, replacing it in one step so a watcher never sees half of it.
+     //@param file     The menu file.
+     //@param products The products, in display order.
+     //@throws IllegalArgumentException if an ID or name could not be read back (see checkId, checkName).
+    public static void write(Path file, List<Product> products) throws IOException {
+        for (Product product : products) {
+            checkId(product.getId());
+            checkName(product.getName());
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        boolean moved = false;
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write("# id,name,price");
+                out.newLine();
+                for (Product product : products) {
+                    out.write(product.getId() + "," + product.getName() + "," + product.getPrice().toPlainString());
+                    out.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            if (!moved) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // The write already failed; that error is the one to report
+                }
+            }
+        }
+    }
+
+
+     //Checks that an ID survives a write and read: not blank, no commas or
+     //line breaks, no # in front and no spaces around it.
+     //@param id The product ID.
+     //@throws IllegalArgumentException if it would not.
+    public static void checkId(String id) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Product ID must not be blank");
+        }
+        if (!id.equals(id.strip())) {
+            throw new IllegalArgumentException("Product ID must not start or end with spaces: \"" + id + "\"");
+        }
+        if (id.startsWith("#")) {
+            throw new IllegalArgumentException("Product ID must not start with #: " + id);
+        }
+        if (id.indexOf(',') >= 0 || id.indexOf('\n') >= 0 || id.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Product ID must not contain commas or line breaks: " + id);
+        }
+    }
+
+
+     //Checks that a product name survives a write and read: not blank, no
+     //line breaks and no spaces around it. Commas are fine, as the name is
+     //everything between the first and the last comma of its line.
+     //@param name The product name.
+     //@throws IllegalArgumentException if it would not.
+    public static void checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Product name must not be blank");
+        }
+        if (!name.equals(name.strip())) {
+            throw new IllegalArgumentException("Product name must not start or end with spaces: \"" + name + "\"");
+        }
+        if (name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Product name must not contain line breaks: " + name);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package kioskapp.storage;
+
+import kioskapp.model.OrderStatus;
+
+
+ //Kinds of records written to the order journal.
+ //Each code is stored as one byte, so never reuse or renumber them.
+public enum JournalEvent {
+    PLACED(1, OrderStatus.PENDING),
+    RETRIEVED(2, OrderStatus.AT_CASHIER),
+    SENT_TO_PREPARATION(3, OrderStatus.PREPARING),
+    COMPLETED(4, OrderStatus.COMPLETED),
+    CANCELLED(5, OrderStatus.CANCELLED),
+    RETURNED(6, OrderStatus.PENDING); // a retrieved order went back to the queue
+
+    private final byte code;
+    private final OrderStatus status; // Status the order has after this event
+
+    JournalEvent(int code, OrderStatus status) {
+        this.code = (byte) code;
+        this.status = status;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public OrderStatus status() {
+        return status;
+    }
+
+
+     //Finds the event for a stored code.
+     //@param code The byte read from the journal.
+     //@return The event or null if the code is unknown.
+    public static JournalEvent fromCode(byte code) {
+        for (JournalEvent event : values()) {
+            if (event.code == code) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+
+     //Finds the event that moves an order into the given status
+     //(PLACED for PENDING).
+     //@param status The new status.
+     //@return The matching event.
+    public static JournalEvent forStatus(OrderStatus status) {
+        for (JournalEvent event : values()) {
+            if (event.status == status) {
+                return event;
+            }
+        }
+        throw new IllegalArgumentException("No journal event for status " + status);
+    }
+}
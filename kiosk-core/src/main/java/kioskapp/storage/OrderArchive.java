@@ -0,0 +1,380 @@
+package kioskapp.storage;
+
+import kioskapp.model.Order;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+
+ //History of completed orders, kept on disk for as long as the files are kept
+ //(the journal forgets an order once it is done, and the sales store starts
+ //empty at every launch).
+ //
+ //Orders are appended to numbered segment files of a fixed size that are
+ //memory-mapped, so writing one is a few stores into the page cache and
+ //reading one copies nothing. Each segment keeps an index of completion times
+ //and order IDs in memory; a time-range query skips whole segments by their
+ //first and last times and binary-searches the rest. The index is rebuilt by
+ //scanning the files at startup.
+ //
+ //Appends take turns on this object's lock. Queries only hold it long enough
+ //to see which orders exist, then read the files without it. A segment that
+ //fills up is forced to disk and sorted on a background thread, so the
+ //completing thread (usually the kitchen's) never waits for the disk.
+public class OrderArchive implements AutoCloseable {
+    public static final int DEFAULT_SEGMENT_BYTES = 8 << 20;
+
+    private static final String SEGMENT_PREFIX = "archive-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final ExecutorService flusher; // null when read-only
+
+    // Guarded by this
+    private final List<ArchiveSegment> segments = new ArrayList<>(); // oldest first; the last one is written to
+    private ArchiveSegment active; // null when read-only
+    // Dropped segments whose file could not be deleted yet (still mapped somewhere)
+    private final List<Path> undeleted = new ArrayList<>();
+    private boolean closed;
+
+    private OrderArchive(Path directory, int segmentBytes, boolean writable) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        if (!writable) {
+            flusher = null;
+            return;
+        }
+        flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "order-archive-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+     //Opens (or creates) an archive with the default segment size.
+     //@param directory Folder that holds the segment files.
+     //@return The open archive.
+    public static OrderArchive open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+
+     //Opens (or creates) an archive in a directory. New orders always go to a
+     //fresh segment, so a torn record at the end of the last run is never appended to.
+     //@param directory    Folder that holds the segment files.
+     //@param segmentBytes Size of each new segment file.
+     //@return The open archive.
+    public static OrderArchive open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < ArchiveSegment.HEADER_BYTES + 1024) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        OrderArchive archive = new OrderArchive(directory, segmentBytes, true);
+        long last = archive.load(true);
+        archive.roll(last + 1);
+        return archive;
+    }
+
+
+     //Opens an archive for queries only, e.g. from another process while the
+     //backend keeps appending. It sees the orders written up to this moment.
+     //@param directory Folder that holds the segment files.
+     //@return The archive; append() fails on it.
+    public static OrderArchive openReadOnly(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("No order archive in " + directory);
+        }
+        OrderArchive archive = new OrderArchive(directory, 0, false);
+        archive.load(false);
+        return archive;
+    }
+
+
+     //Adds a completed order. Nothing is forced to disk here: the mapped pages
+     //are written back by the OS, and on close. A full segment is handed to the
+     //flush thread and the order goes to a new one.
+     //@param order           The completed order.
+     //@param completedMillis When it was completed, in epoch milliseconds.
+     //@throws IOException if a new segment file cannot be created.
+    public synchronized void append(Order order, long completedMillis) throws IOException {
+        if (closed || active == null) {
+            throw new IOException("Order archive is closed or read-only");
+        }
+        if (active.append(order, completedMillis)) {
+            return;
+        }
+        ArchiveSegment full = active;
+        roll(full.number + 1);
+        flusher.execute(() -> sealFull(full));
+        if (!active.append(order, completedMillis)) {
+            throw new IOException("Order #" + order.getId() + " does not fit in an empty archive segment");
+        }
+    }
+
+
+     //Takes back an order appended by this run whose completion did not
+     //stick, e.g. because the journal could not store it. It no longer shows
+     //up in queries, and can be appended again once it really is completed.
+     //@param id The order ID.
+     //@return false if no such order was appended by this run.
+    public synchronized boolean retract(long id) {
+        if (closed) {
+            return false;
+        }
+        // Newest first: it was appended a moment ago
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i).retract(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+     //Visits the orders completed in [fromMillis, toMillis), oldest segment first.
+     //Orders come in completion order unless the clock was set back.
+     //@param fromMillis First completion time to include, in epoch milliseconds.
+     //@param toMillis   First completion time to leave out.
+     //@param action     Gets each order; the object is reused (see ArchivedOrder).
+     //@return How many orders were visited.
+    public int forEachBetween(long fromMillis, long toMillis, Consumer<ArchivedOrder> action) {
+        ArchivedOrder cursor = new ArchivedOrder();
+        int visited = 0;
+        for (ArchiveSegment.View view : views(fromMillis, toMillis)) {
+            for (int i = view.firstAtOrAfter(fromMillis); i < view.count; i++) {
+                long time = view.times[i];
+                if (time >= toMillis) {
+                    if (view.timeSorted) {
+                        break;
+                    }
+                    continue;
+                }
+                if (time < fromMillis || view.isRetracted(i)) {
+                    continue;
+                }
+                cursor.moveTo(view, i);
+                action.accept(cursor);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+
+     //Copies out the orders completed in [fromMillis, toMillis).
+     //@return The orders as completed Order objects.
+    public List<Order> ordersBetween(long fromMillis, long toMillis) {
+        List<Order> orders = new ArrayList<>();
+        forEachBetween(fromMillis, toMillis, archived -> orders.add(archived.toOrder()));
+        return orders;
+    }
+
+
+     //Finds an archived order by its full ID.
+     //@param id The order ID.
+     //@return The order, or null if it is not in the archive.
+    public ArchivedOrder findById(long id) {
+        List<ArchiveSegment.View> snapshot = new ArrayList<>();
+        synchronized (this) {
+            for (ArchiveSegment segment : segments) {
+                if (segment.orderCount() > 0 && id >= segment.minId && id <= segment.maxId) {
+                    snapshot.add(segment.view());
+                }
+            }
+        }
+        // Newest first: a lookup is usually about a recent order
+        Collections.reverse(snapshot);
+        for (ArchiveSegment.View view : snapshot) {
+            int position = view.find(id);
+            if (position >= 0) {
+                return new ArchivedOrder(view, position);
+            }
+        }
+        return null;
+    }
+
+
+     //Drops the segments whose orders were all completed before a time.
+     //The segment being written to is kept. A file that is still mapped (by
+     //a query's view, or by another process) cannot be deleted on Windows; it
+     //leaves the archive now and its deletion is retried on later calls.
+     //@param cutoffMillis Epoch milliseconds; older orders may be dropped.
+     //@return How many orders were dropped.
+     //@throws IOException if the archive is read-only.
+    public synchronized int deleteBefore(long cutoffMillis) throws IOException {
+        if (active == null) {
+            throw new IOException("Order archive is read-only");
+        }
+        undeleted.removeIf(OrderArchive::tryDelete);
+        int deleted = 0;
+        for (int i = 0; i < segments.size() - 1; ) {
+            ArchiveSegment segment = segments.get(i);
+            if (segment.maxTime < cutoffMillis) {
+                segments.remove(i);
+                deleted += segment.orderCount();
+                if (!tryDelete(segment.file)) {
+                    undeleted.add(segment.file);
+                }
+            } else {
+                i++;
+            }
+        }
+        return deleted;
+    }
+
+
+     //Makes every archived order durable: waits for full segments being
+     //flushed, then forces the one being written to. Call it before the
+     //order journal drops completed orders, so a power cut cannot lose them
+     //from both places.
+    public void force() {
+        ExecutorService pending;
+        synchronized (this) {
+            if (closed || active == null) {
+                return;
+            }
+            pending = flusher;
+        }
+        try {
+            // The flush thread runs tasks in order, so this waits for all before it
+            pending.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // Closed meanwhile; close() forces everything itself
+            return;
+        }
+        ArchiveSegment current;
+        synchronized (this) {
+            current = active;
+        }
+        // Outside the lock: appends carry on while the pages are written back
+        current.force();
+    }
+
+
+     //Counts the archived orders.
+     //@return The number of orders in all segments.
+    public synchronized long size() {
+        long total = 0;
+        for (ArchiveSegment segment : segments) {
+            total += segment.orderCount();
+        }
+        return total;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+
+     //Writes everything back to the files. Later appends fail.
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            if (flusher != null) {
+                // Let the segments that filled up reach the disk first
+                flusher.shutdown();
+                try {
+                    flusher.awaitTermination(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (active != null) {
+                active.force();
+            }
+        }
+    }
+
+
+     //Runs on the flush thread: writes a full segment back to its file and
+     //sorts its ID index. Queries keep scanning it until the sort is done.
+    private static void sealFull(ArchiveSegment segment) {
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            System.err.println("Archive segment " + segment.file + " not forced to disk: " + e.getMessage());
+        }
+        segment.seal();
+    }
+
+    private synchronized List<ArchiveSegment.View> views(long fromMillis, long toMillis) {
+        List<ArchiveSegment.View> views = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            if (segment.orderCount() > 0 && segment.maxTime >= fromMillis && segment.minTime < toMillis) {
+                views.add(segment.view());
+            }
+        }
+        return views;
+    }
+
+     //Maps the existing segments.
+     //@param tidy Delete segments with nothing in them (only the writer may).
+     //@return The highest segment number, or 0 if there are none.
+    private long load(boolean tidy) throws IOException {
+        long last = 0;
+        for (long number : listNumbers(directory)) {
+            Path file = segmentPath(directory, number);
+            last = number;
+            if (tidy && !ArchiveSegment.hasRecords(file)) {
+                // A run that archived nothing; don't let these pile up. Checked
+                // before mapping, as a mapped file cannot be deleted everywhere
+                tryDelete(file);
+                continue;
+            }
+            segments.add(ArchiveSegment.open(file, number));
+        }
+        return last;
+    }
+
+     //@return true if the file is gone.
+    private static boolean tryDelete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void roll(long number) throws IOException {
+        active = ArchiveSegment.create(segmentPath(directory, number), number, segmentBytes);
+        segments.add(active);
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static List<Long> listNumbers(Path directory) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+}
@@ -0,0 +1,49 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+ //Binary form of an order, shared by the journal and the snapshots.
+ //Products are written in full so an order can be rebuilt without the catalog.
+final class OrderCodec {
+
+    private OrderCodec() {
+    }
+
+
+     //Writes an order's ID, time, priority and items.
+    static void write(DataOutput out, Order order) throws IOException {
+        out.writeLong(order.getId());
+        out.writeLong(order.getOrderTimeNanos());
+        out.writeBoolean(order.isPriority());
+        out.writeInt(order.getLineCount());
+        for (int line = 0; line < order.getLineCount(); line++) {
+            Product product = order.getLineProduct(line);
+            out.writeUTF(product.getId());
+            out.writeUTF(product.getName());
+            out.writeLong(product.getPrice().centavos());
+            out.writeInt(order.getLineQuantity(line));
+        }
+    }
+
+
+     //Reads an order written by write(). The order comes back with status PENDING.
+    static Order read(DataInput in) throws IOException {
+        long id = in.readLong();
+        long orderTimeNanos = in.readLong();
+        boolean priority = in.readBoolean();
+        Order order = new Order(id, priority, orderTimeNanos);
+        int itemCount = in.readInt();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = new Product(in.readUTF(), in.readUTF(), Money.ofCentavos(in.readLong()));
+            order.addItem(product, in.readInt());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,623 @@
+package kioskapp.storage;
+
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+
+ //Append-only log of order lifecycle events, so orders survive a crash.
+ //
+ //Records go into an in-memory batch; one background thread writes the batch
+ //through a FileChannel and fsyncs it, and every caller whose record was in
+ //that batch is released together (group commit). While one batch is being
+ //synced the next one fills up, so many kiosks share each fsync.
+ //
+ //The log is split into numbered segments. A checkpoint starts a new segment
+ //and writes a snapshot of all live orders next to it; older segments are then
+ //deleted, so recovery only loads the latest snapshot and replays a short tail.
+ //
+ //Only one journal may be open on a directory at a time; open() holds a lock
+ //on its journal.lock file until close().
+public class OrderJournal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x4A4B534E; // "JKSN"
+    private static final int HEADER_BYTES = 8; // record length + CRC32
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final Path directory;
+    private final FileChannel lockChannel; // holds the directory lock while open
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasWork = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private ByteBuffer filling = ByteBuffer.allocate(64 * 1024);  // batch being appended to
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);  // batch being written by the flusher
+    private long appendedSeq;    // last record handed to append()
+    private long durableSeq;     // last record known to be on disk
+    private FileChannel channel; // current segment
+    private long segmentNumber;
+    private IOException failure; // set if the flusher could not write
+    private boolean closing;
+
+
+    private OrderJournal(Path directory, FileChannel lockChannel, long segmentNumber) throws IOException {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.segmentNumber = segmentNumber;
+        this.channel = openSegment(segmentNumber);
+        this.flusher = new Thread(this::flushLoop, "order-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+
+     //Opens (or creates) a journal in a directory. New records always go to a
+     //fresh segment, so a torn record at the end of the last run is never appended to.
+     //@param directory Folder that holds the journal and snapshot files.
+     //@return The open journal.
+     //@throws IOException if the directory or a file cannot be opened.
+     //@throws IllegalStateException if another process (or another journal in
+     //        this one) has the directory open. Not an IOException on purpose:
+     //        falling back to no journal would lose orders, so startup should stop.
+    public static OrderJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            return open(directory, lockChannel);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    private static OrderJournal open(Path directory, FileChannel lockChannel) throws IOException {
+        // Two writers would both start segment last+1 and delete each other's files
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Order journal in " + directory + " is already in use by another kiosk process");
+        }
+        long lastSegment = 0;
+        for (long number : listNumbers(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            lastSegment = Math.max(lastSegment, number);
+        }
+        for (long number : listNumbers(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            lastSegment = Math.max(lastSegment, number);
+        }
+        return new OrderJournal(directory, lockChannel, lastSegment + 1);
+    }
+
+
+     //Rebuilds the orders that were still open when the journal was last used:
+     //the latest snapshot plus every segment written after it.
+     //@return The live orders (with their last status), the orders completed in
+     //        the replayed segments, and the highest order ID seen.
+     //@throws IOException if a file cannot be read, the latest snapshot is
+     //        damaged (the segments it replaced are gone, so starting without
+     //        it would quietly lose every order it held), or a segment has a bad
+     //        record with good ones after it.
+    public RecoveredState recover() throws IOException {
+        List<Long> snapshots = listNumbers(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        Map<Long, Order> live = new LinkedHashMap<>();
+        List<CompletedOrder> completed = new ArrayList<>();
+        long maxOrderId = 0;
+        long firstSegment = 0;
+        // Snapshots are renamed into place whole, so the newest one is never half written
+        if (!snapshots.isEmpty()) {
+            firstSegment = snapshots.get(snapshots.size() - 1);
+            maxOrderId = readSnapshot(snapshotPath(firstSegment), live);
+        }
+        for (long number : listNumbers(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (number >= firstSegment && number < segmentNumber) {
+                maxOrderId = Math.max(maxOrderId, replaySegment(segmentPath(number), live, completed));
+            }
+        }
+        return new RecoveredState(new ArrayList<>(live.values()), completed, maxOrderId);
+    }
+
+
+     //Adds an event to the current batch. Does not wait for the disk.
+     //@param event The lifecycle event.
+     //@param order The order it happened to.
+     //@return A sequence number to pass to awaitDurable().
+    public long append(JournalEvent event, Order order) {
+        byte[] record = encode(event, order);
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Order journal is unusable", failure);
+            }
+            if (closing) {
+                throw new IllegalStateException("Order journal is closed");
+            }
+            if (filling.remaining() < HEADER_BYTES + record.length) {
+                filling = grow(filling, HEADER_BYTES + record.length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            filling.putInt(record.length);
+            filling.putInt((int) crc.getValue());
+            filling.put(record);
+            hasWork.signal();
+            return ++appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+     //Blocks until the record with the given sequence number has been fsynced.
+     //@param seq A value returned by append(); 0 returns at once.
+    public void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durableSeq < seq) {
+                throw new UncheckedIOException("Order journal write failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+     //Starts a new segment and saves the given live orders as its snapshot,
+     //then deletes the segments and snapshots the new snapshot replaces.
+     //The caller must stop all appends while this runs, so the snapshot and the
+     //segment boundary describe the same moment.
+     //@param liveOrders  Every order that is not completed or cancelled.
+     //@param maxOrderId  The highest order ID handed out so far.
+    public void checkpoint(Collection<Order> liveOrders, long maxOrderId) throws IOException {
+        finishCheckpoint(startCheckpoint(liveOrders, maxOrderId));
+    }
+
+
+     //First half of a checkpoint, the part that needs appends stopped: moves
+     //to a new segment (after the batch being synced reaches the old one) and
+     //copies the live orders' current state into the snapshot.
+     //@param liveOrders  Every order that is not completed or cancelled.
+     //@param maxOrderId  The highest order ID handed out so far.
+     //@return The snapshot to pass to finishCheckpoint() once appends may go on.
+    public Checkpoint startCheckpoint(Collection<Order> liveOrders, long maxOrderId) throws IOException {
+        long newSegment;
+        lock.lock();
+        try {
+            // Let the flusher drain everything into the old segment first
+            while (durableSeq < appendedSeq && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            newSegment = segmentNumber + 1;
+            FileChannel next = openSegment(newSegment);
+            channel.close();
+            channel = next;
+            segmentNumber = newSegment;
+        } finally {
+            lock.unlock();
+        }
+        return new Checkpoint(newSegment, encodeSnapshot(liveOrders, maxOrderId));
+    }
+
+
+     //Second half of a checkpoint: writes and fsyncs the snapshot, then deletes
+     //the files it replaces. Appends can carry on meanwhile; until the snapshot
+     //is in place, recovery still uses the previous one and replays from there.
+     //@param checkpoint What startCheckpoint() returned.
+    public void finishCheckpoint(Checkpoint checkpoint) throws IOException {
+        writeSnapshot(checkpoint.segment, checkpoint.snapshot);
+        deleteBefore(checkpoint.segment);
+    }
+
+
+     //Flushes what is left and stops the flusher thread.
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closing = true;
+            hasWork.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+            // Releases the directory lock
+            lockChannel.close();
+        }
+    }
+
+
+     //Background loop: swap batches, write, fsync, release waiters.
+    private void flushLoop() {
+        while (true) {
+            FileChannel target;
+            long batchSeq;
+            lock.lock();
+            try {
+                while (filling.position() == 0 && !closing) {
+                    hasWork.awaitUninterruptibly();
+                }
+                if (filling.position() == 0) {
+                    return; // closing and nothing left
+                }
+                ByteBuffer batch = filling;
+                filling = writing;
+                writing = batch;
+                batchSeq = appendedSeq;
+                target = channel;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    target.write(writing);
+                }
+                target.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            writing.clear();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    System.err.println("Order journal write failed: " + error.getMessage());
+                } else {
+                    durableSeq = batchSeq;
+                }
+                flushed.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static byte[] encode(JournalEvent event, Order order) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(event.code());
+            out.writeLong(order.getId());
+            out.writeLong(System.currentTimeMillis());
+            if (event == JournalEvent.PLACED) {
+                OrderCodec.write(out, order);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen with an in-memory stream
+        }
+    }
+
+
+     //Applies one segment to the live set. A torn or corrupt record ends the
+     //segment quietly only when no good record follows it, i.e. it is the tail
+     //that was being written during a crash.
+     //@param completed Gets the orders this segment completes, with their completion time.
+     //@return The highest order ID placed in this segment.
+     //@throws IOException if a bad record has good ones after it: skipping them
+     //        would lose durable events, and the checkpoint after recovery
+     //        would then delete the only copy.
+    private static long replaySegment(Path path, Map<Long, Order> live, List<CompletedOrder> completed) throws IOException {
+        long maxOrderId = 0;
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= HEADER_BYTES) {
+            int start = data.position();
+            byte[] record = readRecord(data, crc);
+            if (record == null) {
+                if (hasRecordAfter(data, start + 1, crc)) {
+                    throw new IOException("Order journal segment " + path + " is damaged at byte " + start
+                            + " and has records after it");
+                }
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            JournalEvent event = JournalEvent.fromCode(in.readByte());
+            long orderId = in.readLong();
+            long eventMillis = in.readLong();
+            if (event == null) {
+                continue;
+            }
+            if (event == JournalEvent.PLACED) {
+                Order order = OrderCodec.read(in);
+                live.putIfAbsent(orderId, order);
+                maxOrderId = Math.max(maxOrderId, orderId);
+                continue;
+            }
+            Order order = live.get(orderId);
+            if (order == null) {
+                continue; // already finished, or placed before the snapshot it was left out of
+            }
+            OrderStatus current = order.getStatus();
+            if (current.canMoveTo(event.status())) {
+                order.compareAndSetStatus(current, event.status());
+            }
+            if (event.status() == OrderStatus.COMPLETED || event.status() == OrderStatus.CANCELLED) {
+                live.remove(orderId);
+            }
+            if (event.status() == OrderStatus.COMPLETED && order.getStatus() == OrderStatus.COMPLETED) {
+                completed.add(new CompletedOrder(order, eventMillis));
+            }
+        }
+        return maxOrderId;
+    }
+
+     //Reads the record at the buffer's position and moves past it.
+     //@return The record body, or null (position undefined) if it is torn or fails its CRC.
+    private static byte[] readRecord(ByteBuffer data, CRC32 crc) {
+        if (data.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = data.getInt();
+        int storedCrc = data.getInt();
+        if (length <= 0 || length > data.remaining()) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        data.get(record);
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue() == storedCrc ? record : null;
+    }
+
+
+     //Looks for a good record starting anywhere from the given offset on.
+     //Only runs when a segment has a bad record, so scanning byte by byte is fine.
+    private static boolean hasRecordAfter(ByteBuffer data, int from, CRC32 crc) {
+        for (int offset = from; offset <= data.limit() - HEADER_BYTES; offset++) {
+            data.position(offset);
+            if (readRecord(data, crc) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] encodeSnapshot(Collection<Order> liveOrders, long maxOrderId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(maxOrderId);
+        out.writeInt(liveOrders.size());
+        for (Order order : liveOrders) {
+            out.writeByte(order.getStatus().ordinal());
+            OrderCodec.write(out, order);
+        }
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeSnapshot(long number, byte[] snapshot) throws IOException {
+        // Write to a temp file first so a crash never leaves a half snapshot under the real name
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + number + ".tmp");
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+            file.force(true);
+        }
+        Files.move(temp, snapshotPath(number), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be on disk before the segments it replaces are deleted
+        syncDirectory();
+    }
+
+
+     //Fsyncs the journal directory, so renames and new files in it survive a crash.
+    private void syncDirectory() throws IOException {
+        FileChannel dir;
+        try {
+            dir = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Directories cannot be opened on Windows; NTFS journals the rename itself
+            return;
+        }
+        try (dir) {
+            dir.force(true);
+        }
+    }
+
+
+     //Reads a snapshot into the live map.
+     //@return The highest order ID stored in it.
+     //@throws IOException if the file cannot be read or is damaged.
+    private static long readSnapshot(Path path, Map<Long, Order> live) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        try {
+            if (bytes.length < 4) {
+                throw new IOException("too short");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+                throw new IOException("checksum mismatch");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a snapshot file");
+            }
+            long maxOrderId = in.readLong();
+            int count = in.readInt();
+            OrderStatus[] statuses = OrderStatus.values();
+            for (int i = 0; i < count; i++) {
+                OrderStatus status = statuses[in.readByte()];
+                Order order = OrderCodec.read(in);
+                order.compareAndSetStatus(OrderStatus.PENDING, status);
+                live.put(order.getId(), order);
+            }
+            return maxOrderId;
+        } catch (IOException | RuntimeException e) {
+            throw new IOException("Order journal snapshot " + path + " is damaged (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private void deleteBefore(long number) {
+        for (String[] kind : new String[][]{{SEGMENT_PREFIX, SEGMENT_SUFFIX}, {SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX}}) {
+            try {
+                for (long old : listNumbers(directory, kind[0], kind[1])) {
+                    if (old < number) {
+                        Files.deleteIfExists(directory.resolve(kind[0] + old + kind[1]));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Could not delete old journal files: " + e.getMessage());
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int extra) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+
+     //Lists the numbers of files named prefix + number + suffix, smallest first.
+    private static List<Long> listNumbers(Path directory, String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+
+     //A snapshot taken by startCheckpoint() that is not on disk yet.
+    public static final class Checkpoint {
+        private final long segment;
+        private final byte[] snapshot;
+
+        Checkpoint(long segment, byte[] snapshot) {
+            this.segment = segment;
+            this.snapshot = snapshot;
+        }
+    }
+
+
+     //An order the replayed segments complete, and when (epoch milliseconds).
+    public static final class CompletedOrder {
+        private final Order order;
+        private final long completedMillis;
+
+        public CompletedOrder(Order order, long completedMillis) {
+            this.order = order;
+            this.completedMillis = completedMillis;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public long getCompletedMillis() {
+            return completedMillis;
+        }
+    }
+
+
+     //What recover() found: open orders in journal order, the orders completed
+     //since the snapshot (the archive may not have them on disk), and the highest ID used.
+    public static final class RecoveredState {
+        private final List<Order> liveOrders;
+        private final List<CompletedOrder> completedOrders;
+        private final long maxOrderId;
+
+        RecoveredState(List<Order> liveOrders, List<CompletedOrder> completedOrders, long maxOrderId) {
+            this.liveOrders = liveOrders;
+            this.completedOrders = completedOrders;
+            this.maxOrderId = maxOrderId;
+        }
+
+        public List<Order> getLiveOrders() {
+            return liveOrders;
+        }
+
+        public List<CompletedOrder> getCompletedOrders() {
+            return completedOrders;
+        }
+
+        public long getMaxOrderId() {
+            return maxOrderId;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+module kioskapp.core {
+    // No JavaFX in here: the backend has to start on a machine without a display.
+
+    requires jdk.httpserver; // Order intake server
+    requires java.net.http;  // Order intake client
+
+    // Exports everything the UI module and the tools build on.
+    exports kioskapp.model;    // Exports model classes
+    exports kioskapp.manager;  // Exports manager classes and listeners
+    exports kioskapp.storage;  // Exports the order journal
+    exports kioskapp.metrics;  // Exports pipeline metrics
+    exports kioskapp.server;   // Exports the headless launcher and intake server
+    exports kioskapp.loadtest; // Exports the load generator
+}
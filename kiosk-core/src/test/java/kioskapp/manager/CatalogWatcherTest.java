@@ -0,0 +1,50 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import kioskapp.storage.CatalogFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogWatcherTest {
+    private static final List<Product> MENU = List.of(
+            new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000)),
+            new Product("S1", "Jolly Spaghetti", Money.ofCentavos(6_000)));
+
+    @Test
+    void adminEditsSurviveAReload(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("menu.csv");
+        ProductManager productManager = new ProductManager();
+        try (CatalogWatcher watcher = CatalogWatcher.open(file, productManager, MENU)) {
+            productManager.updateProduct(new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(13_000)));
+            productManager.addProduct(new Product("F1", "Jolly Fries", Money.ofCentavos(4_000)));
+
+            assertEquals(3, CatalogFile.read(file).size());
+            assertEquals(0, watcher.reload());
+            assertEquals(Money.ofCentavos(13_000), productManager.getProductById("C1").getPrice());
+            assertEquals(3, productManager.getAllProducts().size());
+        }
+    }
+
+    @Test
+    void anEmptyMenuIsRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("menu.csv");
+        ProductManager productManager = new ProductManager();
+        try (CatalogWatcher watcher = CatalogWatcher.open(file, productManager, MENU)) {
+            Files.writeString(file, "");
+            assertEquals(-1, watcher.reload());
+            assertEquals(2, productManager.getAllProducts().size());
+        }
+
+        // Nor is one accepted at startup
+        assertThrows(IOException.class, () -> CatalogWatcher.open(file, new ProductManager(), MENU));
+    }
+}
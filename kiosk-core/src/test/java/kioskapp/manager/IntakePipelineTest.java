@@ -0,0 +1,155 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntakePipelineTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+
+    @Test
+    void badCartFailsOnlyItsOwnFuture() throws Exception {
+        ProductManager productManager = catalog();
+        try (OrderManager orderManager = new OrderManager();
+             IntakePipeline pipeline = new IntakePipeline(productManager, orderManager, 8)) {
+            Order unknown = new Order(0, false);
+            unknown.addItem(new Product("X9", "Not on the menu", Money.ofCentavos(1)), 1);
+            CompletableFuture<Order> rejected = pipeline.submit(unknown);
+            CompletableFuture<Order> empty = pipeline.submit(new Order(0, false));
+            CompletableFuture<Order> placed = pipeline.submit(cart());
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+            assertThrows(ExecutionException.class, () -> empty.get(5, TimeUnit.SECONDS));
+            assertEquals(OrderStatus.PENDING, placed.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(1, orderManager.getPendingOrders().size());
+        }
+    }
+
+    @Test
+    void idleStagesWakeAsSoonAsACartArrives() throws Exception {
+        ProductManager productManager = catalog();
+        try (OrderManager orderManager = new OrderManager();
+             IntakePipeline pipeline = new IntakePipeline(productManager, orderManager, 8)) {
+            pipeline.submit(cart()).get(5, TimeUnit.SECONDS);
+            Thread.sleep(300); // every stage is parked now
+            for (int i = 0; i < 5; i++) {
+                long start = System.nanoTime();
+                pipeline.submit(cart()).get(5, TimeUnit.SECONDS);
+                // Four stages waiting out their backstop would take 400 ms
+                assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(150));
+                Thread.sleep(120);
+            }
+        }
+    }
+
+    @Test
+    void stageKeepsRunningAfterAThrowingListener() throws Exception {
+        ProductManager productManager = catalog();
+        try (OrderManager orderManager = new OrderManager();
+             IntakePipeline pipeline = new IntakePipeline(productManager, orderManager, 8)) {
+            AtomicBoolean thrown = new AtomicBoolean();
+            orderManager.addOrderListener(new OrderListener() {
+                @Override
+                public void orderPlaced(Order order) {
+                    if (thrown.compareAndSet(false, true)) {
+                        throw new IllegalStateException("screen went away");
+                    }
+                }
+            });
+            CompletableFuture<Order> first = pipeline.submit(cart());
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+
+            for (int i = 0; i < 50; i++) {
+                pipeline.submit(cart()).get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(51, orderManager.getPendingOrders().size());
+        }
+    }
+
+    @Test
+    void closeCompletesEveryAcceptedCart() throws Exception {
+        ProductManager productManager = catalog();
+        for (int round = 0; round < 20; round++) {
+            try (OrderManager orderManager = new OrderManager()) {
+                IntakePipeline pipeline = new IntakePipeline(productManager, orderManager, 16);
+                List<CompletableFuture<Order>> accepted = new CopyOnWriteArrayList<>();
+                AtomicInteger refused = new AtomicInteger();
+                CountDownLatch started = new CountDownLatch(4);
+                Thread[] kiosks = new Thread[4];
+                for (int k = 0; k < kiosks.length; k++) {
+                    kiosks[k] = new Thread(() -> {
+                        started.countDown();
+                        for (int i = 0; i < 200; i++) {
+                            try {
+                                accepted.add(pipeline.submit(cart()));
+                            } catch (IllegalStateException closed) {
+                                refused.incrementAndGet();
+                            }
+                        }
+                    });
+                    kiosks[k].start();
+                }
+                started.await();
+                pipeline.close();
+                for (CompletableFuture<Order> future : accepted) {
+                    // Anything submit() handed out is finished by the time close() returns
+                    assertTrue(future.isDone());
+                }
+                for (Thread kiosk : kiosks) {
+                    kiosk.join();
+                }
+                for (CompletableFuture<Order> future : accepted) {
+                    assertTrue(future.isDone());
+                    assertEquals(OrderStatus.PENDING, future.get().getStatus());
+                }
+                assertEquals(800, accepted.size() + refused.get());
+                assertEquals(accepted.size(), orderManager.getPendingOrders().size());
+            }
+        }
+    }
+
+    @Test
+    void abandonedOrderIsTakenBack() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Order order = new Order(orderManager.nextOrderId(), false);
+            order.addItem(CHICKEN, 1);
+            orderManager.journalPlaced(order);
+            assertEquals(1, orderManager.getTrackedOrderCount());
+
+            orderManager.abandonPlaced(order);
+            assertEquals(OrderStatus.CANCELLED, order.getStatus());
+            assertEquals(0, orderManager.getTrackedOrderCount());
+            assertTrue(orderManager.getPendingOrders().isEmpty());
+        }
+    }
+
+    private static ProductManager catalog() {
+        ProductManager productManager = new ProductManager();
+        productManager.addProduct(CHICKEN);
+        return productManager;
+    }
+
+    private static Order cart() {
+        Order cart = new Order(0, false);
+        cart.addItem(CHICKEN, 1);
+        return cart;
+    }
+}
@@ -0,0 +1,130 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import kioskapp.model.Station;
+import kioskapp.storage.OrderJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KitchenTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+    private static final Product BURGER = new Product("B1", "Burger Steak 1pc", Money.ofCentavos(9_500));
+
+    @Test
+    void orderCompletesWithItsLastTicket() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            Order order = prepare(orderManager);
+            assertEquals(1, kitchen.pendingTickets(Station.FRYER));
+            assertEquals(1, kitchen.pendingTickets(Station.GRILL));
+
+            KitchenTicket fryer = kitchen.takeTicket(Station.FRYER);
+            assertFalse(kitchen.finishTicket(fryer));
+            // A second "done" for the same ticket must not count as the grill's
+            assertFalse(kitchen.finishTicket(order.getId(), Station.FRYER));
+            assertEquals(OrderStatus.PREPARING, order.getStatus());
+
+            KitchenTicket grill = kitchen.takeTicket(Station.GRILL);
+            assertTrue(kitchen.finishTicket(order.getId(), grill.getStation()));
+            assertEquals(OrderStatus.COMPLETED, orderManager.getOrderStatus(order.getId()));
+        }
+    }
+
+    @Test
+    void orderCompletedElsewhereLeavesNoTickets() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            for (int i = 0; i < 100; i++) {
+                Order order = prepare(orderManager);
+                assertTrue(orderManager.completePreparation(order.getId()));
+            }
+            assertEquals(0, kitchen.pendingTickets(Station.FRYER));
+            assertEquals(0, kitchen.pendingTickets(Station.GRILL));
+            assertNull(kitchen.takeTicket(Station.GRILL));
+        }
+    }
+
+    @Test
+    void returnedTicketIsNextInLine() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            prepare(orderManager);
+            prepare(orderManager);
+            KitchenTicket first = kitchen.takeTicket(Station.FRYER);
+            kitchen.returnTicket(first);
+            assertEquals(2, kitchen.pendingTickets(Station.FRYER));
+            assertSame(first, kitchen.takeTicket(Station.FRYER));
+        }
+    }
+
+    @Test
+    void ticketFinishedByIdWhileQueuedIsNotHandedOut() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            Order order = prepare(orderManager);
+            // A remote screen finishes the fryer ticket before anyone took it
+            assertFalse(kitchen.finishTicket(order.getId(), Station.FRYER));
+
+            // The grill is still working, but the fryer has nothing left to make
+            assertNull(kitchen.takeTicket(Station.FRYER));
+            assertEquals(Station.GRILL, kitchen.takeTicket(Station.GRILL).getStation());
+            assertEquals(OrderStatus.PREPARING, order.getStatus());
+        }
+    }
+
+    @Test
+    void lastTicketStaysOpenWhenTheCompletionFails(@TempDir Path dir) throws IOException {
+        OrderJournal journal = OrderJournal.open(dir);
+        OrderManager orderManager = new OrderManager(journal);
+        try {
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            Order order = prepare(orderManager);
+            assertFalse(kitchen.finishTicket(kitchen.takeTicket(Station.FRYER)));
+            KitchenTicket grill = kitchen.takeTicket(Station.GRILL);
+            journal.close(); // every append fails from here on
+
+            assertThrows(IllegalStateException.class, () -> kitchen.finishTicket(grill));
+            assertEquals(OrderStatus.PREPARING, order.getStatus());
+            // The station can still say it is done; the fryer's ticket stays made
+            assertTrue(kitchen.hasOpenTicket(order.getId(), Station.GRILL));
+            assertFalse(kitchen.hasOpenTicket(order.getId(), Station.FRYER));
+            assertThrows(IllegalStateException.class, () -> kitchen.finishTicket(order.getId(), Station.GRILL));
+            assertTrue(kitchen.hasOpenTicket(order.getId(), Station.GRILL));
+        } finally {
+            orderManager.close();
+        }
+    }
+
+    @Test
+    void attachPicksUpOrdersAlreadyPreparing() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Order order = prepare(orderManager);
+            Kitchen kitchen = Kitchen.attach(orderManager, DefaultMenu.stationRoutes());
+            assertTrue(kitchen.hasOpenTicket(order.getId(), Station.FRYER));
+            assertEquals(1, kitchen.pendingTickets(Station.GRILL));
+        }
+    }
+
+    private static Order prepare(OrderManager orderManager) {
+        Order cart = new Order(0, false);
+        cart.addItem(CHICKEN, 1);
+        cart.addItem(BURGER, 2);
+        orderManager.placeOrder(cart);
+        Order order = orderManager.retrieveNextOrder();
+        assertTrue(orderManager.sendOrderToPreparation(order));
+        return order;
+    }
+}
@@ -0,0 +1,86 @@
+package kioskapp.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAndRiseOnEachThread() throws InterruptedException {
+        OrderIdGenerator generator = new OrderIdGenerator(7);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                long previous = 0;
+                long[] batch = new long[16];
+                for (int i = 0; i < 20_000; i++) {
+                    long id = generator.next();
+                    assertTrue(id > previous);
+                    assertTrue(seen.add(id));
+                    previous = id;
+                    if (i % 1000 == 0) {
+                        generator.next(batch);
+                        for (long batchId : batch) {
+                            assertTrue(batchId > previous);
+                            assertTrue(seen.add(batchId));
+                            previous = batchId;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * (20_000 + 20 * 16), seen.size());
+        for (long id : seen) {
+            assertEquals(7, OrderIdGenerator.nodeOf(id));
+        }
+    }
+
+    @Test
+    void advancePastSkipsUsedIds() {
+        OrderIdGenerator before = new OrderIdGenerator(3);
+        long used = 0;
+        for (int i = 0; i < 10_000; i++) {
+            used = before.next();
+        }
+        // A restart within the same millisecond, e.g. after a crash loop
+        OrderIdGenerator after = new OrderIdGenerator(3);
+        after.advancePast(used);
+        assertEquals(used, after.lastIssued());
+        assertTrue(after.next() > used);
+
+        // An older ID never moves it back
+        long current = after.lastIssued();
+        after.advancePast(used - 5);
+        assertEquals(current, after.lastIssued());
+        assertTrue(after.next() > current);
+
+        // Far in the future (clock was ahead on the last run): keep counting from there
+        long future = idAt(after, OrderIdGenerator.EPOCH_MILLIS + (1L << 40));
+        after.advancePast(future);
+        assertTrue(after.next() > future);
+    }
+
+    @Test
+    void nodeIdIsChecked() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID + 1));
+        assertEquals(OrderIdGenerator.MAX_NODE_ID, new OrderIdGenerator(OrderIdGenerator.MAX_NODE_ID).getNodeId());
+    }
+
+    // An ID this generator's node would have issued at the given time
+    private static long idAt(OrderIdGenerator generator, long millis) {
+        return (millis - OrderIdGenerator.EPOCH_MILLIS) << (OrderIdGenerator.NODE_BITS + OrderIdGenerator.SEQUENCE_BITS)
+                | (long) generator.getNodeId() << OrderIdGenerator.SEQUENCE_BITS;
+    }
+}
@@ -0,0 +1,352 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import kioskapp.storage.JournalEvent;
+import kioskapp.storage.OrderArchive;
+import kioskapp.storage.OrderJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderManagerTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+
+    @Test
+    void finishedOrdersAreForgotten() {
+        try (OrderManager orderManager = new OrderManager()) {
+            for (int i = 0; i < 20_000; i++) {
+                Order placed = orderManager.placeOrder(cart(i % 5 == 0));
+                if (i % 10 == 0) {
+                    assertTrue(orderManager.cancelOrder(placed.getId()));
+                    continue;
+                }
+                Order next = orderManager.retrieveNextOrder();
+                assertTrue(orderManager.sendOrderToPreparation(next));
+                assertTrue(orderManager.completePreparation(next.getId()));
+                assertTrue(orderManager.getTrackedOrderCount() <= 1);
+            }
+            assertEquals(0, orderManager.getTrackedOrderCount());
+        }
+    }
+
+    @Test
+    void recentlyFinishedStatusIsStillKnown() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Order first = orderManager.placeOrder(cart(false));
+            Order second = orderManager.placeOrder(cart(false));
+            orderManager.cancelOrder(second.getId());
+            Order next = orderManager.retrieveNextOrder();
+            orderManager.sendOrderToPreparation(next);
+            orderManager.completePreparation(next.getId());
+
+            assertEquals(OrderStatus.COMPLETED, orderManager.getOrderStatus(first.getId()));
+            assertEquals(OrderStatus.CANCELLED, orderManager.getOrderStatus(second.getId()));
+            assertNull(orderManager.findOrder(first.getId()));
+
+            // Only the latest finished orders are remembered
+            for (int i = 0; i < OrderRegistry.RECENTLY_FINISHED; i++) {
+                orderManager.cancelOrder(orderManager.placeOrder(cart(false)).getId());
+            }
+            assertNull(orderManager.getOrderStatus(first.getId()));
+        }
+    }
+
+    @Test
+    void openOrdersStayTracked() {
+        try (OrderManager orderManager = new OrderManager()) {
+            Order atCashier = orderManager.placeOrder(cart(false));
+            Order pending = orderManager.placeOrder(cart(false));
+            orderManager.retrieveNextOrder();
+            assertEquals(2, orderManager.getTrackedOrderCount());
+            assertNotNull(orderManager.findOrder(pending.getId()));
+            assertEquals(OrderStatus.AT_CASHIER, orderManager.getOrderStatus(atCashier.getId()));
+        }
+    }
+
+    @Test
+    void openOrdersNeverShareADisplayCode() {
+        try (OrderManager orderManager = new OrderManager()) {
+            // Thousands of open orders: the 20-bit codes would collide without the check
+            Set<String> codes = new HashSet<>();
+            for (int i = 0; i < 5_000; i++) {
+                assertTrue(codes.add(orderManager.placeOrder(cart(false)).getOrderId()));
+            }
+            List<Order> carts = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                carts.add(cart(i % 3 == 0));
+            }
+            long previous = 0;
+            for (PlacementResult result : orderManager.placeOrders(carts)) {
+                assertTrue(codes.add(result.getOrder().getOrderId()));
+                assertTrue(result.getOrder().getId() > previous);
+                previous = result.getOrder().getId();
+            }
+        }
+    }
+
+    @Test
+    void restartRestoresOpenOrders(@TempDir Path dir) throws IOException {
+        Order normal;
+        Order atCashier;
+        Order priority;
+        Order pending;
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(dir))) {
+            normal = orderManager.placeOrder(cart(false));
+            atCashier = orderManager.placeOrder(cart(false));
+            priority = orderManager.placeOrder(cart(true));
+            assertEquals(priority, orderManager.retrieveNextOrder());
+            orderManager.sendOrderToPreparation(priority);
+            orderManager.completePreparation(priority.getId());
+            assertEquals(normal, orderManager.retrieveNextOrder());
+            orderManager.sendOrderToPreparation(normal);
+            assertEquals(atCashier, orderManager.retrieveNextOrder());
+            pending = orderManager.placeOrder(cart(false));
+        }
+
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(dir))) {
+            assertEquals(OrderStatus.PREPARING, orderManager.getOrderStatus(normal.getId()));
+            // The cashier's screen is gone, so that order waits again
+            assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(atCashier.getId()));
+            assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(pending.getId()));
+            assertNull(orderManager.getOrderStatus(priority.getId()));
+            assertEquals(2, orderManager.getPendingOrders().size());
+            assertEquals(1, orderManager.getPreparingOrders().size());
+            assertEquals(3, orderManager.getTrackedOrderCount());
+            assertTrue(orderManager.placeOrder(cart(false)).getId() > pending.getId());
+        }
+    }
+
+    @Test
+    void recoveryArchivesCompletedOrdersTheArchiveLost(@TempDir Path dir) throws IOException {
+        Path journalDir = dir.resolve("journal");
+        Path archiveDir = dir.resolve("archive");
+        Order archived = new Order(1, false, 0);
+        archived.addItem(CHICKEN, 1);
+        Order lost = new Order(2, false, 0);
+        lost.addItem(CHICKEN, 2);
+        // The journal has both completions; the crash took the second one's archive pages
+        try (OrderJournal journal = OrderJournal.open(journalDir)) {
+            for (Order order : List.of(archived, lost)) {
+                journal.append(JournalEvent.PLACED, order);
+                journal.append(JournalEvent.RETRIEVED, order);
+                journal.append(JournalEvent.SENT_TO_PREPARATION, order);
+                journal.awaitDurable(journal.append(JournalEvent.COMPLETED, order));
+            }
+        }
+        try (OrderArchive archive = OrderArchive.open(archiveDir)) {
+            archive.append(archived, 1_000);
+        }
+
+        try (OrderArchive archive = OrderArchive.open(archiveDir);
+             OrderManager orderManager = new OrderManager(OrderJournal.open(journalDir),
+                     SchedulingPolicy.strictPriority(), new OrderIdGenerator(0), archive)) {
+            assertTrue(orderManager.isRecovered());
+            assertEquals(0, orderManager.getTrackedOrderCount());
+            assertEquals(2, archive.size());
+            assertEquals(2, archive.findById(lost.getId()).getLineQuantity(0));
+        }
+        // The recovery checkpoint dropped them from the journal; the archive still has both
+        try (OrderArchive archive = OrderArchive.openReadOnly(archiveDir)) {
+            assertEquals(2, archive.size());
+            assertNotNull(archive.findById(lost.getId()));
+        }
+    }
+
+    @Test
+    void ordersTheArchiveCouldNotTakeSurviveCheckpoints(@TempDir Path dir) throws IOException {
+        Path journalDir = dir.resolve("journal");
+        Path archiveDir = dir.resolve("archive");
+        Order completed;
+        OrderArchive broken = OrderArchive.open(archiveDir);
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(journalDir),
+                SchedulingPolicy.strictPriority(), new OrderIdGenerator(0), broken)) {
+            broken.close(); // every append fails from here on
+            completed = orderManager.placeOrder(cart(false));
+            orderManager.retrieveNextOrder();
+            assertTrue(orderManager.sendOrderToPreparation(completed));
+            // The kitchen is not held up by the archive
+            assertTrue(orderManager.completePreparation(completed.getId()));
+
+            // Neither this checkpoint nor the one in close() may drop the only copy
+            orderManager.checkpoint();
+        }
+
+        try (OrderArchive archive = OrderArchive.open(archiveDir);
+             OrderManager orderManager = new OrderManager(OrderJournal.open(journalDir),
+                     SchedulingPolicy.strictPriority(), new OrderIdGenerator(0), archive)) {
+            assertTrue(orderManager.isRecovered());
+            assertNotNull(archive.findById(completed.getId()));
+            assertEquals(1, archive.size());
+        }
+    }
+
+    @Test
+    void checkpointArchivesWaitingOrdersOnceTheArchiveWorks(@TempDir Path dir) throws IOException {
+        Path journalDir = dir.resolve("journal");
+        OrderArchive broken = OrderArchive.open(dir.resolve("broken"));
+        try (OrderArchive archive = OrderArchive.open(dir.resolve("archive"));
+             OrderManager orderManager = new OrderManager(OrderJournal.open(journalDir),
+                     SchedulingPolicy.strictPriority(), new OrderIdGenerator(0), broken)) {
+            broken.close();
+            Order completed = orderManager.placeOrder(cart(false));
+            orderManager.retrieveNextOrder();
+            assertTrue(orderManager.sendOrderToPreparation(completed));
+            assertTrue(orderManager.completePreparation(completed.getId()));
+
+            orderManager.setArchive(archive);
+            orderManager.checkpoint();
+            assertNotNull(archive.findById(completed.getId()));
+            assertEquals(1, archive.size());
+        }
+        // That checkpoint went ahead, so the journal no longer holds the order
+        try (OrderArchive archive = OrderArchive.open(dir.resolve("again"));
+             OrderManager orderManager = new OrderManager(OrderJournal.open(journalDir),
+                     SchedulingPolicy.strictPriority(), new OrderIdGenerator(0), archive)) {
+            assertEquals(0, archive.size());
+        }
+    }
+
+    @Test
+    void unreadableJournalIsNeverCheckpointedAway(@TempDir Path dir) throws IOException {
+        Order first;
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(dir))) {
+            first = orderManager.placeOrder(cart(false));
+        }
+        // A segment that cannot be read: the next start replays it and fails
+        long last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "{journal-,snapshot-}*")) {
+            for (Path file : files) {
+                last = Math.max(last, Long.parseLong(file.getFileName().toString().replaceAll("\\D", "")));
+            }
+        }
+        Path broken = Files.createDirectory(dir.resolve("journal-" + (last + 1) + ".log"));
+
+        Order second;
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(dir))) {
+            assertFalse(orderManager.isRecovered());
+            second = orderManager.placeOrder(cart(false));
+            orderManager.checkpoint();
+        }
+
+        Files.delete(broken);
+        try (OrderManager orderManager = new OrderManager(OrderJournal.open(dir))) {
+            assertTrue(orderManager.isRecovered());
+            assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(first.getId()));
+            assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(second.getId()));
+        }
+    }
+
+    @Test
+    void failedJournalWritesLeaveNoHalfDoneOrders(@TempDir Path dir) throws IOException {
+        OrderJournal journal = OrderJournal.open(dir);
+        OrderManager orderManager = new OrderManager(journal);
+        try {
+            Order placed = orderManager.placeOrder(cart(false));
+            journal.close(); // every append fails from here on
+
+            assertThrows(IllegalStateException.class, () -> orderManager.retrieveNextOrder());
+            assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(placed.getId()));
+            assertEquals(List.of(placed), orderManager.getPendingOrders());
+
+            assertThrows(IllegalStateException.class, () -> orderManager.placeOrder(cart(false)));
+            assertEquals(1, orderManager.getTrackedOrderCount());
+            assertEquals(1, orderManager.getPendingOrders().size());
+
+            // In bulk, each unstored cart is reported and nothing is half placed
+            List<PlacementResult> results = orderManager.placeOrders(List.of(cart(false), new Order(0, false), cart(true)));
+            assertEquals(3, results.size());
+            for (PlacementResult result : results) {
+                assertFalse(result.isPlaced());
+            }
+            assertEquals("Empty cart", results.get(1).getError());
+            assertEquals(1, orderManager.getTrackedOrderCount());
+            assertEquals(1, orderManager.getPendingOrders().size());
+        } finally {
+            orderManager.close();
+        }
+    }
+
+    @Test
+    void failedJournalWritesUndoEveryLaterStep(@TempDir Path dir) throws IOException {
+        OrderJournal journal = OrderJournal.open(dir);
+        OrderManager orderManager = new OrderManager(journal);
+        try {
+            Order preparing = orderManager.placeOrder(cart(false));
+            Order atCashier = orderManager.placeOrder(cart(false));
+            Order pending = orderManager.placeOrder(cart(true));
+            assertEquals(pending, orderManager.retrieveNextOrder());
+            assertTrue(orderManager.returnToPending(pending));
+            assertEquals(pending, orderManager.retrieveNextOrder());
+            assertTrue(orderManager.sendOrderToPreparation(pending));
+            assertEquals(preparing, orderManager.retrieveNextOrder());
+            assertTrue(orderManager.sendOrderToPreparation(preparing));
+            assertEquals(atCashier, orderManager.retrieveNextOrder());
+            Order queued = orderManager.placeOrder(cart(false));
+            List<Order> heard = new ArrayList<>();
+            orderManager.addOrderListener(new OrderListener() {
+                @Override
+                public void orderSentToPreparation(Order order) {
+                    heard.add(order);
+                }
+
+                @Override
+                public void orderCompleted(Order order) {
+                    heard.add(order);
+                }
+
+                @Override
+                public void orderCancelled(Order order, OrderStatus previous) {
+                    heard.add(order);
+                }
+            });
+            journal.close(); // every append fails from here on
+
+            assertThrows(IllegalStateException.class, () -> orderManager.sendOrderToPreparation(atCashier));
+            assertEquals(OrderStatus.AT_CASHIER, atCashier.getStatus());
+
+            assertThrows(IllegalStateException.class, () -> orderManager.completePreparation(preparing.getId()));
+            assertEquals(OrderStatus.PREPARING, preparing.getStatus());
+            // Still in the list, and still ahead of the order sent after it
+            assertEquals(List.of(pending, preparing), orderManager.getPreparingOrders());
+
+            assertThrows(IllegalStateException.class, () -> orderManager.cancelOrder(queued.getId()));
+            assertEquals(OrderStatus.PENDING, queued.getStatus());
+            assertEquals(List.of(queued), orderManager.getPendingOrders());
+            assertThrows(IllegalStateException.class, () -> orderManager.cancelOrder(pending.getId()));
+            assertEquals(OrderStatus.PREPARING, pending.getStatus());
+            assertEquals(List.of(pending, preparing), orderManager.getPreparingOrders());
+            assertThrows(IllegalStateException.class, () -> orderManager.cancelOrder(atCashier.getId()));
+            assertEquals(OrderStatus.AT_CASHIER, atCashier.getStatus());
+
+            assertTrue(heard.isEmpty());
+            // Nothing was forgotten, so no display code was given up either
+            assertEquals(4, orderManager.getTrackedOrderCount());
+        } finally {
+            orderManager.close();
+        }
+    }
+
+    static Order cart(boolean priority) {
+        Order cart = new Order(0, priority);
+        cart.addItem(CHICKEN, 1);
+        return cart;
+    }
+}
@@ -0,0 +1,37 @@
+package kioskapp.manager;
+
+import kioskapp.model.Order;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderRegistryTest {
+    // The multiplier behind Order.displayCodeBits
+    private static final long CODE_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    @Test
+    void fullRegistryRefusesNewIdsInsteadOfSpinning() {
+        OrderRegistry registry = new OrderRegistry();
+        // One ID per display code: the multiplier is odd, so it has an inverse mod 2^64
+        long inverse = CODE_MULTIPLIER;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - CODE_MULTIPLIER * inverse;
+        }
+        for (long bits = 0; bits < 1 << 20; bits++) {
+            long id = (bits << 44) * inverse;
+            assertEquals(bits, Order.displayCodeBits(id));
+            assertTrue(registry.claimCode(id));
+        }
+
+        assertThrows(IllegalStateException.class, () -> registry.claimNewId(new OrderIdGenerator(0)));
+
+        // Once an order finishes, another ID may take its code
+        long sameCode = ((7L << 44) + 1) * inverse;
+        assertFalse(registry.claimCode(sameCode));
+        registry.forget((7L << 44) * inverse);
+        assertTrue(registry.claimCode(sameCode));
+    }
+}
@@ -0,0 +1,151 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import kioskapp.model.ProductTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductManagerTest {
+
+    @Test
+    void singleEditsKeepTheIndexInStep() {
+        ProductManager productManager = new ProductManager();
+        for (int i = 0; i < 5; i++) {
+            productManager.addProduct(product("P" + i, 100 + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> productManager.addProduct(product("p3", 1)));
+
+        assertTrue(productManager.updateProduct(product("P2", 999)));
+        assertTrue(productManager.deleteProduct("p1"));
+        assertFalse(productManager.deleteProduct("P1"));
+
+        // Every product left must be found, and an update after a delete must
+        // replace the right slot
+        assertTrue(productManager.updateProduct(product("P4", 444)));
+        List<Product> all = productManager.getAllProducts();
+        assertEquals(List.of("P0", "P2", "P3", "P4"), all.stream().map(Product::getId).toList());
+        for (Product product : all) {
+            assertSame(product, productManager.getProductById(product.getId().toLowerCase()));
+        }
+        assertEquals(Money.ofCentavos(999), productManager.getProductById("P2").getPrice());
+        assertEquals(Money.ofCentavos(444), productManager.getProductById("P4").getPrice());
+        assertNull(productManager.getProductById("P1"));
+    }
+
+    @Test
+    void editsFindProductsThatDeletesMovedLeft() {
+        ProductManager productManager = new ProductManager();
+        for (int i = 0; i < 6; i++) {
+            productManager.addProduct(product("P" + i, i));
+        }
+        assertTrue(productManager.deleteProduct("P0"));
+        assertTrue(productManager.deleteProduct("P2"));
+        assertTrue(productManager.updateProduct(product("P5", 50)));
+        assertTrue(productManager.deleteProduct("P4"));
+        assertTrue(productManager.updateProduct(product("P3", 30)));
+        productManager.addProduct(product("P6", 6));
+        assertTrue(productManager.deleteProduct("P1"));
+
+        assertEquals(List.of("P3", "P5", "P6"), productManager.getAllProducts().stream().map(Product::getId).toList());
+        for (Product product : productManager.getAllProducts()) {
+            assertSame(product, productManager.getProductById(product.getId()));
+        }
+        assertEquals(Money.ofCentavos(30), productManager.getProductById("P3").getPrice());
+        assertEquals(Money.ofCentavos(50), productManager.getProductById("P5").getPrice());
+    }
+
+    @Test
+    void replaceAllReindexesEveryPosition() {
+        ProductManager productManager = new ProductManager();
+        productManager.replaceAll(List.of(product("A", 1), product("B", 2), product("C", 3)));
+        Product c = productManager.getProductById("C");
+
+        assertEquals(2, productManager.replaceAll(List.of(product("C", 3), product("D", 4), product("B", 2))));
+        assertSame(c, productManager.getProductById("C"));
+        assertNull(productManager.getProductById("A"));
+
+        // Positions come from the new order
+        assertTrue(productManager.updateProduct(product("B", 20)));
+        assertTrue(productManager.deleteProduct("C"));
+        assertEquals(List.of("D", "B"), productManager.getAllProducts().stream().map(Product::getId).toList());
+        assertEquals(Money.ofCentavos(20), productManager.getProductById("B").getPrice());
+    }
+
+    @Test
+    void idsTheMenuFileCannotHoldAreRejected() {
+        ProductManager productManager = new ProductManager();
+        for (String id : new String[]{"A,B", "#1", " ", " C1", "D\n1"}) {
+            assertThrows(IllegalArgumentException.class, () -> productManager.addProduct(product(id, 1)));
+            assertThrows(IllegalArgumentException.class, () -> productManager.replaceAll(List.of(product(id, 1))));
+        }
+        productManager.addProduct(product("C-1#", 1));
+        assertEquals(1, productManager.getCatalogVersion());
+    }
+
+    @Test
+    void namesTheMenuFileCannotHoldAreRejected() {
+        ProductManager productManager = new ProductManager();
+        productManager.addProduct(product("N1", 1));
+        for (String name : new String[]{"Chicken\nJoy", "Chicken\rJoy", " Spaghetti", "Burger ", " "}) {
+            Product bad = new Product("N2", name, Money.ofCentavos(1));
+            assertThrows(IllegalArgumentException.class, () -> productManager.addProduct(bad));
+            assertThrows(IllegalArgumentException.class, () -> productManager.replaceAll(List.of(bad)));
+            Product badUpdate = new Product("N1", name, Money.ofCentavos(1));
+            assertThrows(IllegalArgumentException.class, () -> productManager.updateProduct(badUpdate));
+        }
+        assertEquals("Product N1", productManager.getProductById("N1").getName());
+
+        // Commas are fine: the name runs to the last comma on the line
+        productManager.addProduct(new Product("N2", "Burger, Fries, Drink", Money.ofCentavos(1)));
+        assertEquals(2, productManager.getCatalogVersion());
+    }
+
+    @Test
+    void catalogVersionsSurviveRecoveredCopies() {
+        // What the journal rebuilds: same details, no version
+        Product recovered = ProductTable.intern(product("V1", 123));
+
+        ProductManager productManager = new ProductManager();
+        productManager.replaceAll(List.of(product("V1", 123)));
+        Product inCatalog = productManager.getProductById("V1");
+
+        assertEquals(productManager.getCatalogVersion(), inCatalog.getVersion());
+        assertTrue(inCatalog.getVersion() > 0);
+        assertEquals(0, recovered.getVersion());
+        assertSame(recovered, ProductTable.intern(product("V1", 123)));
+    }
+
+    @Test
+    void editsNobodyOrdersAddNoTableEntries() {
+        ProductManager productManager = new ProductManager();
+        productManager.addProduct(product("E1", 100));
+        int before = ProductTable.size();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(productManager.updateProduct(product("E1", 100 + i)));
+            productManager.addProduct(product("E2", i));
+            assertTrue(productManager.deleteProduct("E2"));
+        }
+        assertEquals(before, ProductTable.size());
+
+        // The version in the catalog is the one an order line shares
+        Product current = productManager.getProductById("E1");
+        Order cart = new Order(0, false);
+        cart.addItem(current, 1);
+        assertEquals(before + 1, ProductTable.size());
+        assertSame(current, cart.getLineProduct(0));
+    }
+
+    private static Product product(String id, long centavos) {
+        return new Product(id, "Product " + id, Money.ofCentavos(centavos));
+    }
+}
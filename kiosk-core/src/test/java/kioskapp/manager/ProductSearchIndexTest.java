@@ -0,0 +1,90 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void prefixesMatchAnyWordInAnyCase() {
+        ProductManager productManager = new ProductManager();
+        DefaultMenu.loadInto(productManager);
+        ProductSearchIndex index = new ProductSearchIndex(productManager);
+
+        assertEquals(Set.of("C1", "C2"), ids(index.search("CHICK")));
+        // "meal" is the last word of both names
+        assertEquals(Set.of("C1", "C2"), ids(index.search("mea")));
+        assertEquals(Set.of("B1", "C1"), ids(index.search("1pc")));
+        // IDs are words too
+        assertEquals(Set.of("S1"), ids(index.search("s1")));
+        // Every word must match, in any order, with punctuation ignored
+        assertEquals(Set.of("C2"), ids(index.search("meal, 2PC chicken")));
+        assertTrue(index.search("chicken fries").isEmpty());
+        assertTrue(index.search("pizza").isEmpty());
+    }
+
+    @Test
+    void blankQueriesMatchEverything() {
+        ProductManager productManager = new ProductManager();
+        DefaultMenu.loadInto(productManager);
+        ProductSearchIndex index = new ProductSearchIndex(productManager);
+
+        int all = productManager.getAllProducts().size();
+        assertEquals(all, index.size());
+        assertEquals(all, index.search("").size());
+        assertEquals(all, index.search("   ").size());
+        assertEquals(all, index.search(" - ").size());
+        assertEquals(all, index.search(null).size());
+    }
+
+    @Test
+    void renamesAndDeletesDropTheOldWords() {
+        ProductManager productManager = new ProductManager();
+        ProductSearchIndex index = new ProductSearchIndex(productManager);
+        productManager.addProduct(new Product("P1", "Peach Mango Pie", Money.ofCentavos(4_500)));
+        productManager.addProduct(new Product("P2", "Palabok Fiesta", Money.ofCentavos(14_500)));
+        assertEquals(Set.of("P1"), ids(index.search("mango")));
+
+        assertTrue(productManager.updateProduct(new Product("P1", "Tuna Pie", Money.ofCentavos(4_500))));
+        assertTrue(index.search("mango").isEmpty());
+        assertTrue(index.search("pea").isEmpty());
+        assertEquals(Set.of("P1"), ids(index.search("tuna pie")));
+        // The renamed product is found as its new version
+        assertEquals("Tuna Pie", index.search("tuna").iterator().next().getName());
+
+        assertTrue(productManager.deleteProduct("p2"));
+        assertTrue(index.search("palabok").isEmpty());
+        assertTrue(index.search("p2").isEmpty());
+        assertEquals(Set.of("P1"), ids(index.search("p")));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void menuReloadsAreFollowed() {
+        ProductManager productManager = new ProductManager();
+        DefaultMenu.loadInto(productManager);
+        ProductSearchIndex index = new ProductSearchIndex(productManager);
+
+        productManager.replaceAll(List.of(
+                new Product("C1", "Chickenjoy Bucket", Money.ofCentavos(60_000)),
+                new Product("Y1", "Yumburger", Money.ofCentavos(4_000))));
+        assertEquals(2, index.size());
+        assertEquals(Set.of("C1"), ids(index.search("chick")));
+        assertEquals(Set.of("C1"), ids(index.search("buck")));
+        assertTrue(index.search("meal").isEmpty());
+        assertEquals(Set.of("Y1"), ids(index.search("YUM")));
+    }
+
+    private static Set<String> ids(Set<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toCollection(TreeSet::new));
+    }
+}
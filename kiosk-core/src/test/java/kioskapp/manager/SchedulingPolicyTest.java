@@ -0,0 +1,57 @@
+package kioskapp.manager;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchedulingPolicyTest {
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void defaultIsAging() {
+        Order normal = new Order(1, false, 0);
+        Order soonPriority = new Order(2, true, 4 * MINUTE);
+        Order latePriority = new Order(3, true, 6 * MINUTE);
+        for (SchedulingPolicy policy : new SchedulingPolicy[]{SchedulingPolicy.parse(null), SchedulingPolicy.parse(" Aging ")}) {
+            assertTrue(policy.rank(soonPriority) < policy.rank(normal));
+            // Waited longer than the head start: no longer passed over
+            assertTrue(policy.rank(normal) < policy.rank(latePriority));
+        }
+    }
+
+    @Test
+    void settingsAreParsed() {
+        Order normal = new Order(1, false, 0);
+        Order latePriority = new Order(2, true, 60 * MINUTE);
+        SchedulingPolicy strict = SchedulingPolicy.parse("strict");
+        assertTrue(strict.rank(latePriority) < strict.rank(normal));
+        SchedulingPolicy shortCredit = SchedulingPolicy.parse("aging:30");
+        assertTrue(shortCredit.rank(normal) < shortCredit.rank(new Order(3, true, MINUTE)));
+
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.parse("fifo"));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.parse("aging:-5"));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.parse("aging:soon"));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.parse("prep:-5"));
+    }
+
+    @Test
+    void prepSettingServesSmallOrdersSooner() {
+        Product coffee = new Product("C1", "Coffee", Money.ofCentavos(100));
+        Order big = new Order(1, false, 0);
+        big.addItem(coffee, 5);
+        Order small = new Order(2, false, MINUTE);
+        small.addItem(coffee, 1);
+
+        SchedulingPolicy aging = SchedulingPolicy.parse("aging");
+        assertTrue(aging.rank(big) < aging.rank(small));
+        for (SchedulingPolicy prep : new SchedulingPolicy[]{SchedulingPolicy.parse("prep"), SchedulingPolicy.parse("PREP:30")}) {
+            assertTrue(prep.rank(small) < prep.rank(big));
+        }
+    }
+}
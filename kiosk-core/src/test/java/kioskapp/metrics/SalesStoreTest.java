@@ -0,0 +1,65 @@
+package kioskapp.metrics;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesStoreTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    void hoursFollowDaylightSaving() {
+        SalesStore sales = new SalesStore();
+        // Noon in winter (UTC-5) and in summer (UTC-4), and the hour after the spring-forward
+        record(sales, LocalDateTime.of(2026, 1, 15, 12, 30), 1);
+        record(sales, LocalDateTime.of(2026, 7, 15, 12, 10), 2);
+        record(sales, LocalDateTime.of(2026, 3, 8, 1, 59), 3);
+        record(sales, LocalDateTime.of(2026, 3, 8, 3, 0), 4);
+
+        SalesTotals byHour = sales.byHourOfDay(NEW_YORK);
+        assertEquals(3, byHour.quantity(12));
+        assertEquals(3, byHour.quantity(1));
+        assertEquals(0, byHour.quantity(2));
+        assertEquals(4, byHour.quantity(3));
+        assertEquals(2, byHour.orders(12));
+    }
+
+    @Test
+    void manyRowsAcrossATransitionTotalTheSame() {
+        SalesStore sales = new SalesStore();
+        // Enough rows to be split across fork/join tasks, straddling the fall-back
+        LocalDateTime start = LocalDateTime.of(2026, 10, 31, 22, 0);
+        int orders = 200_000;
+        long[] expected = new long[24];
+        for (int i = 0; i < orders; i++) {
+            LocalDateTime local = start.plusSeconds(i);
+            long millis = local.atZone(NEW_YORK).toInstant().toEpochMilli();
+            sales.record(order(millis), millis);
+            expected[local.atZone(NEW_YORK).getHour()]++;
+        }
+        SalesTotals byHour = sales.byHourOfDay(NEW_YORK);
+        for (int hour = 0; hour < 24; hour++) {
+            assertEquals(expected[hour], byHour.quantity(hour), "hour " + hour);
+        }
+    }
+
+    private static void record(SalesStore sales, LocalDateTime local, int quantity) {
+        long millis = local.atZone(NEW_YORK).toInstant().toEpochMilli();
+        Order order = new Order(1, false, millis * 1_000_000);
+        order.addItem(CHICKEN, quantity);
+        sales.record(order, millis);
+    }
+
+    private static Order order(long millis) {
+        Order order = new Order(1, false, millis * 1_000_000);
+        order.addItem(CHICKEN, 1);
+        return order;
+    }
+}
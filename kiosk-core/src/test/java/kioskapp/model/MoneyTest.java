@@ -0,0 +1,26 @@
+package kioskapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void displayGroupsThousands() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("999.05", Money.ofCentavos(99_905).toString());
+        assertEquals("1,234.50", Money.ofCentavos(123_450).toString());
+        assertEquals("1,000,007.00", Money.ofCentavos(100_000_700).toString());
+        assertEquals("-12,345.67", Money.ofCentavos(-1_234_567).toString());
+        assertEquals("Total: ₱1,234.50", Money.appendCentavos(new StringBuilder("Total: ₱"), 123_450).toString());
+    }
+
+    @Test
+    void plainTextReadsBack() {
+        Money amount = Money.ofCentavos(100_000_700);
+        assertEquals("1000007.00", amount.toPlainString());
+        assertEquals("1000007.00", amount.appendPlainTo(new StringBuilder()).toString());
+        assertEquals(amount, Money.parse(amount.toPlainString()));
+    }
+}
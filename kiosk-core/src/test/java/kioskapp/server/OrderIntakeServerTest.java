@@ -0,0 +1,164 @@
+package kioskapp.server;
+
+import kioskapp.manager.DefaultMenu;
+import kioskapp.manager.Kitchen;
+import kioskapp.manager.OrderManager;
+import kioskapp.manager.ProductManager;
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import kioskapp.storage.OrderJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderIntakeServerTest {
+    private static final String TOKEN = "s3cret";
+
+    private ProductManager productManager;
+    private OrderManager orderManager;
+    private OrderIntakeServer server;
+    private URI base;
+
+    @BeforeEach
+    void start() throws IOException {
+        productManager = new ProductManager();
+        productManager.addProduct(new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000)));
+        orderManager = new OrderManager();
+        server = new OrderIntakeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                productManager, orderManager, Kitchen.attach(orderManager, DefaultMenu.stationRoutes()), TOKEN);
+        server.start();
+        base = URI.create("http://127.0.0.1:" + server.getPort());
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+        orderManager.close();
+    }
+
+    @Test
+    void staffActionsNeedTheToken() throws Exception {
+        OrderIntakeClient kiosk = new OrderIntakeClient(base);
+        long id = kiosk.placeOrder(Map.of("C1", 2), false);
+        assertEquals("PENDING", kiosk.getOrderStatus(id));
+
+        IOException refused = assertThrows(IOException.class, kiosk::retrieveNextOrder);
+        assertTrue(refused.getMessage().startsWith("HTTP 401"), refused.getMessage());
+        assertThrows(IOException.class, () -> kiosk.cancelOrder(id));
+        assertThrows(IOException.class, () -> new OrderIntakeClient(base, "wrong").cancelOrder(id));
+        assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(id));
+
+        OrderIntakeClient cashier = new OrderIntakeClient(base, TOKEN);
+        assertNotNull(cashier.retrieveNextOrder());
+        assertTrue(cashier.sendOrderToPreparation(id));
+        assertTrue(cashier.completePreparation(id));
+    }
+
+    @Test
+    void stationsTakeAndFinishTickets() throws Exception {
+        OrderIntakeClient staff = new OrderIntakeClient(base, TOKEN);
+        long id = staff.placeOrder(Map.of("C1", 1), false);
+        staff.retrieveNextOrder();
+        staff.sendOrderToPreparation(id);
+
+        assertThrows(IOException.class, () -> new OrderIntakeClient(base).takeTicket("FRYER"));
+        assertNull(staff.takeTicket("DRINKS"));
+        String ticket = staff.takeTicket("fryer");
+        assertTrue(ticket.startsWith(id + "\tFRYER\t"), ticket);
+        assertEquals("COMPLETED", staff.finishTicket(id, "FRYER"));
+        assertNull(staff.finishTicket(id, "FRYER"));
+    }
+
+    @Test
+    void noTokenOnlyOnLoopback() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntakeServer(new InetSocketAddress(0),
+                productManager, orderManager));
+    }
+
+    @Test
+    void mergedLinesMayNotExceedTheQuantityLimit() throws Exception {
+        int half = OrderIntakeServer.MAX_QUANTITY / 2 + 1;
+        String body = "C1 " + half + "\nc1 " + half + "\n";
+        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class, () -> server.parseCart(body));
+        assertTrue(tooMany.getMessage().contains("C1 " + 2 * half), tooMany.getMessage());
+
+        Map<String, Integer> cart = new LinkedHashMap<>();
+        cart.put("C1", OrderIntakeServer.MAX_QUANTITY);
+        new OrderIntakeClient(base).placeOrder(cart, false);
+    }
+
+    @Test
+    void pathsMustMatchExactlyAndUnknownOrdersAre404() throws Exception {
+        assertEquals(404, status("GET", "/ordersX"));
+        assertEquals(404, status("GET", "/menu2"));
+        assertEquals(404, status("POST", "/kitchenette/FRYER/next"));
+        assertEquals(404, status("POST", "/orders/424242/complete"));
+        assertEquals(404, status("POST", "/orders/424242/cancel"));
+
+        long id = new OrderIntakeClient(base).placeOrder(Map.of("C1", 1), false);
+        assertEquals(409, status("POST", "/orders/" + id + "/complete"));
+        assertEquals(200, status("POST", "/orders/" + id + "/cancel"));
+    }
+
+    @Test
+    void storageFailuresAnswer503(@TempDir Path dir) throws Exception {
+        OrderJournal journal = OrderJournal.open(dir);
+        try (OrderManager journaled = new OrderManager(journal);
+             OrderIntakeServer failing = new OrderIntakeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                     productManager, journaled, Kitchen.attach(journaled, DefaultMenu.stationRoutes()), TOKEN)) {
+            failing.start();
+            URI failingBase = URI.create("http://127.0.0.1:" + failing.getPort());
+            OrderIntakeClient kiosk = new OrderIntakeClient(failingBase);
+            long id = kiosk.placeOrder(Map.of("C1", 1), false);
+            journal.close(); // every write fails from here on
+
+            HttpResponse<String> placed = send(failingBase, "POST", "/orders", "C1 1\n");
+            assertEquals(503, placed.statusCode());
+            assertEquals(503, send(failingBase, "POST", "/orders/next", "").statusCode());
+            assertEquals(503, send(failingBase, "POST", "/orders/" + id + "/cancel", "").statusCode());
+        }
+    }
+
+    @Test
+    void returnedOrderIsServedAgain() {
+        Order cart = new Order(0, false);
+        cart.addItem(productManager.getProductById("C1"), 1);
+        Order placed = orderManager.placeOrder(cart);
+        Order taken = orderManager.retrieveNextOrder();
+        assertTrue(orderManager.returnToPending(taken));
+        assertEquals(OrderStatus.PENDING, orderManager.getOrderStatus(placed.getId()));
+        assertEquals(placed, orderManager.retrieveNextOrder());
+    }
+
+    private int status(String method, String path) throws Exception {
+        return send(base, method, path, "").statusCode();
+    }
+
+    private static HttpResponse<String> send(URI base, String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Authorization", "Bearer " + TOKEN)
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,59 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void namesWithCommasAndLargePricesReadBack() throws IOException {
+        Path file = dir.resolve("menu.csv");
+        List<Product> products = List.of(new Product("B1", "Burger, Fries, Drink", Money.ofCentavos(123_450)));
+        CatalogFile.write(file, products);
+
+        List<Product> read = CatalogFile.read(file);
+        assertEquals(1, read.size());
+        assertEquals("Burger, Fries, Drink", read.get(0).getName());
+        assertEquals(Money.ofCentavos(123_450), read.get(0).getPrice());
+    }
+
+    @Test
+    void unreadableNamesAreNotWritten() {
+        Path file = dir.resolve("menu.csv");
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogFile.write(file, List.of(new Product("B1", "Burger\nFries", Money.ofCentavos(1)))));
+        assertEquals(0, files());
+    }
+
+    @Test
+    void failedMoveLeavesNoTempFile() throws IOException {
+        // A non-empty directory where the file should go makes the move fail
+        Path file = dir.resolve("menu.csv");
+        Files.createDirectories(file.resolve("inside"));
+
+        assertThrows(IOException.class,
+                () -> CatalogFile.write(file, List.of(new Product("B1", "Burger", Money.ofCentavos(1)))));
+        assertEquals(1, files());
+    }
+
+    private long files() {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.count();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderArchiveTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+    private static final Product COKE = new Product("D1", "Coke Regular", Money.ofCentavos(5_000));
+    private static final long T0 = 1_760_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ordersComeBackAsTheyWereArchived() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            archive.append(order(1, 2, true), T0);
+            archive.append(order(2, 1, false), T0 + 10);
+
+            ArchivedOrder first = archive.findById(1);
+            assertNotNull(first);
+            assertTrue(first.isPriority());
+            assertEquals(T0, first.getCompletedMillis());
+            assertEquals(2, first.getLineCount());
+            assertEquals(CHICKEN.getId(), first.getLineProduct(0).getId());
+            assertEquals(2, first.getLineQuantity(0));
+            assertEquals(Money.ofCentavos(2 * 12_000 + 5_000), first.getTotalCost());
+
+            Order copy = archive.ordersBetween(T0 + 10, T0 + 11).get(0);
+            assertEquals(2, copy.getId());
+            assertEquals(Money.ofCentavos(12_000 + 5_000), copy.getTotalCost());
+            assertNull(archive.findById(3));
+        }
+    }
+
+    @Test
+    void reopenedArchiveKeepsEveryOrderAcrossSegments() throws IOException {
+        int segmentBytes = ArchiveSegment.HEADER_BYTES + 1024;
+        try (OrderArchive archive = OrderArchive.open(dir, segmentBytes)) {
+            for (int i = 1; i <= 200; i++) {
+                archive.append(order(i, i % 3 + 1, false), T0 + i);
+            }
+            assertEquals(200, archive.size());
+        }
+        assertTrue(segmentFiles().size() > 5);
+
+        try (OrderArchive archive = OrderArchive.open(dir, segmentBytes)) {
+            assertEquals(200, archive.size());
+            archive.append(order(201, 1, false), T0 + 201);
+        }
+        try (OrderArchive archive = OrderArchive.openReadOnly(dir)) {
+            assertEquals(201, archive.size());
+            for (long id = 1; id <= 201; id++) {
+                assertEquals(id, archive.findById(id).getId());
+            }
+            assertThrows(IOException.class, () -> archive.append(order(202, 1, false), T0));
+        }
+    }
+
+    @Test
+    void rangeQueriesIncludeTheStartAndLeaveOutTheEnd() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir, ArchiveSegment.HEADER_BYTES + 1024)) {
+            for (int i = 1; i <= 100; i++) {
+                archive.append(order(i, 1, false), T0 + i * 1000L);
+            }
+            // The clock stepped back
+            archive.append(order(101, 1, false), T0 + 50_500);
+
+            assertEquals(List.of(20L, 21L, 22L), ids(archive.ordersBetween(T0 + 20_000, T0 + 23_000)));
+            assertEquals(List.of(50L, 101L), ids(archive.ordersBetween(T0 + 50_000, T0 + 51_000)));
+            assertEquals(0, archive.forEachBetween(T0 + 200_000, T0 + 300_000, order -> { }));
+            assertEquals(101, archive.forEachBetween(Long.MIN_VALUE, Long.MAX_VALUE, order -> { }));
+        }
+    }
+
+    @Test
+    void tornRecordEndsTheSegment() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            archive.append(order(1, 1, false), T0);
+            archive.append(order(2, 1, false), T0 + 1);
+            archive.append(order(3, 1, false), T0 + 2);
+        }
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Walk to the last record and damage its body, as a crash mid-write would
+            int at = ArchiveSegment.HEADER_BYTES;
+            int last = at;
+            ByteBuffer length = ByteBuffer.allocate(4);
+            while (true) {
+                length.clear();
+                channel.read(length, at);
+                int size = length.getInt(0);
+                if (size == 0) {
+                    break;
+                }
+                last = at;
+                at += size;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), last + ArchiveSegment.ORDER_TOTAL);
+        }
+
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            assertEquals(2, archive.size());
+            assertNull(archive.findById(3));
+            // New orders go to a fresh segment, never after the torn record
+            archive.append(order(4, 1, false), T0 + 3);
+            assertEquals(2, segmentFiles().size());
+        }
+        try (OrderArchive archive = OrderArchive.openReadOnly(dir)) {
+            assertEquals(List.of(1L, 2L, 4L), ids(archive.ordersBetween(T0, T0 + 10)));
+        }
+    }
+
+    @Test
+    void emptySegmentsAreDeletedWithoutBeingMapped() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            archive.append(order(1, 1, false), T0);
+        }
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            assertEquals(1, archive.size());
+        }
+        // The second run archived nothing; the third start removes its segment
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            assertEquals(2, segmentFiles().size());
+            archive.force();
+        }
+    }
+
+    @Test
+    void retractedOrdersAreSkippedNowAndAfterARestart() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            archive.append(order(1, 1, false), T0);
+            archive.append(order(2, 1, false), T0 + 1);
+            archive.append(order(3, 1, false), T0 + 2);
+
+            assertTrue(archive.retract(2));
+            assertFalse(archive.retract(2));
+            assertNull(archive.findById(2));
+            assertEquals(List.of(1L, 3L), ids(archive.ordersBetween(T0, T0 + 10)));
+            assertEquals(2, archive.size());
+
+            // Completed for real later on
+            archive.append(order(2, 1, false), T0 + 5);
+            assertEquals(T0 + 5, archive.findById(2).getCompletedMillis());
+        }
+        try (OrderArchive archive = OrderArchive.open(dir)) {
+            assertEquals(List.of(1L, 3L, 2L), ids(archive.ordersBetween(T0, T0 + 10)));
+            // Orders of an earlier run cannot be retracted
+            assertFalse(archive.retract(1));
+        }
+    }
+
+    @Test
+    void deleteBeforeDropsOldSegments() throws IOException {
+        try (OrderArchive archive = OrderArchive.open(dir, ArchiveSegment.HEADER_BYTES + 1024)) {
+            for (int i = 1; i <= 100; i++) {
+                archive.append(order(i, 1, false), T0 + i);
+            }
+            // Hold a view on the oldest segment, as a running query would
+            archive.ordersBetween(T0, T0 + 2);
+            int segments = segmentFiles().size();
+
+            int dropped = archive.deleteBefore(T0 + 50);
+            assertTrue(dropped > 0 && dropped < 50);
+            assertEquals(100 - dropped, archive.size());
+            assertNull(archive.findById(1));
+            assertEquals(100, archive.findById(100).getId());
+            assertTrue(segmentFiles().size() < segments);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "archive-*.seg")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        List<Long> ids = new ArrayList<>();
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+
+    private static Order order(long id, int chickens, boolean priority) {
+        Order order = new Order(id, priority, 0);
+        order.addItem(CHICKEN, chickens);
+        order.addItem(COKE, 1);
+        return order;
+    }
+}
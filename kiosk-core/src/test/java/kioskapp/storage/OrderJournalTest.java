@@ -0,0 +1,244 @@
+package kioskapp.storage;
+
+import kioskapp.model.Money;
+import kioskapp.model.Order;
+import kioskapp.model.OrderStatus;
+import kioskapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+    private static final Product CHICKEN = new Product("C1", "Chickenjoy 1pc Meal", Money.ofCentavos(12_000));
+    private static final Product COKE = new Product("D1", "Coke Regular", Money.ofCentavos(5_000));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversOpenOrdersWithTheirLastStatus() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(1, 2)));
+            journal.append(JournalEvent.PLACED, order(2, 1));
+            journal.append(JournalEvent.PLACED, order(3, 1));
+            journal.append(JournalEvent.PLACED, order(4, 3));
+            journal.append(JournalEvent.RETRIEVED, order(2, 1));
+            journal.append(JournalEvent.SENT_TO_PREPARATION, order(2, 1));
+            journal.append(JournalEvent.RETRIEVED, order(3, 1));
+            journal.append(JournalEvent.COMPLETED, order(4, 3));
+            journal.awaitDurable(journal.append(JournalEvent.CANCELLED, order(1, 2)));
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            OrderJournal.RecoveredState state = journal.recover();
+            Map<Long, Order> live = byId(state.getLiveOrders());
+            assertEquals(2, live.size());
+            assertEquals(OrderStatus.PREPARING, live.get(2L).getStatus());
+            assertEquals(OrderStatus.AT_CASHIER, live.get(3L).getStatus());
+            assertEquals(4, state.getMaxOrderId());
+            assertEquals(CHICKEN.getId(), live.get(2L).getLineProduct(0).getId());
+            assertEquals(1, live.get(2L).getLineQuantity(0));
+        }
+    }
+
+    @Test
+    void tornTailIsIgnoredAndNotAppendedTo() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(JournalEvent.PLACED, order(1, 1));
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(2, 1)));
+        }
+        // A crash halfway through the last record: keep only part of it
+        Path segment = onlyFile("journal-");
+        long size = Files.size(segment);
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            file.truncate(size - 5);
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            OrderJournal.RecoveredState state = journal.recover();
+            assertEquals(List.of(1L), ids(state.getLiveOrders()));
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(3, 1)));
+        }
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            assertEquals(List.of(1L, 3L), ids(journal.recover().getLiveOrders()));
+        }
+    }
+
+    @Test
+    void corruptRecordEndsTheSegment() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.append(JournalEvent.PLACED, order(1, 1));
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(2, 1)));
+        }
+        Path segment = onlyFile("journal-");
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 3] ^= 0x40; // flip a bit in the last record's body
+        Files.write(segment, bytes);
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            assertEquals(List.of(1L), ids(journal.recover().getLiveOrders()));
+        }
+    }
+
+    @Test
+    void corruptRecordWithGoodOnesAfterItFailsRecovery() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(1, 1)));
+            journal.append(JournalEvent.PLACED, order(2, 1));
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(3, 1)));
+        }
+        Path segment = onlyFile("journal-");
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length / 2] ^= 0x40; // flip a bit in the middle record
+        Files.write(segment, bytes);
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            IOException error = assertThrows(IOException.class, journal::recover);
+            assertTrue(error.getMessage().contains(segment.getFileName().toString()));
+        }
+        // Left alone for someone to look at
+        assertTrue(Files.exists(segment));
+    }
+
+    @Test
+    void checkpointReplacesOldSegments() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            Order first = order(1, 1);
+            Order second = order(2, 1);
+            journal.append(JournalEvent.PLACED, first);
+            journal.append(JournalEvent.PLACED, second);
+            journal.append(JournalEvent.PLACED, order(3, 1));
+            journal.awaitDurable(journal.append(JournalEvent.COMPLETED, order(3, 1)));
+            first.compareAndSetStatus(OrderStatus.PENDING, OrderStatus.AT_CASHIER);
+            journal.awaitDurable(journal.append(JournalEvent.RETRIEVED, first));
+
+            journal.checkpoint(List.of(first, second), 3);
+            journal.awaitDurable(journal.append(JournalEvent.CANCELLED, second));
+        }
+        assertEquals(1, count("snapshot-"));
+        assertEquals(1, count("journal-"));
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            OrderJournal.RecoveredState state = journal.recover();
+            Map<Long, Order> live = byId(state.getLiveOrders());
+            assertEquals(List.of(1L), new ArrayList<>(live.keySet()));
+            assertEquals(OrderStatus.AT_CASHIER, live.get(1L).getStatus());
+            assertEquals(3, state.getMaxOrderId());
+        }
+    }
+
+    @Test
+    void crashBeforeTheSnapshotIsWrittenLosesNothing() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            Order first = order(1, 1);
+            journal.append(JournalEvent.PLACED, first);
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(2, 1)));
+            journal.checkpoint(List.of(first, order(2, 1)), 2);
+
+            // Next checkpoint gets as far as the new segment, then the process dies
+            journal.startCheckpoint(List.of(first, order(2, 1)), 2);
+            journal.awaitDurable(journal.append(JournalEvent.CANCELLED, first));
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(5, 2)));
+        }
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            OrderJournal.RecoveredState state = journal.recover();
+            assertEquals(List.of(2L, 5L), ids(state.getLiveOrders()));
+            assertEquals(5, state.getMaxOrderId());
+        }
+        assertFalse(Files.exists(dir.resolve("snapshot-3.snap")));
+        assertTrue(Files.exists(dir.resolve("snapshot-2.snap")));
+    }
+
+    @Test
+    void damagedSnapshotFailsRecoveryInsteadOfStartingEmpty() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            Order first = order(1, 1);
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, first));
+            journal.checkpoint(List.of(first), 1);
+        }
+        Path snapshot = onlyFile("snapshot-");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(snapshot, bytes);
+
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            IOException error = assertThrows(IOException.class, journal::recover);
+            assertTrue(error.getMessage().contains(snapshot.getFileName().toString()));
+        }
+        // Left alone for someone to look at
+        assertTrue(Files.exists(snapshot));
+    }
+
+    private static Order order(long id, int quantity) {
+        Order order = new Order(id, id % 2 == 0, 1_760_000_000_000_000_000L + id);
+        order.addItem(id % 2 == 0 ? CHICKEN : COKE, quantity);
+        return order;
+    }
+
+    @Test
+    void aDirectoryHasOneJournalAtATime() throws IOException {
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            journal.awaitDurable(journal.append(JournalEvent.PLACED, order(1, 1)));
+            assertThrows(IllegalStateException.class, () -> OrderJournal.open(dir));
+        }
+        // Free again once closed
+        try (OrderJournal journal = OrderJournal.open(dir)) {
+            assertEquals(1, journal.recover().getLiveOrders().size());
+        }
+    }
+
+    private static Map<Long, Order> byId(List<Order> orders) {
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order order : orders) {
+            byId.put(order.getId(), order);
+        }
+        return byId;
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        List<Long> ids = new ArrayList<>();
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private Path onlyFile(String prefix) throws IOException {
+        Path found = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path file : files) {
+                if (Files.size(file) > 0) {
+                    found = file;
+                }
+            }
+        }
+        return found;
+    }
+
+    private int count(String prefix) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+}